@@ -1,4 +1,7 @@
 import greenfoot.*;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 
 /**
  * Base abstract class representing a Bloon (enemy) in the game.
@@ -8,181 +11,186 @@ import greenfoot.*;
  * Bloons can freeze, change lanes to avoid slower traffic, and deal contact
  * damage to monkeys.
  * </p>
+ * <p>
+ * The state that changes every frame (position, speed, health, lane, freeze) lives in
+ * the world's {@link BloonStore}, which also moves every bloon. The actor holds its slot
+ * in the store and the sprite it shows. A bloon that is not in a world has no slot; it
+ * reports its tier's stats, ignores damage, and holds on to a freeze until it is added.
+ * </p>
  *
  * <p>Key features:</p>
  * <ul>
  *   <li>Supports multiple damage immunities and temporary freeze effects.</li>
- *   <li>Handles lane-following and lane-changing traffic logic.</li>
+ *   <li>Lane-following and lane-changing traffic logic runs in {@link BloonStore}.</li>
  *   <li>Spawns child bloons when popped.</li>
  *   <li>Can temporarily harm monkeys on contact with cooldowns.</li>
  * </ul>
  */
 public abstract class Bloon extends SuperSmoothMover {
-    /** Movement speed in pixels per frame. */
-    protected double speed;
-    /** Current health of the bloon. */
-    protected int health;
-    /** The next-tier bloon class to spawn when this one pops. */
-    protected Class<? extends Bloon> nextTier;
+    /** The tier of this bloon; source of its base stats and sprites. */
+    protected final BloonType type;
+    /** The next-tier bloon type to spawn when this one pops. */
+    protected BloonType nextTier;
     /** Direction of travel: {@code 1 = right}, {@code -1 = left}. */
     protected int direction;
-    /** Vertical position representing the lane's center Y-coordinate. */
-    protected int laneY;
-    /** Amount of damage dealt to a monkey on contact. */
-    protected int contactDamage = 1;
-    /** Cooldown (in frames) before this bloon can damage a monkey again. */
-    private int contactCooldown = 0; 
-    /** Whether the bloon is currently frozen. */
-    protected boolean frozen = false;
-    /** Time remaining (in frames) before a frozen bloon thaws. */
-    protected int freezeTimer = 0;
-    /** The original (unfrozen) image of the bloon for later restoration. */
-    protected GreenfootImage originalImage;
-    /** Temporary immunities (e.g., during freeze effects). */
-    private java.util.EnumMap<DamageType, Boolean> tempImmunities = new java.util.EnumMap<>(DamageType.class);
-    /** True if the bloon is currently performing a lane change. */
-    protected boolean changingLane = false;
-    /** The Y-coordinate of the lane this bloon is moving toward. */
-    protected int targetLaneY;
-    /** Speed of lane changes in pixels per frame. */
-    protected double laneChangeSpeed = 2.0; 
+    /** Lane centre Y the bloon was created in; the store tracks lane changes after that. */
+    private final int spawnLaneY;
+    /** The shared sprite currently shown; its variant follows direction and freeze state. */
+    protected SpriteCache.Sprite sprite;
+    /** Temporary immunities (e.g., during freeze effects), one bit per {@link DamageType}. */
+    private int tempImmunityMask = 0;
+    /** Store holding this bloon's state, or {@code null} while not in a world. */
+    private BloonStore store;
+    /** This bloon's slot in {@link #store}. */
+    private int slot = -1;
+    /** Freeze requested before the bloon had a slot, e.g. a child spawned by a frozen pop. */
+    private int pendingFreeze = 0;
+    /** Damage carried over from a popped parent, taken once the bloon has a slot. */
+    private int pendingDamage = 0;
     
     /**
-     * Constructs a new {@code Bloon} instance.
+     * Constructs a new {@code Bloon} instance with the stats and sprite of its tier.
      *
-     * @param speed     movement speed in pixels per frame
-     * @param health    starting health of the bloon
+     * @param type      the tier of this bloon
      * @param direction travel direction ({@code 1 = right}, {@code -1 = left})
      * @param laneY     vertical lane position
-     * @param nextTier  the next-tier bloon class to spawn upon popping
      */
-    public Bloon(double speed, int health, int direction, int laneY, Class<? extends Bloon> nextTier) {
-        this.speed = speed;
-        this.health = health;
+    public Bloon(BloonType type, int direction, int laneY) {
+        this.type = type;
         this.direction = direction;
-        this.laneY = laneY;
-        this.nextTier = nextTier;
-        if (direction == -1) {
-            GreenfootImage img = getImage();
-            if (img != null) {
-                img.mirrorHorizontally(); 
-                setImage(img);
-            }
-        }
-    
+        this.spawnLaneY = laneY;
+        this.nextTier = type.getSingleChild();
+        showSprite(type.getSprite());
     }
-    
 
     /**
-     * Main update method — called once per frame.
-     * Handles freezing, movement, lane logic, collisions, and cleanup.
-     */
-    @Override
-    public void act() {
-        if (frozen) {
-            freezeTimer--;
-            if (freezeTimer <= 0) {
-                frozen = false;
-                setTemporaryImmunity(DamageType.NORMAL, false);
-                setImage(new GreenfootImage(originalImage)); 
-                updateImageDirection();
-            } else {
-                return; 
-            }
-        }
-    
-        handleTrafficLogic();
-        move(speed * direction);
-        checkCollisionWithMonkey();
-        checkOutOfBounds();
-    }
-    /**
-     * Applies damage to this bloon based on the damage type.
+     * Applies damage to this bloon based on the damage type. Whether the hit counts is up
+     * to {@link BloonType#ignores}, so the headless engine applies the same immunities.
      *
      * @param dmg  the amount of damage
      * @param type the {@link DamageType} applied
      */
     public void takeDamage(int dmg, DamageType type) {
-        if (isImmuneTo(type)) {
+        if (this.type.ignores(type, tempImmunityMask)) {
+            onIgnoredHit();
             return;
         }
     
-        Boolean tempImmune = tempImmunities.get(type);
-        if (tempImmune != null && tempImmune) return;
-    
-        health -= dmg;
-        if (health <= 0) pop();
+        int health = loseHealth(dmg);
+        onHit();
+        if (health <= 0) {
+            pop(-health, type);
+            return;
+        }
+        onDamaged(health);
     }
     
     /**
-     * Handles what happens when a bloon is destroyed (popped).
-     * <p>
-     * - Spawns its child tier (if any).<br>
-     * - Transfers freeze effects if applicable.<br>
-     * - Plays pop visual effect and removes this object.
-     * </p>
+     * Pops this bloon with no damage to spare: its children spawn, a frozen single child
+     * keeps the freeze, and the pop effect plays.
      */
     protected void pop() {
-        World world = getWorld();
-        if (world == null) return;
-    
-        int x = getX();
-        int y = getY();
-    
-        boolean wasFrozen = frozen;
-        int remainingFreeze = freezeTimer;
-    
-        Class<? extends Bloon> child = getChildTier();
-        if (child != null) {
-            try {
-                Bloon next = child
-                    .getConstructor(int.class, int.class)
-                    .newInstance(direction, laneY);
-                world.addObject(next, x, y);
-    
-                if (wasFrozen && remainingFreeze > 0) {
-                    next.applyFreeze(remainingFreeze);
-                }
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        }
-    
-        PopEffect pop = new PopEffect();
-        world.addObject(pop, x, y);
-        world.removeObject(this);
+        pop(0, DamageType.NORMAL);
+    }
+
+    /**
+     * Pops this bloon, carrying leftover damage into its children. See {@link PopCascade}.
+     *
+     * @param overkill damage beyond what this bloon needed to pop
+     * @param type     the damage type that popped it
+     */
+    protected void pop(int overkill, DamageType type) {
+        BloonWorld world = BloonWorld.liveWorld(this);
+        if (world != null) world.getPopCascade().pop(this, overkill, type);
     }
     
     /**
      * Returns the next-tier bloon type that should spawn when this one pops.
-     * Subclasses override this to define their child type.
      *
-     * @return the class of the next-tier bloon, or {@code null} if none
+     * @return the next-tier bloon type, or {@code null} if none or several
+     */
+    protected BloonType getChildTier() {
+        return nextTier; 
+    }
+
+    /** @return the tier of this bloon */
+    public BloonType getType() {
+        return type;
+    }
+
+    /** @return travel direction ({@code 1 = right}, {@code -1 = left}) */
+    public int getDirection() {
+        return direction;
+    }
+
+    /** @return the lane centre Y this bloon is in, or moving into */
+    public int getLaneY() {
+        return store != null ? store.getLaneY(slot) : spawnLaneY;
+    }
+
+    /** @return current health */
+    public int getHealth() {
+        return store != null ? store.getHealth(slot) : type.getHealth();
+    }
+
+    /** @return current speed in pixels per frame */
+    public double getSpeed() {
+        return store != null ? store.getSpeed(slot) : type.getSpeed();
+    }
+
+    /** @return whether the bloon is currently frozen */
+    public boolean isFrozen() {
+        return store != null && store.isFrozen(slot);
+    }
+
+    /** @return frames until the bloon thaws, or {@code 0} if it is not frozen */
+    protected int getRemainingFreeze() {
+        return store != null ? store.getRemainingFreeze(slot) : 0;
+    }
+
+    /**
+     * Takes health from this bloon without any immunity checks.
+     *
+     * @param dmg the amount of damage
+     * @return the health left
      */
-    protected Class<? extends Bloon> getChildTier() {
-        return null; 
+    protected int loseHealth(int dmg) {
+        return store != null ? store.damage(slot, dmg) : type.getHealth() - dmg;
     }
+
     /**
-     * Checks and applies contact damage to monkeys.
+     * Starts a bloon that is not in a world yet with some health already gone.
+     * Used for damage carried over from a popped parent.
+     *
+     * @param dmg health to take once the bloon is added
      */
-    protected void checkCollisionWithMonkey() {
-        Monkey monkey = (Monkey) getOneIntersectingObject(Monkey.class);
-        if (monkey != null && contactCooldown == 0) {
-            monkey.takeDamage(contactDamage);
-            contactCooldown = 30; // 0.5 seconds if game runs at 60 fps
-        }
+    void presetDamage(int dmg) {
+        pendingDamage += dmg;
     }
-    
+
     /**
-     * Removes the bloon if it travels out of world bounds.
+     * Called when a hit is ignored by {@link BloonType#ignores}. Tiers with an immune-hit
+     * sound override this to play it.
      */
-    protected void checkOutOfBounds() {
-        if (getWorld() == null) return;
-        if (getX() < 0 || getX() > getWorld().getWidth()) {
-            getWorld().removeObject(this);
-        }
+    protected void onIgnoredHit() {
     }
-    
+
+    /**
+     * Called when a hit takes health, before the bloon pops or shows its damage stage.
+     * Tiers with a hit sound override this to play it.
+     */
+    protected void onHit() {
+    }
+
+    /**
+     * Called after this bloon loses health without popping. Tiers with damage-stage
+     * sprites override this to show the right stage.
+     *
+     * @param health the health left
+     */
+    protected void onDamaged(int health) {
+    }
+
     /**
      * Checks whether this bloon is immune to a given damage type.
      *
@@ -190,13 +198,7 @@ public abstract class Bloon extends SuperSmoothMover {
      * @return {@code true} if this bloon is immune; {@code false} otherwise
      */
     public boolean isImmuneTo(DamageType type) {
-        if (this instanceof LeadBloon && (type != DamageType.EXPLOSIVE)) return true;
-        if (this instanceof WhiteBloon && type == DamageType.ICE) return true;
-        if (this instanceof ZebraBloon && type == DamageType.ICE) return true;
-        if (this instanceof BlackBloon && type == DamageType.EXPLOSIVE) return true;
-        if (this instanceof ZebraBloon && type == DamageType.EXPLOSIVE) return true;
-        if (this instanceof PurpleBloon && type == DamageType.MAGIC) return true;
-        return false;
+        return this.type.isImmuneTo(type);
     }
     /**
      * Freezes this bloon for a given duration.
@@ -204,30 +206,45 @@ public abstract class Bloon extends SuperSmoothMover {
      * @param duration freeze duration in frames
      */
     public void applyFreeze(int duration) {
-        if (isImmuneTo(DamageType.ICE) || frozen) return;
-    
-        frozen = true;
-        freezeTimer = duration;
-        setTemporaryImmunity(DamageType.NORMAL, true);
+        if (!type.canFreeze() || isFrozen()) return;
+        if (store == null) {
+            // A freeze inherited from a frozen parent counts as already frozen
+            if (pendingFreeze == 0) pendingFreeze = duration;
+            return;
+        }
     
-        // store the non-frozen base image for later restoration
-        originalImage = new GreenfootImage(getImage());
+        store.freeze(slot, duration);
+        setTemporaryImmunity(BloonType.FROZEN_IMMUNITY, true);
     
-        // create and show the frozen visual
-        GreenfootImage frozenImg = makeFrozenCopy(originalImage);
-        setImage(frozenImg);
+        // swap to the cached frozen variant; thawing swaps back
+        updateImageDirection();
+    }
+
+    /**
+     * Called by the {@link BloonStore} when the freeze runs out.
+     */
+    void onThaw() {
+        setTemporaryImmunity(BloonType.FROZEN_IMMUNITY, false);
+        updateImageDirection();
     }
 
     /**
-     * Restores the correct image orientation after thawing or direction change.
+     * Shows a shared sprite, mirrored when the bloon faces left and tinted while frozen.
+     *
+     * @param s the sprite to show from now on
+     */
+    protected void showSprite(SpriteCache.Sprite s) {
+        sprite = s;
+        updateImageDirection();
+    }
+
+    /**
+     * Restores the correct image orientation and tint after freezing, thawing or a
+     * direction change. Every variant is cached, so this is only a pointer swap.
      */
     protected void updateImageDirection() {
-        if (originalImage == null) return;
-        GreenfootImage img = new GreenfootImage(originalImage);
-        if (direction == -1) { // facing left
-            img.mirrorHorizontally();
-        }
-        setImage(img);
+        if (sprite == null) return;
+        setImage(sprite.get(direction == -1, isFrozen()));
     }
 
     /**
@@ -237,105 +254,76 @@ public abstract class Bloon extends SuperSmoothMover {
      */    
     public void setDirection(int newDirection) {
         direction = newDirection;
+        if (store != null) store.setDirection(slot, newDirection);
         updateImageDirection();
     }
-    
+
     /**
-     * Handles lane-following and lane-changing behavior when blocked.
+     * Links this bloon to its slot. Called by the {@link BloonStore} when the bloon
+     * is added and whenever its slot moves.
      */
-    protected void handleTrafficLogic() {
-        if (getWorld() == null) return;
-    
-        int lookAhead = 100; 
-        Bloon frontBloon = getBloonAhead(lookAhead);
-    
-        if (frontBloon != null && frontBloon != this) {
-            if (frontBloon instanceof Moab) {
-                this.speed = Math.max(frontBloon.speed, this.speed * 0.97);
-    
-                if (!changingLane) tryLaneChange();
-            } 
-        } else {
-            this.speed = Math.abs(speed);
+    void attach(BloonStore store, int slot) {
+        this.store = store;
+        this.slot = slot;
+        if (pendingDamage > 0) {
+            onDamaged(store.damage(slot, pendingDamage));
+            pendingDamage = 0;
         }
-    
-        if (changingLane) {
-            int dy = targetLaneY - getY();
-            if (Math.abs(dy) < 2) {
-                changingLane = false; 
-            } else {
-                setLocation(getX(), getY() + (int) Math.signum(dy) * laneChangeSpeed);
-            }
+        if (pendingFreeze > 0) {
+            int duration = pendingFreeze;
+            pendingFreeze = 0;
+            applyFreeze(duration);
         }
     }
+
     /**
-     * Returns the bloon directly ahead within a given look-ahead distance.
+     * Writes this bloon's position, health, lane, freeze and temporary immunities for a
+     * {@link WorldSnapshot}. The tier and direction are written by the snapshot, which
+     * needs them to create the bloon again.
      *
-     * @param distance distance ahead to check
-     * @return the bloon detected ahead, or {@code null} if none found
-     */   
-    private Bloon getBloonAhead(int distance) {
-        return (Bloon) getOneObjectAtOffset(direction * distance, 0, Bloon.class);
+     * @param out where to write
+     * @throws IOException if writing fails
+     */
+    void writeState(DataOutput out) throws IOException {
+        store.writeState(slot, out);
+        out.writeInt(tempImmunityMask);
     }
+
     /**
-     * Attempts to change lanes to avoid slower traffic.
-     */    
-    protected void tryLaneChange() {
-        BloonWorld world = (BloonWorld) getWorld();
-        int[] lanes = world.getLanePositions(); 
-        int currentY = laneY;
-    
-        int currentLane = -1;
-        for (int i = 0; i < lanes.length; i++) {
-            if (Math.abs(lanes[i] - currentY) < 5) {
-                currentLane = i;
-                break;
-            }
-        }
-    
-        if (currentLane == -1) return; 
-    
-        int[] offsets = {-2, -1, 1, 2};
-        for (int offset : offsets) {
-            int newLane = currentLane + offset;
-            if (newLane < 0 || newLane >= lanes.length) continue;
-    
-            boolean sameDirection = (newLane < 3 && direction == -1) || (newLane >= 3 && direction == 1);
-            if (!sameDirection) continue;
-    
-            java.util.List<Bloon> laneBloons = world.getObjectsAt(getX(), lanes[newLane], Bloon.class);
-            if (laneBloons.isEmpty()) {
-                targetLaneY = lanes[newLane];
-                changingLane = true;
-                laneY = targetLaneY; 
-                return;
-            }
-        }
+     * Restores what {@link #writeState} wrote, once the bloon has been added to its world,
+     * and shows the damage stage and freeze tint that go with it.
+     *
+     * @param in where to read from
+     * @throws IOException if reading fails
+     */
+    void readState(DataInput in) throws IOException {
+        store.readState(slot, in);
+        tempImmunityMask = in.readInt();
+        int health = getHealth();
+        if (health < type.getHealth()) onDamaged(health);
+        updateImageDirection();
+    }
+
+    /** Unlinks this bloon from its store once it leaves the world. */
+    void detach() {
+        store = null;
+        slot = -1;
+    }
+
+    /** @return this bloon's slot in its store, or {@code -1} if it has none */
+    int getSlot() {
+        return slot;
     }
 
     /**
      * Creates an icy-blue copy of a given image to visually represent a frozen bloon.
+     * Freezing no longer calls this; the tinted variants come from {@link SpriteCache}.
      *
      * @param base the base image to modify
      * @return a new frozen-tinted {@link GreenfootImage}
      */
     protected GreenfootImage makeFrozenCopy(GreenfootImage base) {
-        if (base == null) return null;
-        GreenfootImage frozenImg = new GreenfootImage(base);
-        Color freezeColor = new Color(100, 180, 255, 80);     
-        for (int x = 0; x < frozenImg.getWidth(); x++) {
-            for (int y = 0; y < frozenImg.getHeight(); y++) {
-                Color pixel = frozenImg.getColorAt(x, y);
-                if (pixel.getAlpha() > 0) {
-                    int r = (pixel.getRed() + freezeColor.getRed()) / 2;
-                    int g = (pixel.getGreen() + freezeColor.getGreen()) / 2;
-                    int b = (pixel.getBlue() + freezeColor.getBlue()) / 2;
-                    int a = pixel.getAlpha();
-                    frozenImg.setColorAt(x, y, new Color(r, g, b, a));
-                }
-            }
-        }
-        return frozenImg;
+        return SpriteCache.makeFrozenCopy(base);
     }
 
     /**
@@ -345,6 +333,12 @@ public abstract class Bloon extends SuperSmoothMover {
      * @param active {@code true} to enable immunity, {@code false} to disable it
      */
     public void setTemporaryImmunity(DamageType type, boolean active) {
-        tempImmunities.put(type, active);
+        if (active) tempImmunityMask |= type.bit();
+        else tempImmunityMask &= ~type.bit();
+    }
+
+    /** @return the temporary immunities currently active, one bit per {@link DamageType} */
+    public int getTemporaryImmunityMask() {
+        return tempImmunityMask;
     }
 }
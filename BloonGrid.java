@@ -0,0 +1,208 @@
+import greenfoot.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A uniform spatial hash of every {@link Bloon} in the world, shared by monkeys,
+ * projectiles and effects for their targeting queries.
+ * <p>
+ * {@link BloonWorld} rebuilds the grid once per frame before any actor acts, and inserts
+ * bloons spawned mid-frame (e.g. children of a pop) as they are added. Popped bloons are
+ * filtered out lazily by checking {@code getWorld()}. Queries test live positions, and the
+ * cells searched are widened by a small slack so bloons that moved since the rebuild are
+ * still found.
+ * </p>
+ *
+ * <p>Supported queries:</p>
+ * <ul>
+ *   <li>Nearest bloon within a range (or anywhere, for homing projectiles).</li>
+ *   <li>All bloons within a radius.</li>
+ *   <li>Whether any bloon lies inside a rectangle or radius.</li>
+ * </ul>
+ */
+public class BloonGrid {
+    /** Width and height of one cell, in pixels. */
+    public static final int CELL_SIZE = 128;
+    /** Extra margin (pixels) covering movement since the last rebuild. */
+    private static final int SLACK = 16;
+
+    /** Number of cell columns. */
+    private final int cols;
+    /** Number of cell rows. */
+    private final int rows;
+    /** Bloons bucketed by cell, row-major. Lists are reused between rebuilds. */
+    private final List<List<Bloon>> cells;
+
+    /**
+     * Creates a grid covering a world of the given size. Bloons outside the world
+     * are clamped into the border cells.
+     *
+     * @param worldWidth  world width in pixels
+     * @param worldHeight world height in pixels
+     */
+    public BloonGrid(int worldWidth, int worldHeight) {
+        cols = Math.max(1, (worldWidth + CELL_SIZE - 1) / CELL_SIZE);
+        rows = Math.max(1, (worldHeight + CELL_SIZE - 1) / CELL_SIZE);
+        cells = new ArrayList<>(cols * rows);
+        for (int i = 0; i < cols * rows; i++) {
+            cells.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Clears the grid and re-buckets the given bloons by their current position.
+     *
+     * @param bloons every bloon currently in the world
+     */
+    public void rebuild(List<? extends Bloon> bloons) {
+        for (List<Bloon> cell : cells) {
+            cell.clear();
+        }
+        for (Bloon b : bloons) {
+            insert(b);
+        }
+    }
+
+    /**
+     * Adds a single bloon to the cell containing its current position.
+     *
+     * @param b the bloon to insert; ignored if it is not in a world
+     */
+    public void insert(Bloon b) {
+        if (b == null || b.getWorld() == null) return;
+        cells.get(cellY(b.getY()) * cols + cellX(b.getX())).add(b);
+    }
+
+    /**
+     * Finds the bloon closest to a point, within a maximum range.
+     *
+     * @param x     query x-coordinate
+     * @param y     query y-coordinate
+     * @param range maximum center-to-center distance; use {@link Double#MAX_VALUE} for no limit
+     * @return the nearest bloon, or {@code null} if none is within range
+     */
+    public Bloon nearest(double x, double y, double range) {
+        int cx = cellX(x);
+        int cy = cellY(y);
+        int maxRing = Math.max(Math.max(cx, cols - 1 - cx), Math.max(cy, rows - 1 - cy));
+
+        Bloon best = null;
+        double bestDistSq = range == Double.MAX_VALUE ? Double.MAX_VALUE : range * range;
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // Nothing in this ring or beyond can be closer than this
+            double ringMin = Math.max(0, (ring - 1) * (double) CELL_SIZE - SLACK);
+            if (ringMin * ringMin > bestDistSq) break;
+
+            for (int gy = cy - ring; gy <= cy + ring; gy++) {
+                if (gy < 0 || gy >= rows) continue;
+                boolean edgeRow = gy == cy - ring || gy == cy + ring;
+                int step = edgeRow ? 1 : Math.max(1, 2 * ring);
+                for (int gx = cx - ring; gx <= cx + ring; gx += step) {
+                    if (gx < 0 || gx >= cols) continue;
+                    for (Bloon b : cells.get(gy * cols + gx)) {
+                        if (BloonWorld.liveWorld(b) == null) continue;
+                        double dx = b.getX() - x;
+                        double dy = b.getY() - y;
+                        double d = dx * dx + dy * dy;
+                        if (d <= bestDistSq && (best == null || d < bestDistSq)) {
+                            bestDistSq = d;
+                            best = b;
+                        }
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns every bloon whose center lies within a radius of a point.
+     *
+     * @param x      query x-coordinate
+     * @param y      query y-coordinate
+     * @param radius search radius in pixels
+     * @return a new list of matching bloons (never {@code null})
+     */
+    public List<Bloon> getBloonsInRange(double x, double y, double radius) {
+        List<Bloon> result = new ArrayList<>();
+        double r2 = radius * radius;
+        int x0 = cellX(x - radius - SLACK), x1 = cellX(x + radius + SLACK);
+        int y0 = cellY(y - radius - SLACK), y1 = cellY(y + radius + SLACK);
+        for (int gy = y0; gy <= y1; gy++) {
+            for (int gx = x0; gx <= x1; gx++) {
+                for (Bloon b : cells.get(gy * cols + gx)) {
+                    if (BloonWorld.liveWorld(b) == null) continue;
+                    double dx = b.getX() - x;
+                    double dy = b.getY() - y;
+                    if (dx * dx + dy * dy <= r2) result.add(b);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether any bloon within a radius matches a condition.
+     *
+     * @param x      query x-coordinate
+     * @param y      query y-coordinate
+     * @param radius search radius in pixels
+     * @param filter condition a bloon must satisfy to count
+     * @return {@code true} if at least one matching bloon is in range
+     */
+    public boolean hasBloonInRange(double x, double y, double radius, Predicate<Bloon> filter) {
+        double r2 = radius * radius;
+        int x0 = cellX(x - radius - SLACK), x1 = cellX(x + radius + SLACK);
+        int y0 = cellY(y - radius - SLACK), y1 = cellY(y + radius + SLACK);
+        for (int gy = y0; gy <= y1; gy++) {
+            for (int gx = x0; gx <= x1; gx++) {
+                for (Bloon b : cells.get(gy * cols + gx)) {
+                    if (BloonWorld.liveWorld(b) == null) continue;
+                    double dx = b.getX() - x;
+                    double dy = b.getY() - y;
+                    if (dx * dx + dy * dy <= r2 && filter.test(b)) return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether any bloon's center lies strictly inside a rectangle.
+     *
+     * @param minX left edge (exclusive)
+     * @param minY top edge (exclusive)
+     * @param maxX right edge (exclusive)
+     * @param maxY bottom edge (exclusive)
+     * @return {@code true} if at least one bloon is inside
+     */
+    public boolean hasBloonInRect(double minX, double minY, double maxX, double maxY) {
+        int x0 = cellX(minX - SLACK), x1 = cellX(maxX + SLACK);
+        int y0 = cellY(minY - SLACK), y1 = cellY(maxY + SLACK);
+        for (int gy = y0; gy <= y1; gy++) {
+            for (int gx = x0; gx <= x1; gx++) {
+                for (Bloon b : cells.get(gy * cols + gx)) {
+                    if (BloonWorld.liveWorld(b) == null) continue;
+                    int bx = b.getX();
+                    int by = b.getY();
+                    if (bx > minX && bx < maxX && by > minY && by < maxY) return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /** @return column index for an x-coordinate, clamped to the grid */
+    private int cellX(double x) {
+        int c = (int) Math.floor(x / CELL_SIZE);
+        return Math.max(0, Math.min(cols - 1, c));
+    }
+
+    /** @return row index for a y-coordinate, clamped to the grid */
+    private int cellY(double y) {
+        int r = (int) Math.floor(y / CELL_SIZE);
+        return Math.max(0, Math.min(rows - 1, r));
+    }
+}
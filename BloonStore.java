@@ -0,0 +1,592 @@
+import greenfoot.*;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Simulation state of every bloon in a {@link BloonWorld}, held in parallel primitive arrays.
+ * <p>
+ * Bloons used to move themselves in their own {@code act()}, each reading a dozen fields
+ * scattered across a full actor object. The store keeps the state that changes every frame
+ * (position, speed, health, lane, tier, freeze deadline) packed by slot, and moves every bloon
+ * in one loop from {@link BloonWorld#act()}. The {@link Bloon} actors are thin views: they
+ * hold their slot, draw the right sprite, and read and write their state through the store.
+ * </p>
+ *
+ * <p>Key features:</p>
+ * <ul>
+ *   <li>Slots are packed: removing a bloon moves the last one into its slot.</li>
+ *   <li>Freezing stores the frame the bloon thaws on instead of counting down every frame.</li>
+ *   <li>The bloon ahead of each bloon is looked up in a per-lane index sorted by x.</li>
+ *   <li>Lane-change and spawn-mouth checks search a per-lane index sorted by x.</li>
+ *   <li>Views are moved to their new position once, after the loop.</li>
+ *   <li>Optionally, each lane is stepped on its own fork/join task (see below).</li>
+ * </ul>
+ *
+ * <p>
+ * A frame runs in three phases. First, on the calling thread, frozen bloons are thawed,
+ * the lane index is brought up to date, and the Moabs and monkeys are snapshotted. Then
+ * every lane is stepped independently: bloons in it move, slow down behind a Moab and
+ * touch monkeys, but only write their own slot and their lane's list of requests. Finally
+ * the requests are merged serially, lane by lane: lane changes, monkey damage and leaks.
+ * Lanes never read each other's live state, so the result is the same whether the lanes
+ * ran one after another or in parallel.
+ * </p>
+ */
+public class BloonStore {
+    private static final int INITIAL_CAPACITY = 256;
+    /** Distance ahead checked for a Moab blocking the lane. */
+    private static final int LOOK_AHEAD = 100;
+    /** Speed of lane changes in pixels per frame. */
+    private static final double LANE_CHANGE_SPEED = 2.0;
+    /** Contact cooldown set after damaging a monkey; it is never counted down. */
+    private static final int CONTACT_COOLDOWN = 30;
+    private static final BloonType[] TIERS = BloonType.values();
+    private static final int MOAB = BloonType.MOAB.ordinal();
+    /** Fewest bloons worth splitting the lanes across threads for. */
+    private static final int PARALLEL_THRESHOLD = 400;
+    /** Lanes tried by a blocked bloon, relative to its own, in the order they are tried. */
+    private static final int[] LANE_CHANGE_OFFSETS = {-2, -1, 1, 2};
+
+    private int count = 0;
+    /** Frames updated so far; freeze deadlines are measured against this. */
+    private int frame = 0;
+    /** Whether lanes are stepped on the fork/join pool. */
+    private boolean parallel = false;
+
+    // --- Per-slot state ---
+    private Bloon[] views = new Bloon[INITIAL_CAPACITY];
+    private double[] x = new double[INITIAL_CAPACITY];
+    private double[] y = new double[INITIAL_CAPACITY];
+    private double[] speed = new double[INITIAL_CAPACITY];
+    private int[] health = new int[INITIAL_CAPACITY];
+    /** Lane the bloon belongs to, by its centre Y. Updated as soon as a lane change starts. */
+    private int[] laneY = new int[INITIAL_CAPACITY];
+    /** Tier, as a {@link BloonType} ordinal. */
+    private byte[] tier = new byte[INITIAL_CAPACITY];
+    private byte[] direction = new byte[INITIAL_CAPACITY];
+    /** Frame on which a frozen bloon thaws, or {@code 0} if not frozen. */
+    private int[] freezeUntil = new int[INITIAL_CAPACITY];
+    private int[] contactCooldown = new int[INITIAL_CAPACITY];
+    private boolean[] changingLane = new boolean[INITIAL_CAPACITY];
+
+    /** Bloons of each lane sorted by x, for lane-change and spawn-mouth checks. */
+    private final LaneIndex laneIndex = new LaneIndex();
+    /** Whether bloons were added or removed since {@link #laneIndex} was built. */
+    private boolean indexDirty = true;
+    /** Centre Y of every lane, as of the last update. */
+    private int[] lanes;
+
+    // --- Per-frame scratch ---
+    /** Speed of every Moab at the start of the frame. */
+    private double[] moabSpeeds = new double[8];
+    /** Slot of each snapshotted Moab. */
+    private int[] moabSlots = new int[8];
+    private int moabCount = 0;
+    /** Monkeys at the start of the frame: centre and half extents, four entries each. */
+    private double[] monkeyBox = new double[0];
+    private int monkeyBoxCount = 0;
+    private Bloon[] leaking = new Bloon[16];
+    private LaneStep[] laneSteps = new LaneStep[0];
+    /** Root task that forks one {@link LaneStep} per lane. */
+    private final RecursiveAction allLanes = new RecursiveAction() {
+        @Override
+        protected void compute() {
+            ForkJoinTask.invokeAll(laneSteps);
+        }
+    };
+    private int width;
+
+    /**
+     * Gives a bloon that was just added to the world a slot, filled from its tier.
+     *
+     * @param view the bloon actor
+     * @param px   x-coordinate it was added at
+     * @param py   y-coordinate it was added at
+     */
+    public void add(Bloon view, double px, double py) {
+        if (count == views.length) grow(count + 1);
+        int i = count++;
+        BloonType type = view.getType();
+        views[i] = view;
+        x[i] = px;
+        y[i] = py;
+        speed[i] = type.getSpeed();
+        health[i] = type.getHealth();
+        laneY[i] = view.getLaneY();
+        tier[i] = (byte) type.ordinal();
+        direction[i] = (byte) view.getDirection();
+        freezeUntil[i] = 0;
+        contactCooldown[i] = 0;
+        changingLane[i] = false;
+        indexDirty = true;
+        view.attach(this, i);
+    }
+
+    /**
+     * Frees a bloon's slot, moving the last bloon into it.
+     *
+     * @param view the bloon actor that left the world
+     */
+    public void remove(Bloon view) {
+        int i = view.getSlot();
+        if (i < 0 || i >= count || views[i] != view) return;
+        view.detach();
+        int last = --count;
+        indexDirty = true;
+        if (i != last) {
+            views[i] = views[last];
+            x[i] = x[last];
+            y[i] = y[last];
+            speed[i] = speed[last];
+            health[i] = health[last];
+            laneY[i] = laneY[last];
+            tier[i] = tier[last];
+            direction[i] = direction[last];
+            freezeUntil[i] = freezeUntil[last];
+            contactCooldown[i] = contactCooldown[last];
+            changingLane[i] = changingLane[last];
+            views[i].attach(this, i);
+        }
+        views[last] = null;
+    }
+
+    /**
+     * Writes a bloon's exact position and the state the store keeps for it. Freezes are
+     * written as frames left, so they carry over to a store at a different frame.
+     *
+     * @param slot the bloon's slot
+     * @param out  where to write
+     * @throws IOException if writing fails
+     */
+    void writeState(int slot, DataOutput out) throws IOException {
+        out.writeDouble(x[slot]);
+        out.writeDouble(y[slot]);
+        out.writeDouble(speed[slot]);
+        out.writeInt(health[slot]);
+        out.writeShort(laneY[slot]);
+        out.writeInt(getRemainingFreeze(slot));
+        out.writeShort(contactCooldown[slot]);
+        out.writeBoolean(changingLane[slot]);
+    }
+
+    /**
+     * Restores what {@link #writeState} wrote into a slot given out by {@link #add}, and
+     * moves the bloon's view to the exact position.
+     *
+     * @param slot the bloon's slot
+     * @param in   where to read from
+     * @throws IOException if reading fails
+     */
+    void readState(int slot, DataInput in) throws IOException {
+        x[slot] = in.readDouble();
+        y[slot] = in.readDouble();
+        speed[slot] = in.readDouble();
+        health[slot] = in.readInt();
+        laneY[slot] = in.readShort();
+        int frozen = in.readInt();
+        freezeUntil[slot] = frozen > 0 ? frame + frozen : 0;
+        contactCooldown[slot] = in.readShort();
+        changingLane[slot] = in.readBoolean();
+        indexDirty = true;
+        views[slot].setLocation(x[slot], y[slot]);
+    }
+
+    /** @return number of bloons in the store */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Checks whether any bloon's sprite overlaps a box centred on a lane, such as the
+     * mouth of a lane's spawner.
+     *
+     * @param lane       lane index, top to bottom
+     * @param minX       left edge of the box
+     * @param maxX       right edge of the box
+     * @param halfHeight half the box's height, at most {@link LaneIndex#MAX_QUERY_HALF_HEIGHT}
+     * @return {@code true} if a bloon reaches into the box
+     */
+    public boolean isLaneOccupied(int lane, double minX, double maxX, double halfHeight) {
+        if (lanes == null) return false;
+        if (indexDirty) rebuildLaneIndex();
+        return laneIndex.isOccupied(lane, minX, maxX, halfHeight);
+    }
+
+    /**
+     * Turns stepping lanes on the fork/join pool on or off. Either way the result is the same;
+     * only lanes with enough bloons in total are split across threads.
+     *
+     * @param on whether to step lanes in parallel
+     */
+    public void setParallel(boolean on) {
+        parallel = on;
+    }
+
+    /** @return whether lanes are stepped in parallel */
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * Advances every bloon by one frame: thawing, traffic and lane changes, movement,
+     * contact with monkeys, and leaving the far end of the lane.
+     *
+     * @param world   the world the bloons live in
+     * @param monkeys every monkey currently in the world
+     * @param lanes   centre Y of every lane, top to bottom
+     */
+    public void update(World world, List<Monkey> monkeys, int[] lanes) {
+        frame++;
+        width = world.getWidth();
+        this.lanes = lanes;
+        if (laneSteps.length != lanes.length) {
+            laneSteps = new LaneStep[lanes.length];
+            for (int l = 0; l < lanes.length; l++) laneSteps[l] = new LaneStep();
+        }
+        for (LaneStep step : laneSteps) step.clear();
+
+        // Serial: thaw, snapshot, and sort the slots into lanes
+        if (indexDirty) rebuildLaneIndex();
+        collectMonkeyBoxes(monkeys);
+        moabCount = 0;
+        for (int i = 0; i < count; i++) {
+            if (tier[i] == MOAB) snapshotMoab(i);
+            if (freezeUntil[i] != 0) {
+                if (frame < freezeUntil[i]) continue;
+                freezeUntil[i] = 0;
+                views[i].onThaw();
+            }
+            laneSteps[laneIndex(laneY[i], lanes)].slots.add(i);
+        }
+
+        // Independent per lane
+        if (parallel && count >= PARALLEL_THRESHOLD) {
+            for (LaneStep step : laneSteps) step.reinitialize();
+            allLanes.reinitialize();
+            ForkJoinPool.commonPool().invoke(allLanes);
+        } else {
+            for (LaneStep step : laneSteps) step.run();
+        }
+
+        // Positions are final for the frame; lane changes below only retarget laneY
+        rebuildLaneIndex();
+
+        // Serial merge, lane by lane
+        long t = FrameProfiler.enter(FrameProfiler.Phase.TRAFFIC);
+        int leakCount = 0;
+        for (LaneStep step : laneSteps) {
+            for (int k = 0; k < step.blocked.size(); k++) {
+                tryLaneChange(step.blocked.get(k));
+            }
+            for (int k = 0; k < step.contacts.size(); k += 2) {
+                int i = step.contacts.get(k);
+                Monkey m = monkeys.get(step.contacts.get(k + 1));
+                if (m.getWorld() == null) continue;
+                m.takeDamage(TIERS[tier[i]].getContactDamage());
+                contactCooldown[i] = CONTACT_COOLDOWN;
+            }
+            for (int k = 0; k < step.leaked.size(); k++) {
+                if (leakCount == leaking.length) leaking = Arrays.copyOf(leaking, leakCount * 2);
+                leaking[leakCount++] = views[step.leaked.get(k)];
+            }
+        }
+        FrameProfiler.exit(FrameProfiler.Phase.TRAFFIC, t);
+
+        for (int i = 0; i < count; i++) {
+            if (freezeUntil[i] == 0) views[i].setLocation(x[i], y[i]);
+        }
+
+        // Slots move as bloons are removed, so leaks are held by view rather than slot
+        for (int k = 0; k < leakCount; k++) {
+            world.removeObject(leaking[k]);
+            leaking[k] = null;
+        }
+    }
+
+    /**
+     * Moves the unfrozen bloons of one lane. Writes only their own slots and the lane's
+     * request lists; everything else it reads is from the start-of-frame snapshot.
+     */
+    private void stepLane(LaneStep step) {
+        for (int k = 0; k < step.slots.size(); k++) {
+            int i = step.slots.get(k);
+
+            int front = moabAhead(i);
+            if (front >= 0) {
+                speed[i] = Math.max(moabSpeeds[front], speed[i] * 0.97);
+                if (!changingLane[i]) step.blocked.add(i);
+            }
+            if (changingLane[i]) {
+                int dy = laneY[i] - round(y[i]);
+                if (Math.abs(dy) < 2) {
+                    changingLane[i] = false;
+                } else {
+                    x[i] = round(x[i]);
+                    y[i] = round(y[i]) + Math.signum(dy) * LANE_CHANGE_SPEED;
+                }
+            }
+
+            x[i] += speed[i] * direction[i];
+
+            if (contactCooldown[i] == 0) {
+                int m = touchedMonkey(i);
+                if (m >= 0) {
+                    step.contacts.add(i);
+                    step.contacts.add(m);
+                }
+            }
+
+            int rx = round(x[i]);
+            if (rx < 0 || rx > width) step.leaked.add(i);
+        }
+    }
+
+    /**
+     * Freezes a bloon for a number of frames.
+     *
+     * @param slot     the bloon's slot
+     * @param duration frames until it thaws
+     */
+    public void freeze(int slot, int duration) {
+        freezeUntil[slot] = frame + Math.max(1, duration);
+    }
+
+    /** @return whether the bloon in {@code slot} is frozen */
+    public boolean isFrozen(int slot) {
+        return freezeUntil[slot] != 0;
+    }
+
+    /** @return frames until the bloon in {@code slot} thaws, or {@code 0} if not frozen */
+    public int getRemainingFreeze(int slot) {
+        return freezeUntil[slot] == 0 ? 0 : freezeUntil[slot] - frame;
+    }
+
+    /**
+     * Takes health from a bloon.
+     *
+     * @param slot   the bloon's slot
+     * @param amount health to remove
+     * @return the health left
+     */
+    public int damage(int slot, int amount) {
+        return health[slot] -= amount;
+    }
+
+    /** @return current health of the bloon in {@code slot} */
+    public int getHealth(int slot) {
+        return health[slot];
+    }
+
+    /** @return lane centre Y of the bloon in {@code slot} */
+    public int getLaneY(int slot) {
+        return laneY[slot];
+    }
+
+    /** @return current speed of the bloon in {@code slot} */
+    public double getSpeed(int slot) {
+        return speed[slot];
+    }
+
+    /**
+     * @param slot      the bloon's slot
+     * @param newDirection travel direction ({@code 1 = right}, {@code -1 = left})
+     */
+    public void setDirection(int slot, int newDirection) {
+        direction[slot] = (byte) newDirection;
+    }
+
+    /** Records a Moab's start-of-frame position and speed. */
+    private void snapshotMoab(int i) {
+        if (moabCount == moabSpeeds.length) {
+            moabSpeeds = Arrays.copyOf(moabSpeeds, moabCount * 2);
+            moabSlots = Arrays.copyOf(moabSlots, moabCount * 2);
+        }
+        moabSlots[moabCount] = i;
+        moabSpeeds[moabCount] = speed[i];
+        moabCount++;
+    }
+
+    /**
+     * Looks at the point {@link #LOOK_AHEAD} pixels in front of a bloon, as it was at the
+     * start of the frame, and reports the bloon found there if it is a Moab. Only that one
+     * bloon counts: a Moab also covering the point behind some other bloon does not.
+     *
+     * @return the Moab's index in the snapshot, or {@code -1} if the way is clear
+     */
+    private int moabAhead(int i) {
+        int front = laneIndex.bloonAt(x[i] + direction[i] * LOOK_AHEAD, y[i], i);
+        if (front < 0 || tier[front] != MOAB) return -1;
+        for (int k = 0; k < moabCount; k++) {
+            if (moabSlots[k] == front) return k;
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the lane a lane centre belongs to.
+     *
+     * @return the index of the lane within 5 pixels, or the nearest one
+     */
+    private static int laneIndex(int centreY, int[] lanes) {
+        int best = 0;
+        for (int l = 0; l < lanes.length; l++) {
+            if (Math.abs(lanes[l] - centreY) < 5) return l;
+            if (Math.abs(lanes[l] - centreY) < Math.abs(lanes[best] - centreY)) best = l;
+        }
+        return best;
+    }
+
+    /**
+     * Starts a lane change to the nearest free lane with the same direction, if any.
+     * A lane is free if no bloon's sprite covers the point beside this bloon on its centre.
+     */
+    private void tryLaneChange(int i) {
+        int currentLane = -1;
+        for (int l = 0; l < lanes.length; l++) {
+            if (Math.abs(lanes[l] - laneY[i]) < 5) {
+                currentLane = l;
+                break;
+            }
+        }
+        if (currentLane == -1) return;
+
+        for (int offset : LANE_CHANGE_OFFSETS) {
+            int newLane = currentLane + offset;
+            if (newLane < 0 || newLane >= lanes.length) continue;
+            if (SpawnDirector.laneDirection(newLane) != direction[i]) continue;
+            if (!laneIndex.isOccupied(newLane, x[i], x[i], 0)) {
+                laneY[i] = lanes[newLane];
+                changingLane[i] = true;
+                return;
+            }
+        }
+    }
+
+    private void rebuildLaneIndex() {
+        laneIndex.rebuild(lanes, count, x, y, tier);
+        indexDirty = false;
+    }
+
+    /**
+     * Caches each monkey's centre and half extents (of its rotated sprite) for contact checks.
+     */
+    private void collectMonkeyBoxes(List<Monkey> monkeys) {
+        int n = monkeys.size();
+        if (monkeyBox.length < n * 4) monkeyBox = new double[n * 4];
+        monkeyBoxCount = n * 4;
+        for (int k = 0; k < n; k++) {
+            Monkey m = monkeys.get(k);
+            GreenfootImage img = m.getImage();
+            double r = Math.toRadians(m.getRotation());
+            double c = Math.abs(Math.cos(r));
+            double s = Math.abs(Math.sin(r));
+            monkeyBox[k * 4] = m.getX();
+            monkeyBox[k * 4 + 1] = m.getY();
+            monkeyBox[k * 4 + 2] = (img.getWidth() * c + img.getHeight() * s) / 2;
+            monkeyBox[k * 4 + 3] = (img.getWidth() * s + img.getHeight() * c) / 2;
+        }
+    }
+
+    /**
+     * Finds the first monkey a bloon touches, against the start-of-frame monkey boxes.
+     *
+     * @return the monkey's index, or {@code -1} if it touches none
+     */
+    private int touchedMonkey(int i) {
+        BloonType t = TIERS[tier[i]];
+        double hw = t.getWidth() / 2.0;
+        double hh = t.getHeight() / 2.0;
+        for (int k = 0; k * 4 < monkeyBoxCount; k++) {
+            if (Math.abs(x[i] - monkeyBox[k * 4]) < hw + monkeyBox[k * 4 + 2]
+                    && Math.abs(y[i] - monkeyBox[k * 4 + 1]) < hh + monkeyBox[k * 4 + 3]) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Makes room for a number of bloons up front, so a batch of spawns grows the
+     * arrays at most once.
+     *
+     * @param capacity number of bloons the store should hold without growing
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > views.length) grow(capacity);
+    }
+
+    private void grow(int capacity) {
+        int n = Math.max(capacity, views.length * 2);
+        views = Arrays.copyOf(views, n);
+        x = Arrays.copyOf(x, n);
+        y = Arrays.copyOf(y, n);
+        speed = Arrays.copyOf(speed, n);
+        health = Arrays.copyOf(health, n);
+        laneY = Arrays.copyOf(laneY, n);
+        tier = Arrays.copyOf(tier, n);
+        direction = Arrays.copyOf(direction, n);
+        freezeUntil = Arrays.copyOf(freezeUntil, n);
+        contactCooldown = Arrays.copyOf(contactCooldown, n);
+        changingLane = Arrays.copyOf(changingLane, n);
+    }
+
+    /** Rounds halves away from zero, the way {@link SuperSmoothMover} snaps to pixels. */
+    private static int round(double v) {
+        return (int) (v + Math.signum(v) * 0.5);
+    }
+
+    /** Growable list of ints, reused from frame to frame. */
+    private static final class IntList {
+        private int[] items = new int[16];
+        private int size = 0;
+
+        void add(int v) {
+            if (size == items.length) items = Arrays.copyOf(items, size * 2);
+            items[size++] = v;
+        }
+
+        int get(int k) {
+            return items[k];
+        }
+
+        int size() {
+            return size;
+        }
+    }
+
+    /** One lane's share of a frame: the slots in it and what it wants merged. */
+    private final class LaneStep extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        /** Unfrozen bloons in the lane, in slot order. */
+        final IntList slots = new IntList();
+        /** Bloons stuck behind a Moab that want to change lanes. */
+        final IntList blocked = new IntList();
+        /** Bloon slot and monkey index pairs that touched this frame. */
+        final IntList contacts = new IntList();
+        /** Bloons past either end of the lane. */
+        final IntList leaked = new IntList();
+
+        void clear() {
+            slots.size = 0;
+            blocked.size = 0;
+            contacts.size = 0;
+            leaked.size = 0;
+        }
+
+        void run() {
+            stepLane(this);
+        }
+
+        @Override
+        protected void compute() {
+            stepLane(this);
+        }
+    }
+}
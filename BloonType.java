@@ -0,0 +1,202 @@
+/**
+ * Every bloon tier in the game: its stats, what it pops into, its sprites, and a
+ * factory for its actor class.
+ * <p>
+ * This is the single source of truth for bloon balance. The {@link Bloon} subclasses
+ * read their speed, health and contact damage from here, and the headless engine
+ * ({@link HeadlessSimulation}) uses the same table, so both run the same rules.
+ * Constants are declared from weakest to strongest, so children always come first.
+ * </p>
+ */
+public enum BloonType {
+    //       factory             speed health contact immune to                                      children                               sprites
+    RED(RedBloon::new,            1.0,   1,    1, immune(),                                      none(),                                SpriteCache.sprite("Red_Bloon.png", 45, 60)),
+    BLUE(BlueBloon::new,          1.4,   1,    1, immune(),                                      of(RED),                               SpriteCache.sprite("Blue_Bloon.png", 50, 66)),
+    GREEN(GreenBloon::new,        1.8,   1,    1, immune(),                                      of(BLUE),                              SpriteCache.sprite("Green_Bloon.png", 54, 72)),
+    YELLOW(YellowBloon::new,      3.2,   1,    1, immune(),                                      of(GREEN),                             SpriteCache.sprite("Yellow_Bloon.png", 59, 78)),
+    PINK(PinkBloon::new,          3.5,   1,    1, immune(),                                      of(YELLOW),                            SpriteCache.sprite("Pink_Bloon.png", 63, 84)),
+    BLACK(BlackBloon::new,        1.8,   1,    2, immune(DamageType.EXPLOSIVE),                  of(PINK, PINK),                        SpriteCache.sprite("Black_Bloon.png", 36, 48)),
+    WHITE(WhiteBloon::new,        2.0,   1,    2, immune(DamageType.ICE),                        of(PINK, PINK),                        SpriteCache.sprite("White_Bloon.png", 36, 48)),
+    PURPLE(PurpleBloon::new,      3.0,   1,    2, immune(DamageType.MAGIC),                      of(PINK, PINK),                        SpriteCache.sprite("Purple_Bloon.png", 59, 78)),
+    LEAD(LeadBloon::new,          1.0,   1,    3, DamageType.allExcept(DamageType.EXPLOSIVE),    of(BLACK, BLACK),                      SpriteCache.sprite("Lead_Bloon.png", 63, 84)),
+    ZEBRA(ZebraBloon::new,        1.8,   1,    3, immune(DamageType.ICE, DamageType.EXPLOSIVE),  of(BLACK, WHITE),                      SpriteCache.sprite("Zebra_Bloon.png", 59, 78)),
+    RAINBOW(RainbowBloon::new,    2.2,   1,    4, immune(),                                      of(ZEBRA, ZEBRA),                      SpriteCache.sprite("Rainbow_Bloon.png", 63, 84)),
+    CERAMIC(CeramicBloon::new,    2.0,  10,    5, immune(),                                      of(RAINBOW, RAINBOW),                  SpriteCache.stages("Ceramic/Ceramic_Bloon", 5, 63, 84)),
+    MOAB(Moab::new,               1.0, 200,  100, immune(),                                      of(CERAMIC, CERAMIC, CERAMIC, CERAMIC), SpriteCache.stages("moab/moab", 5, 206, 135));
+
+    /** Creates a bloon of one tier travelling in a given lane. */
+    public interface Factory {
+        /**
+         * @param direction travel direction ({@code 1 = right}, {@code -1 = left})
+         * @param laneY     vertical lane position
+         * @return a new bloon, not yet added to a world
+         */
+        Bloon create(int direction, int laneY);
+    }
+
+    /** Damage type a frozen bloon is temporarily immune to. */
+    public static final DamageType FROZEN_IMMUNITY = DamageType.NORMAL;
+
+    /** Constructor reference for this tier. */
+    private final Factory factory;
+    /** Movement speed in pixels per frame. */
+    private final double speed;
+    /** Hits needed to pop. */
+    private final int health;
+    /** Damage dealt to a monkey on contact. */
+    private final int contactDamage;
+    /** Bit per {@link DamageType} this tier ignores. */
+    private final int immunityMask;
+    /** Bloons released when this one pops, in spawn order. */
+    private final BloonType[] children;
+    /** Sprite per damage stage; most tiers have a single stage. */
+    private final SpriteCache.Sprite[] sprites;
+
+    BloonType(Factory factory, double speed, int health, int contactDamage, int immunityMask,
+              BloonType[] children, SpriteCache.Sprite... sprites) {
+        this.factory = factory;
+        this.speed = speed;
+        this.health = health;
+        this.contactDamage = contactDamage;
+        this.immunityMask = immunityMask;
+        this.children = children;
+        this.sprites = sprites;
+    }
+
+    private static BloonType[] none() {
+        return new BloonType[0];
+    }
+
+    private static BloonType[] of(BloonType... children) {
+        return children;
+    }
+
+    private static int immune(DamageType... types) {
+        return DamageType.maskOf(types);
+    }
+
+    /**
+     * Creates a new bloon of this tier.
+     *
+     * @param direction travel direction ({@code 1 = right}, {@code -1 = left})
+     * @param laneY     vertical lane position
+     * @return the new bloon
+     */
+    public Bloon create(int direction, int laneY) {
+        return factory.create(direction, laneY);
+    }
+
+    /** @return movement speed in pixels per frame */
+    public double getSpeed() {
+        return speed;
+    }
+
+    /** @return hits needed to pop a fresh bloon of this tier */
+    public int getHealth() {
+        return health;
+    }
+
+    /** @return damage dealt to a monkey on contact */
+    public int getContactDamage() {
+        return contactDamage;
+    }
+
+    /** @return number of bloons released when this one pops */
+    public int getChildCount() {
+        return children.length;
+    }
+
+    /**
+     * @param i child index, from {@code 0} to {@link #getChildCount()} - 1
+     * @return the tier of that child
+     */
+    public BloonType getChild(int i) {
+        return children[i];
+    }
+
+    /** @return the only child of a single-child tier, or {@code null} for none or several */
+    public BloonType getSingleChild() {
+        return children.length == 1 ? children[0] : null;
+    }
+
+    /**
+     * Checks whether bloons of this tier ignore a damage type. Frozen bloons get an
+     * extra temporary immunity on top of this, handled by {@link Bloon}.
+     *
+     * @param damage the damage type to test
+     * @return {@code true} if this tier is immune
+     */
+    public boolean isImmuneTo(DamageType damage) {
+        return (immunityMask & damage.bit()) != 0;
+    }
+
+    /**
+     * Checks whether a hit does nothing to a bloon of this tier. Ceramics and Moabs take
+     * every hit, Lead and Purple bloons only go by this tier's immunities, and the rest
+     * also honour the bloon's temporary ones, such as {@link #FROZEN_IMMUNITY}.
+     *
+     * @param damage    the damage type of the hit
+     * @param temporary the bloon's temporary immunities, one bit per {@link DamageType}
+     * @return {@code true} if the hit is ignored
+     */
+    public boolean ignores(DamageType damage, int temporary) {
+        switch (this) {
+            case CERAMIC:
+            case MOAB:
+                return false;
+            case LEAD:
+            case PURPLE:
+                return isImmuneTo(damage);
+            default:
+                return ((immunityMask | temporary) & damage.bit()) != 0;
+        }
+    }
+
+    /** @return whether bloons of this tier can be frozen; Moabs and ice-immune tiers cannot */
+    public boolean canFreeze() {
+        return this != MOAB && !isImmuneTo(DamageType.ICE);
+    }
+
+    /** @return one bit per {@link DamageType} this tier ignores, by {@link DamageType#bit()} */
+    public int getImmunityMask() {
+        return immunityMask;
+    }
+
+    /** @return sprite width in pixels, used as the box for lane occupancy and monkey contact */
+    public int getWidth() {
+        return sprites[0].getWidth();
+    }
+
+    /** @return sprite height in pixels, used as the box for lane occupancy and monkey contact */
+    public int getHeight() {
+        return sprites[0].getHeight();
+    }
+
+    /**
+     * Returns the radius of the circle projectiles hit: the mean of the sprite's half width
+     * and half height, so a long Moab is easier to hit end on than its height alone allows.
+     *
+     * @return hit radius in pixels, used by {@link CollisionSweep}
+     */
+    public double getHitRadius() {
+        return (getWidth() + getHeight()) / 4.0;
+    }
+
+    /** @return the sprite for an undamaged bloon of this tier */
+    public SpriteCache.Sprite getSprite() {
+        return sprites[0];
+    }
+
+    /**
+     * @param stage damage stage, clamped to the available stages
+     * @return the sprite for that damage stage
+     */
+    public SpriteCache.Sprite getSprite(int stage) {
+        return sprites[Math.max(0, Math.min(sprites.length - 1, stage))];
+    }
+
+    /** @return every damage-stage sprite of this tier */
+    public SpriteCache.Sprite[] getSprites() {
+        return sprites.clone();
+    }
+}
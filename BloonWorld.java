@@ -1,7 +1,10 @@
 import greenfoot.*;
-import java.util.ArrayList;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.Date;
 import java.util.List;
-import java.util.Collections;
 /*
   Overview:
  * This simulation is meant to emulate the game bloons tower defense but in a more retro style.
@@ -42,19 +45,24 @@ import java.util.Collections;
  * <p>
  * It manages:
  * <ul>
- *   <li>Bloon spawning logic (normal and MOAB)</li>
- *   <li>Monkey spawning logic and timing</li>
+ *   <li>Placing the bloons, monkeys and ice blasts chosen by its {@link SpawnDirector}</li>
  *   <li>Lane preparation and visual rendering</li>
  *   <li>Development testing tools (dev mode)</li>
- *   <li>Random global effects (e.g. Ice Blast)</li>
  *   <li>Z-sorting of actors for proper depth rendering</li>
+ *   <li>Drawing pops, blood and explosions through one {@link EffectRenderer}, on top</li>
+ *   <li>Frame profiling: {@code F2} shows timings, {@code F3} records them to CSV</li>
+ *   <li>{@code F4} toggles stepping bloon lanes in parallel</li>
+ *   <li>Applying the spawns and despawns actors request during their turn in one batch</li>
+ *   <li>Recording every spawn decision to a replay log, or playing one back</li>
+ *   <li>{@code F6} saves a {@link WorldSnapshot} to {@value #SNAPSHOT_FILE}, {@code F7} restores it</li>
+ *   <li>Counting actors culled the moment they leave the playfield or outlive their limits</li>
  * </ul>
  *
  * This class extends {@link World} and serves as the core game world where all
  * gameplay and simulation activity occurs.
  */
 
-public class BloonWorld extends World {
+public class BloonWorld extends World implements SpawnDirector.Host {
     /** Base background image for the world. */
     private GreenfootImage background;
     // --- Color definitions for map elements ---
@@ -68,34 +76,103 @@ public class BloonWorld extends World {
     private int[] lanePositionsY;
     private BloonSpawner[] laneSpawners;
     public static boolean SHOW_SPAWNERS = false;
-    // --- Spawn timing variables ---
-    private int spawnTimer = 0;
-    private int simulationTime = 0;
-    private static final int BASE_MONKEY_INTERVAL = 80;
-    private static final int BASE_BLOON_INTERVAL = 240;
-    private int[] laneSpawnTimers = new int[laneCount];
-    private int monkeySpawnTimer = 0;
-    private int bloonSpawnTimer = 0;
+    // --- Spawning ---
+    /** Spawn schedule shared with the headless engine; owns the world's random source. */
+    private final SpawnDirector director;
+    /** Wave file new worlds spawn by; see {@link WaveSchedule} for the format. */
+    public static String WAVE_FILE = WaveSchedule.DEFAULT_FILE;
+    // --- Replays ---
+    /** Whether new worlds record their spawn decisions to {@link #REPLAY_DIR}. */
+    public static boolean RECORD_REPLAYS = true;
+    /** Directory replay logs are written to, one file per world. */
+    public static final String REPLAY_DIR = "replays";
+    /** Log of this world's spawn decisions, or {@code null} if not recording. */
+    private final ReplayRecorder recorder;
+    /** Recorded session replacing the director, or {@code null} in a live world. */
+    private final ReplayPlayer replay;
+    /** Recorder of the previous world, closed when the next one starts recording. */
+    private static ReplayRecorder lastRecorder;
+    // --- Snapshots ---
+    /** File {@code F6} saves the world to and {@code F7} restores it from. */
+    public static final String SNAPSHOT_FILE = "snapshot.bin";
+    /** Set by {@code F6}; the snapshot is taken between frames, once deferred commands are applied. */
+    private boolean snapshotRequested = false;
     // --- Sidewalk boundaries ---
     private int sidewalkTopStart;
     private int sidewalkTopEnd;
     private int sidewalkBottomStart;
     private int sidewalkBottomEnd;
 
-    // --- Developer testing features ---
-    private boolean devMode = false; 
-    private Class<? extends Bloon> devBloon1;
-    private Class<? extends Bloon> devBloon2;
-    private Class<? extends Monkey> devMonkey; 
-    // --- Random event timers ---    
-    private int iceBlastTimer = 0;
-    private boolean iceBlastActive = false;
+    // --- Rendering ---
+    /** Keeps paint order sorted by Y without re-adding every actor each frame. */
+    private final ZOrderTracker zOrder = new ZOrderTracker(this);
+    // --- Spatial index ---
+    /** Spatial hash of all bloons, rebuilt once per frame for targeting queries. */
+    private final BloonGrid bloonGrid = new BloonGrid(getWidth(), getHeight());
+    /** Candidate projectile&ndash;bloon pairs, swept once per frame for collision checks. */
+    private final CollisionSweep<Bloon> collisionSweep = new CollisionSweep<>();
+    /**
+     * The bloons fetched once per frame for the grid rebuild, plus any spawned before the
+     * sweep. {@code null} outside the world act.
+     */
+    private List<Bloon> frameBloons;
+    // --- Bloon state ---
+    /** Per-frame state of every bloon; moves them all in one pass. */
+    private final BloonStore bloonStore = new BloonStore();
+    // --- Deferred mutations ---
+    /** Spawns and despawns requested by actors, applied at the start of the next act. */
+    private final CommandBuffer commands = new CommandBuffer();
+    /** True from the end of the world act until the next one, while actors act. */
+    private boolean actorPhase = false;
+    /** Recycles projectiles once they leave the world. */
+    private final ProjectilePool projectilePool = new ProjectilePool();
+    /** Resolves this world's pops; its leaf stack is not shared with other worlds. */
+    private final PopCascade popCascade = new PopCascade();
+    /** Counts of actors culled off-screen or past their projectile limits. */
+    private final Culling culling = new Culling();
+    // --- Effects ---
+    /** Draws every pop, blood splash and explosion from one actor. */
+    private final EffectRenderer effects;
+    // --- Profiling ---
+    /** File the frame profiler streams to when recording is toggled on. */
+    public static final String PROFILE_CSV = "frame-profile.csv";
+    /** Frame timing readout, or {@code null} while hidden. */
+    private ProfilerOverlay profilerOverlay;
+    /**
+     * Constructs the {@code BloonWorld} with a random seed.
+     */
+    public BloonWorld() {
+        this(new java.util.Random().nextLong());
+    }
+
     /**
      * Constructs the {@code BloonWorld}, initializes the background,
      * prepares lane and sidewalk graphics, and sets up spawners.
+     * The same seed always produces the same spawns.
+     *
+     * @param seed seed for every random decision in the world
      */
-    public BloonWorld() {
+    public BloonWorld(long seed) {
+        this(seed, null, RECORD_REPLAYS, loadWaves());
+    }
+
+    /**
+     * Constructs a {@code BloonWorld} that plays back a recorded session instead of
+     * making its own spawn decisions.
+     *
+     * @param replay the recorded session, positioned before its first frame
+     */
+    public BloonWorld(ReplayPlayer replay) {
+        this(replay.getSeed(), replay, RECORD_REPLAYS, WaveSchedule.defaults());
+    }
+
+    private BloonWorld(long seed, ReplayPlayer replay, boolean record, WaveSchedule waves) {
         super(1024, 800, 1, false);
+        this.replay = replay;
+        recorder = replay == null && record ? startRecording(seed) : null;
+        director = new SpawnDirector(recorder != null ? recorder : this, seed, getWidth(), waves);
+        SpriteCache.preload();
+        SoundManager.preload();
 
         GreenfootImage base = new GreenfootImage("background01.png");
         GreenfootImage overlay = new GreenfootImage(base.getWidth(), base.getHeight());
@@ -112,242 +189,379 @@ public class BloonWorld extends World {
         sidewalkTopEnd = 232 - 10;
         sidewalkBottomStart = lanePositionsY[laneCount - 1] + (laneHeight / 2) + 10;
         sidewalkBottomEnd = sidewalkBottomStart + 80;
-        //enableDevMode(CeramicBloon.class, PinkBloon.class, IceMonkey.class);
+
+        zOrder.setFixedClasses(ProfilerOverlay.class, EffectRenderer.class);
+        effects = new EffectRenderer();
+        addObject(effects, getWidth() / 2, getHeight() / 2);
+        setPaintOrder(ProfilerOverlay.class, EffectRenderer.class);
+        //enableDevMode(BloonType.CERAMIC, BloonType.PINK, MonkeyType.ICE);
     }
     /**
      * Enables developer mode, which spawns custom bloons and monkeys for testing.
      *
-     * @param bloonType1 first bloon class to spawn
-     * @param bloonType2 second bloon class to spawn
-     * @param monkeyType monkey class to spawn
+     * @param bloonType1 first bloon type to spawn
+     * @param bloonType2 second bloon type to spawn
+     * @param monkeyType monkey type to spawn
      */    
-    public void enableDevMode(Class<? extends Bloon> bloonType1, Class<? extends Bloon> bloonType2, Class<? extends Monkey> monkeyType) {
-        devMode = true;
-        devBloon1 = bloonType1;
-        devBloon2 = bloonType2;
-        devMonkey = monkeyType;
+    public void enableDevMode(BloonType bloonType1, BloonType bloonType2, MonkeyType monkeyType) {
+        director.enableDevMode(bloonType1, bloonType2, monkeyType);
     }
     
     /**
      * Main update loop executed once per frame.
      * Handles spawning, random events, and sorting.
+     * <p>
+     * Greenfoot calls this before any actor acts. The spawns and despawns actors asked
+     * for last frame are applied first. Every bloon is then moved by the {@link BloonStore}
+     * and the bloon grid is rebuilt, so every actor's queries this frame see the same index.
+     * Once this frame's spawns are in, the collision sweep pairs every projectile with the
+     * bloons it may hit; bloons do not move again until the next frame.
+     * </p>
      */
     public void act() {
-        simulationTime++;
-        spawnBloons();
-        spawnMonkeys();
-        triggerRandomIceBlast();
-        cleanupObjects();
-        zSort((ArrayList<Actor>) getObjects(Actor.class), this);
+        actorPhase = false;
+        // Greenfoot hands each key out once, so both handlers share one read
+        String key = Greenfoot.getKey();
+        // Once the world is replaced, none of this frame belongs to it
+        if (handleSnapshotKeys(key)) return;
+        FrameProfiler.beginFrame(this, director.getSimulationTime());
+        handleProfilerKeys(key);
+
+        long t = FrameProfiler.enter(FrameProfiler.Phase.COMMANDS);
+        if (!commands.isEmpty()) commands.apply(this, bloonStore);
+        FrameProfiler.exit(FrameProfiler.Phase.COMMANDS, t);
+
+        if (snapshotRequested) {
+            snapshotRequested = false;
+            saveSnapshot();
+        }
+
+        t = FrameProfiler.enter(FrameProfiler.Phase.BLOONS);
+        bloonStore.update(this, getObjects(Monkey.class), lanePositionsY);
+        FrameProfiler.exit(FrameProfiler.Phase.BLOONS, t);
+
+        t = FrameProfiler.enter(FrameProfiler.Phase.GRID);
+        frameBloons = getObjects(Bloon.class);
+        bloonGrid.rebuild(frameBloons);
+        FrameProfiler.exit(FrameProfiler.Phase.GRID, t);
+
+        SoundManager.nextFrame();
+
+        t = FrameProfiler.enter(FrameProfiler.Phase.EFFECTS);
+        effects.update();
+        FrameProfiler.exit(FrameProfiler.Phase.EFFECTS, t);
+
+        t = FrameProfiler.enter(FrameProfiler.Phase.SPAWN);
+        if (replay != null) {
+            replay.tick(this);
+        } else {
+            if (recorder != null) recorder.nextFrame();
+            director.tick();
+        }
+        FrameProfiler.exit(FrameProfiler.Phase.SPAWN, t);
+
+        t = FrameProfiler.enter(FrameProfiler.Phase.SWEEP);
+        sweepCollisions(frameBloons);
+        frameBloons = null;
+        FrameProfiler.exit(FrameProfiler.Phase.SWEEP, t);
+
+        t = FrameProfiler.enter(FrameProfiler.Phase.Z_ORDER);
+        zOrder.update();
+        FrameProfiler.exit(FrameProfiler.Phase.Z_ORDER, t);
+        actorPhase = true;
     }
+
     /**
-     * Handles all bloon spawning logic, including:
-     * <ul>
-     *   <li>Developer test bloon spawning</li>
-     *   <li>Normal bloon tier progression</li>
-     *   <li>MOAB spawn frequency scaling</li>
-     * </ul>
+     * Writes out what the replay recorder has buffered, so the log is complete up to
+     * the moment the simulation was paused or reset.
      */
-    private void spawnBloons() {
-        //--- Dev Mode ---
-        if (devMode && (devBloon1 != null || devBloon2 != null)) {
-            bloonSpawnTimer++;
-            if (bloonSpawnTimer < BASE_BLOON_INTERVAL) return;
-            bloonSpawnTimer = 0;
-    
-            for (int lane = 0; lane < laneCount; lane++) {
-                BloonSpawner spawner = laneSpawners[lane];
-                int direction = (lane < 3) ? -1 : 1;
-                int startX = (direction == 1) ? 1 : getWidth() - 1;
-    
-                try {
-                    Class<? extends Bloon> bloonClass =
-                        (Greenfoot.getRandomNumber(2) == 0 ? devBloon1 : devBloon2);
-    
-                    if (bloonClass != null) {
-                        Bloon b = bloonClass
-                            .getConstructor(int.class, int.class)
-                            .newInstance(direction, spawner.getY());
-                        addObject(b, startX, spawner.getY());
-                    }
-                } catch (Exception e) {
-                    e.printStackTrace();
-                }
-            }
-            return;
-        }
-    
-        // --- Normal Spawns ---
-        simulationTime++;
-    
-        // --- Moab Spawns ---
-        int currentMoabs = getObjects(Moab.class).size();
-    
-        int maxMoabs = 1 + (simulationTime / 8000); 
-        if (maxMoabs > 5) maxMoabs = 5; 
-    
-        int baseChance = 1000;
-        int moabChance = Math.max(200, baseChance - (simulationTime / 2000) * 100);
-    
-        boolean canSpawnMoab = currentMoabs < maxMoabs;
-        boolean shouldTrySpawnMoab = simulationTime > 6000 && Greenfoot.getRandomNumber(moabChance) == 0;
-    
-        if (canSpawnMoab && shouldTrySpawnMoab) {
-            int lane = Greenfoot.getRandomNumber(laneCount);
-            BloonSpawner spawner = laneSpawners[lane];
-            int direction = (lane < 3) ? -1 : 1;
-            int startX = (direction == 1) ? 1 : getWidth() - 1;
-    
-            addObject(new Moab(direction, spawner.getY()), startX, spawner.getY());
-            return; 
-        }
-    
-        // --- Small Bloon Spawns ---
-        int bloonSpawnChance = 2 - Math.min(currentMoabs, 1); 
-        bloonSpawnChance = Math.max(1, bloonSpawnChance);
-    
-        for (int lane = 0; lane < laneCount; lane++) {
-            BloonSpawner spawner = laneSpawners[lane];
-            laneSpawnTimers[lane]++;
-    
-            if (Greenfoot.getRandomNumber(100) < bloonSpawnChance) {
-                if (laneSpawnTimers[lane] >= 30 && !spawner.isTouchingBloon()) {
-                    laneSpawnTimers[lane] = 0;
-    
-                    // --- Determine allowed tiers ---
-                    ArrayList<Integer> allowedTiers = new ArrayList<>();
-                    if (simulationTime < 600) { for (int i = 0; i <= 0; i++) allowedTiers.add(i); }
-                    else if (simulationTime < 1100) { for (int i = 0; i <= 1; i++) allowedTiers.add(i); }
-                    else if (simulationTime < 1700) { for (int i = 0; i <= 2; i++) allowedTiers.add(i); }
-                    else if (simulationTime < 2300) { for (int i = 0; i <= 3; i++) allowedTiers.add(i); }
-                    else if (simulationTime < 2900) { for (int i = 0; i <= 4; i++) allowedTiers.add(i); }
-                    else if (simulationTime < 4100) { for (int i = 0; i <= 6; i++) allowedTiers.add(i); }
-                    else if (simulationTime < 5400) { for (int i = 0; i <= 8; i++) allowedTiers.add(i); }
-                    else if (simulationTime < 6000) { for (int i = 0; i <= 10; i++) allowedTiers.add(i); }
-                    else if (simulationTime < 6400) { for (int i = 0; i <= 11; i++) allowedTiers.add(i); }
-                    else { for (int i = 0; i <= 12; i++) allowedTiers.add(i); }
-                    
-                        
-                    int bloonType = allowedTiers.get(Greenfoot.getRandomNumber(allowedTiers.size()));
-    
-                    int direction = (lane < 3) ? -1 : 1;
-                    int startX = (direction == 1) ? 1 : getWidth() - 1;
-    
-                    Bloon b;
-                    switch (bloonType) {
-                        case 0: b = new RedBloon(direction, spawner.getY()); break;
-                        case 1: b = new BlueBloon(direction, spawner.getY()); break;
-                        case 2: b = new GreenBloon(direction, spawner.getY()); break;
-                        case 3: b = new YellowBloon(direction, spawner.getY()); break;
-                        case 4: b = new PinkBloon(direction, spawner.getY()); break;
-                        case 5: b = new BlackBloon(direction, spawner.getY()); break;
-                        case 6: b = new WhiteBloon(direction, spawner.getY()); break;
-                        case 7: b = new PurpleBloon(direction, spawner.getY()); break;
-                        case 8: b = new LeadBloon(direction, spawner.getY()); break;
-                        case 9: b = new ZebraBloon(direction, spawner.getY()); break;
-                        case 10: b = new RainbowBloon(direction, spawner.getY()); break;
-                        case 11: b = new CeramicBloon(direction, spawner.getY()); break;
-                        default: b = new RedBloon(direction, spawner.getY()); break;
-                    }
-    
-                    addObject(b, startX, spawner.getY());
-                }
-            }
+    @Override
+    public void stopped() {
+        if (recorder != null) recorder.flush();
+    }
+
+    /**
+     * Creates an empty world that neither records nor replays, for a {@link WorldSnapshot}
+     * to restore into. Its director starts at time zero until the snapshot sets it.
+     *
+     * @param seed  seed of the world the snapshot was taken from
+     * @param waves wave schedule of that world
+     * @return the new world, holding only its lanes, spawners and effect renderer
+     */
+    static BloonWorld blank(long seed, WaveSchedule waves) {
+        return new BloonWorld(seed, null, false, waves);
+    }
+
+    /**
+     * Loads {@link #WAVE_FILE}, falling back to the default schedule if it cannot be used.
+     *
+     * @return the schedule for a new world
+     */
+    private static WaveSchedule loadWaves() {
+        try {
+            return WaveSchedule.load(WAVE_FILE);
+        } catch (IOException e) {
+            System.err.println("Could not load " + WAVE_FILE + ", using the default waves: " + e.getMessage());
+            return WaveSchedule.defaults();
         }
     }
 
+    /**
+     * Enters every bloon and projectile into the collision sweep and pairs them up.
+     * Package-private so benchmarks can sweep a world they set up without acting it.
+     */
+    void sweepCollisions() {
+        sweepCollisions(getObjects(Bloon.class));
+    }
 
     /**
-     * Handles automatic spawning of monkeys at dynamic intervals.
-     * The spawn rate and type of monkey depend on the current simulation phase.
-     */    
-    private void spawnMonkeys() {
-        monkeySpawnTimer++;
+     * Sweeps the given bloons against every projectile.
+     *
+     * @param bloons every bloon in the world; any no longer in it are skipped
+     */
+    private void sweepCollisions(List<Bloon> bloons) {
+        collisionSweep.clear();
+        for (Bloon b : bloons) {
+            if (b.getWorld() != this) continue;
+            collisionSweep.addBloon(b, b.getX(), b.getY(), b.getType().getHitRadius());
+        }
+        for (Projectile p : getObjects(Projectile.class)) p.addToSweep(collisionSweep);
+        collisionSweep.sweep();
+    }
 
-        if (devMode && devMonkey != null) {
-            if (monkeySpawnTimer < BASE_MONKEY_INTERVAL) return;
-            monkeySpawnTimer = 0;
-            try {
-                Monkey m = devMonkey.getConstructor().newInstance();
-                addMonkey(m);
-            } catch (Exception e) { e.printStackTrace(); }
+    /** @return the spawn schedule, for {@link WorldSnapshot} */
+    SpawnDirector getDirector() {
+        return director;
+    }
+
+    /**
+     * Writes this world to {@value #SNAPSHOT_FILE}. Replay worlds are not saved, since
+     * their spawns come from the log rather than the director.
+     */
+    private void saveSnapshot() {
+        if (replay != null) {
+            System.err.println("Replays cannot be snapshotted");
             return;
         }
+        try {
+            WorldSnapshot.save(this, Paths.get(SNAPSHOT_FILE));
+        } catch (IOException e) {
+            System.err.println("Could not write " + SNAPSHOT_FILE + ": " + e.getMessage());
+        }
+    }
 
-        int dynamicInterval = (int)(BASE_MONKEY_INTERVAL * Math.max(0.5, 1.0 - simulationTime / 4800.0));
-        if (monkeySpawnTimer < dynamicInterval) return;
-        monkeySpawnTimer = 0;
-
-        int phase = 1;
-        if (simulationTime >= 2900 && simulationTime < 6000) phase = 2;
-        if (simulationTime >= 6000) phase = 3;
-
-        int monkeyType = -1;
-        int roll = Greenfoot.getRandomNumber(100);
-
-        switch (phase) {
-            case 1:
-                if (roll < 50) monkeyType = 0;
-                else if (roll < 75) monkeyType = 1;
-                break;
-            case 2:
-                if (roll < 20) monkeyType = 0;
-                else if (roll < 35) monkeyType = 1;
-                else if (roll < 45) monkeyType = 5;
-                else if (roll < 60) monkeyType = 3;
-                else if (roll < 70) monkeyType = 4;
-                break;
-            case 3:
-                if (roll < 15) monkeyType = 0;
-                else if (roll < 25) monkeyType = 1;
-                else if (roll < 35) monkeyType = 2;
-                else if (roll < 50) monkeyType = 3;
-                else if (roll < 65) monkeyType = 4;
-                else if (roll < 75) monkeyType = 5;
-                break;
+    /**
+     * Replaces the running world with the one saved in {@value #SNAPSHOT_FILE}.
+     *
+     * @return {@code true} if the world was replaced
+     */
+    private static boolean loadSnapshot() {
+        try {
+            Greenfoot.setWorld(WorldSnapshot.load(Paths.get(SNAPSHOT_FILE)));
+            return true;
+        } catch (IOException e) {
+            System.err.println("Could not restore " + SNAPSHOT_FILE + ": " + e.getMessage());
+            return false;
         }
+    }
 
-        if (monkeyType == -1) return;
-
-        Monkey m;
-        switch (monkeyType) {
-            case 0: m = new DartMonkey(); break;
-            case 1: m = new BoomerangMonkey(); break;
-            case 2: m = new SuperMonkey(); break;
-            case 3: m = new WizardMonkey(); break;
-            case 4: m = new BombTower(); break;
-            case 5: m = new IceMonkey(); break;
-            default: return;
+    /**
+     * Shows a recorded session in a new world.
+     *
+     * @param file  replay log written by an earlier world
+     * @param speed Greenfoot simulation speed, {@code 1} to {@code 100}
+     * @throws IOException if the log cannot be read
+     */
+    public static void playReplay(String file, int speed) throws IOException {
+        Greenfoot.setWorld(new BloonWorld(ReplayPlayer.open(Paths.get(file))));
+        Greenfoot.setSpeed(speed);
+    }
+
+    /**
+     * Opens a replay log named after the current time and seed, closing the previous
+     * world's log. Recording is skipped if the file cannot be created.
+     *
+     * @return the recorder, or {@code null} if recording could not start
+     */
+    private ReplayRecorder startRecording(long seed) {
+        if (lastRecorder != null) {
+            try {
+                lastRecorder.close();
+            } catch (IOException e) {
+                System.err.println("Replay log was not fully written: " + e.getMessage());
+            }
+            lastRecorder = null;
         }
-        addMonkey(m);
+        String stamp = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+        Path file = Paths.get(REPLAY_DIR, stamp + "_" + seed + ".replay");
+        try {
+            lastRecorder = new ReplayRecorder(this, file, seed, getWidth());
+        } catch (IOException e) {
+            System.err.println("Replay recording disabled: " + e.getMessage());
+        }
+        return lastRecorder;
     }
+
     /**
-     * Adds a monkey actor to the world at a random sidewalk spawn position.
-     * Monkeys traverse vertically across the map and despawn at the opposite sidewalk.
+     * Adds an actor on behalf of game logic. While actors are acting the request is queued
+     * and applied at the start of the next world act; otherwise it happens at once.
      *
-     * @param m the monkey to add
+     * @param object the actor to add
+     * @param x      x-coordinate
+     * @param y      y-coordinate
      */
-    private void addMonkey(Monkey m) {
-        boolean spawnAtTop = Greenfoot.getRandomNumber(2) == 0;
+    public void spawn(Actor object, int x, int y) {
+        if (actorPhase) commands.spawn(object, x, y);
+        else addObject(object, x, y);
+    }
 
-        int ySpawn, yDespawn;
-        int sidewalkDepth = 60;
+    /**
+     * Removes an actor on behalf of game logic. While actors are acting the actor is only
+     * marked, stays in the world and is removed at the start of the next world act;
+     * otherwise it is removed at once.
+     *
+     * @param object the actor to remove
+     */
+    public void despawn(Actor object) {
+        if (actorPhase) commands.despawn(object);
+        else removeObject(object);
+    }
 
-        if (spawnAtTop) {
-            ySpawn = sidewalkTopEnd - sidewalkDepth;
-            yDespawn = sidewalkBottomStart + sidewalkDepth;
-            m.setRotation(90);
-        } else {
-            ySpawn = sidewalkBottomStart + sidewalkDepth;
-            yDespawn = sidewalkTopEnd - sidewalkDepth;
-            m.setRotation(270);
+    /**
+     * Despawns an actor that can no longer matter and counts it under {@code reason}.
+     * Actors already gone or on their way out are neither despawned nor counted again.
+     *
+     * @param object the actor to cull
+     * @param reason which {@link Culling} rule it broke
+     */
+    public void cull(Actor object, Culling.Reason reason) {
+        if (liveWorld(object) != this) return;
+        culling.record(reason);
+        despawn(object);
+    }
+
+    /** @return how many actors have been culled so far, by reason */
+    public Culling getCulling() {
+        return culling;
+    }
+
+    /**
+     * Returns the world an actor can still interact with: the {@code BloonWorld} it is in,
+     * unless it is marked for despawn.
+     *
+     * @param actor the actor to check
+     * @return its world, or {@code null} if it is gone or on its way out
+     */
+    public static BloonWorld liveWorld(Actor actor) {
+        World w = actor.getWorld();
+        if (!(w instanceof BloonWorld)) return null;
+        BloonWorld world = (BloonWorld) w;
+        return world.commands.isDespawning(actor) ? null : world;
+    }
+
+    /**
+     * Profiler controls: {@code F2} toggles the on-screen overlay,
+     * {@code F3} starts or stops streaming frame timings to {@value #PROFILE_CSV},
+     * {@code F4} toggles the parallel bloon update so the two can be compared.
+     *
+     * @param key the key pressed since the last frame, or {@code null}
+     */
+    private void handleProfilerKeys(String key) {
+        if (key == null) return;
+        if (key.equals("f2")) {
+            if (profilerOverlay == null) {
+                profilerOverlay = new ProfilerOverlay();
+                addObject(profilerOverlay, ProfilerOverlay.WIDTH / 2 + 6, ProfilerOverlay.HEIGHT / 2 + 4);
+                FrameProfiler.setEnabled(true);
+            } else {
+                removeObject(profilerOverlay);
+                profilerOverlay = null;
+                if (!FrameProfiler.isCsvActive()) FrameProfiler.setEnabled(false);
+            }
+        } else if (key.equals("f3")) {
+            if (FrameProfiler.isCsvActive()) {
+                FrameProfiler.stopCsv();
+                if (profilerOverlay == null) FrameProfiler.setEnabled(false);
+            } else {
+                try {
+                    FrameProfiler.startCsv(PROFILE_CSV);
+                } catch (java.io.IOException e) {
+                    System.err.println("Could not open " + PROFILE_CSV + ": " + e.getMessage());
+                }
+            }
+        } else if (key.equals("f4")) {
+            bloonStore.setParallel(!bloonStore.isParallel());
         }
+    }
 
-        int xSpawn = Greenfoot.getRandomNumber(getWidth() - 200) + 100;
-        addObject(m, xSpawn, ySpawn);
-        m.setDespawnY(yDespawn);
+    /**
+     * Snapshot controls: {@code F6} saves the world once this frame's deferred commands
+     * are applied, {@code F7} restores the last save.
+     *
+     * @param key the key pressed since the last frame, or {@code null}
+     * @return {@code true} if this world was replaced and must not finish its act
+     */
+    private boolean handleSnapshotKeys(String key) {
+        if (key == null) return false;
+        if (key.equals("f6")) {
+            snapshotRequested = true;
+        } else if (key.equals("f7")) {
+            return loadSnapshot();
+        }
+        return false;
+    }
+
+    /**
+     * Adds an actor and registers it with the paint-order tracker
+     * (and the bloon grid and store, for bloons).
+     *
+     * @param object the actor to add
+     * @param x      x-coordinate
+     * @param y      y-coordinate
+     */
+    @Override
+    public void addObject(Actor object, int x, int y) {
+        boolean alreadyHere = object.getWorld() == this;
+        super.addObject(object, x, y);
+        // Paint-order shuffles are not real spawns
+        if (zOrder.isReinserting()) return;
+        if (alreadyHere) {
+            zOrder.moved(object);
+            return;
+        }
+        zOrder.added(object);
+        if (object instanceof Bloon) {
+            bloonStore.add((Bloon) object, x, y);
+            bloonGrid.insert((Bloon) object);
+            if (frameBloons != null) frameBloons.add((Bloon) object);
+        }
     }
 
+    /**
+     * Tells the paint-order tracker an actor changed position. Called by the movers
+     * themselves, since Greenfoot has no hook for it.
+     *
+     * @param actor the actor that moved
+     */
+    void actorMoved(Actor actor) {
+        zOrder.moved(actor);
+    }
+
+    /**
+     * Removes an actor and unregisters it from the paint-order tracker.
+     * Bloons give up their slot in the {@link BloonStore}; pooled projectiles are handed back to the {@link ProjectilePool}.
+     *
+     * @param object the actor to remove
+     */
+    @Override
+    public void removeObject(Actor object) {
+        if (object == null || object.getWorld() != this) return;
+        super.removeObject(object);
+        if (zOrder.isReinserting()) return;
+        zOrder.removed(object);
+        if (object instanceof Bloon) bloonStore.remove((Bloon) object);
+        if (object instanceof Projectile) projectilePool.release((Projectile) object);
+    }
     /**
      * Prepares and draws all lanes and sidewalks with visual texture.
      *
@@ -431,6 +645,10 @@ public class BloonWorld extends World {
     /**
      * Z-sort so actors with higher Y (lower on screen) render in front.
      * Uses precise Y for SuperSmoothMover when available. Stable for ties.
+     * <p>
+     * This is the full rebuild: every actor is removed and re-added. The world itself
+     * uses {@link ZOrderTracker}, which only re-adds actors that are out of order.
+     * </p>
      */
     public static void zSort(java.util.ArrayList<greenfoot.Actor> actorsToSort, greenfoot.World world) {
         // Local container class (scoped to this method only).
@@ -508,69 +726,112 @@ public class BloonWorld extends World {
         return (int)(v + Math.signum(v) * 0.5);
     }
     
+    /** @return the per-frame state of every bloon */
+    public BloonStore getBloonStore() {
+        return bloonStore;
+    }
+
+    /** @return the spawns and despawns queued while actors act, applied at the next world act */
+    CommandBuffer getCommands() {
+        return commands;
+    }
+
+    /** @return the resolver for bloons popped in this world */
+    PopCascade getPopCascade() {
+        return popCascade;
+    }
+
+    /** @return the renderer that shows pops, blood and explosions */
+    public EffectRenderer getEffects() {
+        return effects;
+    }
+
+    /** @return the spatial index of bloons used for targeting queries */
+    public BloonGrid getBloonGrid() {
+        return bloonGrid;
+    }
+
+    /** @return this frame's projectile&ndash;bloon collision candidates */
+    public CollisionSweep<Bloon> getCollisionSweep() {
+        return collisionSweep;
+    }
+
+    /** @return the pool monkeys draw their projectiles from */
+    public ProjectilePool getProjectilePool() {
+        return projectilePool;
+    }
+
+    /** @return the seed of this world's random source */
+    public long getSeed() {
+        return director.getSeed();
+    }
+
     /** @return Y-coordinates of all lane centers */
     public int[] getLanePositions() {
         return lanePositionsY;
     }
+
+    @Override
+    public int getMoabCount() {
+        return getObjects(Moab.class).size();
+    }
+
     /**
-     * Occasionally triggers a fullscreen {@link IceBlastEffect}.
-     * Controlled by a cooldown timer and low random chance.
+     * Checks the lane's spawner box against the {@link BloonStore}'s lane index instead of
+     * asking Greenfoot for every bloon touching the spawner.
      */
-    private void triggerRandomIceBlast() {
-        iceBlastTimer++;
-    
-        if (iceBlastTimer < 600) return; 
-    
-        if (iceBlastTimer > 3000) iceBlastTimer = 600; 
-    
-        if (!iceBlastActive && Greenfoot.getRandomNumber(1000) == 0) {
-            iceBlastActive = true;
-            iceBlastTimer = 0;
-    
-            int radius = Math.max(getWidth(), getHeight()) / 2;
-            IceBlastEffect blast = new IceBlastEffect(radius);
-            addObject(blast, getWidth() / 2, getHeight() / 2);
-    
-            iceBlastActive = false;
-        }
+    @Override
+    public boolean isLaneMouthBlocked(int lane) {
+        BloonSpawner spawner = laneSpawners[lane];
+        GreenfootImage mouth = spawner.getImage();
+        double halfWidth = mouth.getWidth() / 2.0;
+        return bloonStore.isLaneOccupied(lane, spawner.getX() - halfWidth, spawner.getX() + halfWidth,
+                                         mouth.getHeight() / 2.0);
     }
+
+    @Override
+    public void spawnBloon(BloonType type, int lane) {
+        int direction = SpawnDirector.laneDirection(lane);
+        int startX = (direction == 1) ? 1 : getWidth() - 1;
+        int y = laneSpawners[lane].getY();
+        addObject(type.create(direction, y), startX, y);
+    }
+
     /**
-     * Periodically removes off-screen or invalid objects to prevent memory buildup
-     * and slowdown during long simulations.
-     * <p>
-     * This method runs every few seconds (based on {@code simulationTime})
-     * and checks all {@link Actor} instances currently in the world.
-     * Any actor that is far outside the visible area or detached from the world
-     * will be removed automatically.
+     * Adds a monkey at a sidewalk spawn position.
+     * Monkeys traverse vertically across the map and despawn at the opposite sidewalk.
+     *
+     * @param type  the monkey to add
+     * @param atTop {@code true} to start on the top sidewalk
+     * @param x     x-coordinate of the crossing
      */
-    private void cleanupObjects() {
-        // Run every ~5 seconds (at 60 FPS this is 300 frames)
-        if (simulationTime % 300 != 0) return;
-    
-        // Define safe boundaries slightly beyond the world edges
-        int minX = -200;
-        int maxX = getWidth() + 200;
-        int minY = -200;
-        int maxY = getHeight() + 200;
-    
-        List<Actor> all = getObjects(Actor.class);
-        for (Actor a : all) {
-            if (a == null) continue;
-    
-            // Remove if actor somehow lost its world reference
-            if (a.getWorld() == null) {
-                removeObject(a);
-                continue;
-            }
-    
-            int x = a.getX();
-            int y = a.getY();
-    
-            // Remove if far off-screen (helps prevent buildup of old projectiles or effects)
-            if (x < minX || x > maxX || y < minY || y > maxY) {
-                removeObject(a);
-            }
+    @Override
+    public void spawnMonkey(MonkeyType type, boolean atTop, int x) {
+        Monkey m = type.create();
+        int ySpawn, yDespawn;
+        int sidewalkDepth = 60;
+
+        if (atTop) {
+            ySpawn = sidewalkTopEnd - sidewalkDepth;
+            yDespawn = sidewalkBottomStart + sidewalkDepth;
+            m.setRotation(90);
+        } else {
+            ySpawn = sidewalkBottomStart + sidewalkDepth;
+            yDespawn = sidewalkTopEnd - sidewalkDepth;
+            m.setRotation(270);
         }
+
+        addObject(m, x, ySpawn);
+        m.setDespawnY(yDespawn);
+    }
+
+    /**
+     * Adds a fullscreen {@link IceBlastEffect} at the centre of the world.
+     */
+    @Override
+    public void triggerIceBlast() {
+        int radius = Math.max(getWidth(), getHeight()) / 2;
+        addObject(new IceBlastEffect(radius), getWidth() / 2, getHeight() / 2);
     }
 }
 
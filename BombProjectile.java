@@ -6,12 +6,12 @@ import java.util.List;
  * <p>
  * When the bomb collides with a bloon, it creates an explosion that
  * damages all nearby bloons within a specified radius. The explosion
- * also creates a visual and sound effect via {@link ExplosionEffect}.
+ * also shows an explosion with sound through the world's {@link EffectRenderer}.
  * </p>
  */
 public class BombProjectile extends Projectile {
     /** The radius within which bloons are damaged by the explosion. */
-    private int explosionRadius = 175;
+    public static final int EXPLOSION_RADIUS = 175;
     /**
      * Constructs a new {@code BombProjectile} originating from the given source tower
      * and targeting the specified bloon.
@@ -21,10 +21,9 @@ public class BombProjectile extends Projectile {
      */
     public BombProjectile(Monkey source, Bloon target) {
         super(source, target);
-        GreenfootImage bomb = new GreenfootImage("bomb.png");
-        bomb.scale(56, 56);
-        setImage(bomb);
-        speed = 6;
+        setImage(ProjectileType.BOMB.getSprite().get());
+        speed = ProjectileType.BOMB.getSpeed();
+        type = ProjectileType.BOMB;
     }
     /**
      * Checks for collision with any bloon. If a collision occurs, the projectile
@@ -33,7 +32,7 @@ public class BombProjectile extends Projectile {
     @Override
     protected void checkCollision() {
         if (worldRef == null) return;
-        Bloon hit = (Bloon) getOneIntersectingObject(Bloon.class);
+        Bloon hit = getHitBloon();
         if (hit != null) {
             explode();
         }
@@ -43,19 +42,20 @@ public class BombProjectile extends Projectile {
      * Handles the explosion effect and area-of-effect (AOE) damage to bloons.
      * <p>
      * - Damages all bloons within the explosion radius that are not immune to {@code EXPLOSIVE} damage.<br>
-     * - Spawns a corresponding {@link ExplosionEffect} at the impact location.<br>
+     * - Shows an explosion at the impact location.<br>
      * - Removes the projectile from the world afterward.
      * </p>
      */
     private void explode() {
-        if (getWorld() == null) return;
-        List<Bloon> bloons = getObjectsInRange(explosionRadius, Bloon.class);
+        BloonWorld world = BloonWorld.liveWorld(this);
+        if (world == null) return;
+        List<Bloon> bloons = world.getBloonGrid().getBloonsInRange(getX(), getY(), EXPLOSION_RADIUS);
         for (Bloon b : bloons) {
             if (!b.isImmuneTo(DamageType.EXPLOSIVE)) {
                 b.takeDamage(1, DamageType.EXPLOSIVE);
             }
         }
-        getWorld().addObject(new ExplosionEffect(explosionRadius), getX(), getY());
-        getWorld().removeObject(this);
+        world.getEffects().explosion(getX(), getY(), EXPLOSION_RADIUS);
+        world.despawn(this);
     }
 }
@@ -1,6 +1,6 @@
 import greenfoot.*;
+import java.io.IOException;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Set;
 /**
  * Represents a returning projectile that behaves like a boomerang.
@@ -12,7 +12,7 @@ import java.util.Set;
  * 
  * <p>Key features:</p>
  * <ul>
- *   <li>Travels up to a maximum distance before returning.</li>
+ *   <li>Follows its target outward, up to a maximum distance, before returning.</li>
  *   <li>Deals {@code NORMAL} damage to non-immune bloons.</li>
  *   <li>Resets pierce count when returning to allow for additional hits.</li>
  *   <li>Returns to the original tower (monkey), and disappears upon arrival.</li>
@@ -20,13 +20,13 @@ import java.util.Set;
  */
 public class Boomerang extends Projectile {
     /** Maximum distance the boomerang travels before returning. */
-    private final int maxDistance = 500;
+    public static final int MAX_DISTANCE = 500;
 
     /** Movement speed of the boomerang per act cycle. */
-    private final int speed = 8;
+    private final int speed = ProjectileType.BOOMERANG.getSpeed();
 
     /** Number of bloons the boomerang can hit before being destroyed (per phase). */
-    private final int basePierce = 5;
+    private final int basePierce = ProjectileType.BOOMERANG.getPierce();
 
     /** Tracks how far the boomerang has traveled. */
     private int traveled = 0;
@@ -40,8 +40,8 @@ public class Boomerang extends Projectile {
     /** Reference to the source tower that fired this projectile. */
     private Monkey source;
 
-    /** Set of bloons already hit, to prevent multiple hits per pass. */
-    private Set<Bloon> hitBloons = new HashSet<>();
+    /** Set of bloons already hit, to prevent multiple hits per pass. Reused across throws. */
+    private final Set<Bloon> hitBloons = new HashSet<>();
 
     /** Fallback coordinates in case the source tower moves or is removed. */
     private int fallbackX, fallbackY;
@@ -54,53 +54,122 @@ public class Boomerang extends Projectile {
      */
     public Boomerang(Monkey source, Bloon target) {
         super(source, target);
+        setImage(ProjectileType.BOOMERANG.getSprite().get());
+        type = ProjectileType.BOOMERANG;
+        prepareThrow(source);
+    }
+
+    /**
+     * Resets flight state so a pooled boomerang can be thrown again.
+     * The hit set is cleared rather than reallocated.
+     *
+     * @param source the tower throwing this boomerang
+     * @param target the bloon initially targeted
+     */
+    @Override
+    protected void reset(Monkey source, Bloon target) {
+        super.reset(source, target);
+        prepareThrow(source);
+    }
+
+    /**
+     * Sets up a fresh outward flight from the given source.
+     *
+     * @param source the tower throwing this boomerang
+     */
+    private void prepareThrow(Monkey source) {
         this.source = source;
         this.pierce = basePierce;
-        setImage("Boomerang.png");
+        traveled = 0;
+        returning = false;
+        hitBloons.clear();
 
         if (source != null) {
             setRotation(source.getRotation());
             fallbackX = source.getX();
             fallbackY = source.getY();
         }
-        
     }
+    /**
+     * Also writes the outward distance, return flag, pierce left, the point it returns to
+     * and the bloons already hit on this pass.
+     */
+    @Override
+    void writeState(WorldSnapshot.Writer out) throws IOException {
+        super.writeState(out);
+        out.writeInt(traveled);
+        out.writeBoolean(returning);
+        out.writeInt(pierce);
+        out.writeInt(fallbackX);
+        out.writeInt(fallbackY);
+        out.writeInt(hitBloons.size());
+        for (Bloon b : hitBloons) out.writeRef(b);
+    }
+
+    @Override
+    void readState(WorldSnapshot.Reader in) throws IOException {
+        super.readState(in);
+        traveled = in.readInt();
+        returning = in.readBoolean();
+        pierce = in.readInt();
+        fallbackX = in.readInt();
+        fallbackY = in.readInt();
+        hitBloons.clear();
+        for (int n = in.readInt(); n > 0; n--) {
+            Bloon b = in.readBloon();
+            // Bloons popped since are gone; they cannot be hit again anyway
+            if (b != null) hitBloons.add(b);
+        }
+    }
+
     /**
      * Updates the projectile each frame.
      * <p>
      * The boomerang either travels outward or returns to its source.
+     * On the way out it keeps turning toward its target while that bloon is alive,
+     * so it curves after a moving bloon; once the target is gone it flies straight.
      * It checks for collisions with bloons and removes itself upon
      * hitting too many targets or reaching its source again.
      * </p>
      */
     @Override
     public void act() {
-        if (getWorld() == null) return;
+        long t = FrameProfiler.enter(FrameProfiler.Phase.PROJECTILES);
+        try {
+            if (BloonWorld.liveWorld(this) == null) return;
 
-        if (!returning) {
-            move(speed);
-            traveled += speed;
+            if (!returning) {
+                if (target != null && target.getWorld() != null) {
+                    turnTowards(target.getX(), target.getY());
+                }
+                if (!advance(speed)) return;
+                traveled += speed;
 
-            if (traveled >= maxDistance) {
-                returning = true;
-                hitBloons.clear(); 
-            }
-        } else {
-            if (source != null && source.getWorld() != null) {
-                fallbackX = source.getX();
-                fallbackY = source.getY();
-            }
+                if (traveled >= MAX_DISTANCE) {
+                    returning = true;
+                    hitBloons.clear(); 
+                }
+            } else {
+                if (source != null && source.getWorld() != null) {
+                    fallbackX = source.getX();
+                    fallbackY = source.getY();
+                }
 
-            turnTowards(fallbackX, fallbackY);
-            move(speed);
+                turnTowards(fallbackX, fallbackY);
+                if (!advance(speed)) return;
 
-            if (distanceTo(fallbackX, fallbackY) < speed + 2) {
-                getWorld().removeObject(this);
-                return;
+                if (distanceTo(fallbackX, fallbackY) < speed + 2) {
+                    despawn();
+                    return;
+                }
             }
-        }
 
-        checkCollision();
+            long collision = FrameProfiler.enter(FrameProfiler.Phase.COLLISION);
+            checkCollision();
+            FrameProfiler.exit(FrameProfiler.Phase.COLLISION, collision);
+        } finally {
+            FrameProfiler.exit(FrameProfiler.Phase.PROJECTILES, t);
+        }
     }
     /**
      * Checks for collisions with bloons and applies damage if appropriate.
@@ -113,27 +182,21 @@ public class Boomerang extends Projectile {
      */
     @Override    
     protected void checkCollision() {
-        World world = getWorld();
+        BloonWorld world = BloonWorld.liveWorld(this);
         if (world == null) return;
-        List<Bloon> bloons = getIntersectingObjects(Bloon.class);
-        if (bloons == null || bloons.isEmpty()) return;
-        for (Bloon b : bloons) {
-            if (b == null || hitBloons.contains(b)) continue;
+        for (Bloon b : getTouchingBloons()) {
+            if (b == null || hitBloons.contains(b) || BloonWorld.liveWorld(b) == null) continue;
     
             if (b.isImmuneTo(DamageType.NORMAL)) {
-                GreenfootSound immuneSound = new GreenfootSound("LeadSound.wav");
-                immuneSound.setVolume(40);
-                immuneSound.play();
-                if (getWorld() != null) {
-                    world.removeObject(this);
-                    return;
-                }
+                SoundManager.play(SoundManager.Clip.LEAD, 40);
+                world.despawn(this);
+                return;
             } else {
                 b.takeDamage(1, DamageType.NORMAL);
                 hitBloons.add(b);
                 pierce--;
-                if (pierce <= 0 && getWorld() != null) {
-                    world.removeObject(this);
+                if (pierce <= 0) {
+                    world.despawn(this);
                     return;
                 }
             }
@@ -1,71 +1,25 @@
 import greenfoot.*;  // (World, Actor, GreenfootImage, Greenfoot and MouseInfo)
 
 public class CeramicBloon extends Bloon {
-    private static final double SPEED = 2;
-    private static final GreenfootImage[] DAMAGE_IMAGES = new GreenfootImage[5];
     private int lastDamageStage = 0;
 
-    static {
-        // Load and scale images once
-        for (int i = 0; i < 5; i++) {
-            DAMAGE_IMAGES[i] = new GreenfootImage("Ceramic/Ceramic_Bloon" + i + ".png");
-            DAMAGE_IMAGES[i].scale(63, 84);
-        }
+    public CeramicBloon(int direction, int laneY) {
+        super(BloonType.CERAMIC, direction, laneY);
     }
 
-    public CeramicBloon(int direction, int laneY) {
-        super(SPEED, 10, direction, laneY, null);
-        setImage(DAMAGE_IMAGES[0]);
-        contactDamage = 5;
+    @Override
+    protected void onHit() {
+        SoundManager.play(SoundManager.Clip.CERAMIC, 75);
     }
 
     @Override
-    public void takeDamage(int dmg, DamageType type) {
-        
-        health -= dmg;
-        GreenfootSound Ceramic = new GreenfootSound("CeramicSound.wav");
-        Ceramic.setVolume(75);
-        Ceramic.play();
-        if (health <= 0) {
-            pop();
-            return;
-        }
-        
+    protected void onDamaged(int health) {
         // Determine damage stage (every 2 HP)
         int stage = Math.min(4, (10 - health) / 2);
         if (stage != lastDamageStage) {
             lastDamageStage = stage;
-            // If currently frozen, update the stored base image and reapply frozen visual
-            if (frozen) {
-                // keep originalImage as the non-frozen new stage
-                originalImage = new GreenfootImage(DAMAGE_IMAGES[stage]);
-                // create frozen overlay from that base and show it
-                GreenfootImage frozen = makeFrozenCopy(originalImage);
-                setImage(frozen);
-            } else {
-                // normal (not frozen) swap to new stage
-                setImage(DAMAGE_IMAGES[stage]);
-            }
+            // Frozen or not, the matching cached variant of the new stage is shown
+            showSprite(BloonType.CERAMIC.getSprite(stage));
         }
-
-    }
-    @Override
-    protected void pop() 
-    {
-        World world = getWorld();
-        if (world == null) return;
-
-        int x = getX();
-        int y = getY();
-
-        // Spawn Black and White Bloons slightly offset horizontally
-        RainbowBloon rainbow = new RainbowBloon(direction, laneY);
-        RainbowBloon rainbow2 = new RainbowBloon(direction, laneY);
-
-        int offset = 12;
-        world.addObject(rainbow, x - offset, y);
-        world.addObject(rainbow2, x + offset, y);
-        PopEffect pop = new PopEffect();
-        world.removeObject(this);
     }
 }
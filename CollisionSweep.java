@@ -0,0 +1,324 @@
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Sweep-and-prune broadphase for projectile&ndash;bloon collisions, followed by a circle
+ * narrowphase with a hit radius per {@link BloonType} and {@link ProjectileType}.
+ * <p>
+ * Every projectile used to ask Greenfoot for the bloons its rotated image overlaps, which
+ * tests it against every bloon: projectiles times bloons per frame. Bloons travel along
+ * horizontal lanes, so they spread out along x. Once per frame the bloons and the
+ * projectiles are each sorted by the left edge of their box, and one merged pass over both
+ * lists pairs every projectile with the bloons whose boxes overlap its own. A projectile's
+ * box is widened by the distance it may still move before it checks, so the pairs found at
+ * the start of the frame hold wherever it flies to. Its check then only tests its own
+ * candidates, circle against circle, at its live position.
+ * </p>
+ * <p>
+ * The sweep runs separately in horizontal bands about two lanes high, so boxes at the same
+ * x in distant lanes never meet. A box is entered in every band it reaches, and a pair is
+ * kept only in the band where the top of the two boxes' overlap lies, so it is found once.
+ * </p>
+ *
+ * <p>Key features:</p>
+ * <ul>
+ *   <li>Cost is two primitive sorts plus the boxes that overlap within a band, not the
+ *       product of projectiles and bloons.</li>
+ *   <li>Sort keys pack the band, the coordinate and the index into one {@code long}, as in
+ *       {@link LaneIndex}, so one sort orders both and needs no comparator.</li>
+ *   <li>Arrays are kept between frames; a frame allocates nothing once they have grown.</li>
+ *   <li>A projectile that was not swept this frame is tested against every bloon instead.</li>
+ *   <li>Bloon positions are those given to {@link #addBloon}; bloons must not move between
+ *       the sweep and the checks. Both {@link BloonWorld} and {@link HeadlessSimulation}
+ *       move bloons before or after every projectile has checked, never in between.</li>
+ * </ul>
+ *
+ * @param <B> the bloon class of the caller
+ */
+public class CollisionSweep<B> {
+    /** Height of one sweep band, in pixels; the same as a {@link BloonGrid} cell. */
+    private static final int BAND_HEIGHT = BloonGrid.CELL_SIZE;
+    /** Last band; boxes further down are swept with it. */
+    private static final int MAX_BAND = 31;
+    /** Bits of a sort key that hold the index. */
+    private static final int INDEX_BITS = 24;
+    private static final long INDEX_MASK = (1L << INDEX_BITS) - 1;
+    /** Bits of a sort key that hold the scaled coordinate. */
+    private static final int COORD_BITS = 32;
+    /** Sub-pixel steps of a coordinate kept in a sort key. */
+    private static final double KEY_SCALE = 16;
+    /** Offset that keeps every scaled coordinate positive. */
+    private static final long KEY_OFFSET = 1L << 30;
+
+    /** Bumped by every {@link #clear}, so slots from earlier frames are recognised. */
+    private int generation = 0;
+
+    // --- Bloons, in the order added ---
+    private Object[] bloons = new Object[64];
+    private double[] bloonX = new double[64];
+    private double[] bloonY = new double[64];
+    private double[] bloonRadius = new double[64];
+    /** First band each bloon reaches. */
+    private int[] bloonBand = new int[64];
+    private int bloonCount = 0;
+
+    // --- Projectiles, by slot ---
+    private double[] projX = new double[64];
+    private double[] projY = new double[64];
+    /** Hit radius plus the distance the projectile may move before it checks. */
+    private double[] projReach = new double[64];
+    /** First band each projectile reaches. */
+    private int[] projBand = new int[64];
+    private int projCount = 0;
+
+    /** One sort key per band each bloon reaches: band, left edge, bloon index. */
+    private long[] bloonKeys = new long[128];
+    private int bloonKeyCount = 0;
+    /** One sort key per band each projectile reaches: band, left edge, slot. */
+    private long[] projKeys = new long[128];
+    private int projKeyCount = 0;
+    /** Indices of the boxes the sweep has entered in the current band and not yet left. */
+    private int[] activeBloons = new int[16];
+    private int[] activeProjs = new int[16];
+
+    /** Candidate pairs in the order the sweep found them: projectile slot and bloon index. */
+    private int[] pairSlot = new int[256];
+    private int[] pairBloon = new int[256];
+    private int pairCount = 0;
+    /** Bloon index of every pair, grouped by projectile slot. */
+    private int[] candidates = new int[256];
+    /** Per projectile slot, where its candidates start; one extra entry marks the end. */
+    private int[] firstPair = new int[65];
+    /** Per projectile slot, where its next candidate goes while grouping. */
+    private int[] nextCandidate = new int[64];
+
+    /**
+     * Forgets every bloon and projectile, ready for the next frame.
+     */
+    public void clear() {
+        Arrays.fill(bloons, 0, bloonCount, null);
+        bloonCount = 0;
+        projCount = 0;
+        bloonKeyCount = 0;
+        projKeyCount = 0;
+        pairCount = 0;
+        generation++;
+    }
+
+    /** @return a number that changes with every {@link #clear}, to tell which sweep a slot is from */
+    public int getGeneration() {
+        return generation;
+    }
+
+    /** @return number of candidate pairs the last sweep found */
+    public int getPairCount() {
+        return pairCount;
+    }
+
+    /**
+     * Adds a bloon to the next sweep.
+     *
+     * @param bloon  the bloon, handed back by {@link #collect}
+     * @param x      centre x-coordinate
+     * @param y      centre y-coordinate
+     * @param radius hit radius
+     */
+    public void addBloon(B bloon, double x, double y, double radius) {
+        if (bloonCount == bloons.length) {
+            int n = bloonCount * 2;
+            bloons = Arrays.copyOf(bloons, n);
+            bloonX = Arrays.copyOf(bloonX, n);
+            bloonY = Arrays.copyOf(bloonY, n);
+            bloonRadius = Arrays.copyOf(bloonRadius, n);
+            bloonBand = Arrays.copyOf(bloonBand, n);
+        }
+        int i = bloonCount++;
+        bloons[i] = bloon;
+        bloonX[i] = x;
+        bloonY[i] = y;
+        bloonRadius[i] = radius;
+        bloonBand[i] = band(y - radius);
+        for (int band = bloonBand[i], last = band(y + radius); band <= last; band++) {
+            if (bloonKeyCount == bloonKeys.length) bloonKeys = Arrays.copyOf(bloonKeys, bloonKeyCount * 2);
+            bloonKeys[bloonKeyCount++] = key(band, x - radius, i);
+        }
+    }
+
+    /**
+     * Adds a projectile to the next sweep.
+     *
+     * @param x      centre x-coordinate before it moves
+     * @param y      centre y-coordinate before it moves
+     * @param radius hit radius
+     * @param travel how far it may move before it checks for hits
+     * @return its slot, to pass to {@link #collect} together with {@link #getGeneration()}
+     */
+    public int addProjectile(double x, double y, double radius, double travel) {
+        if (projCount == projX.length) {
+            int n = projCount * 2;
+            projX = Arrays.copyOf(projX, n);
+            projY = Arrays.copyOf(projY, n);
+            projReach = Arrays.copyOf(projReach, n);
+            projBand = Arrays.copyOf(projBand, n);
+        }
+        int s = projCount++;
+        double reach = radius + travel;
+        projX[s] = x;
+        projY[s] = y;
+        projReach[s] = reach;
+        projBand[s] = band(y - reach);
+        for (int band = projBand[s], last = band(y + reach); band <= last; band++) {
+            if (projKeyCount == projKeys.length) projKeys = Arrays.copyOf(projKeys, projKeyCount * 2);
+            projKeys[projKeyCount++] = key(band, x - reach, s);
+        }
+        return s;
+    }
+
+    /**
+     * Sorts both sides by band and then by the left edge of their boxes, and records every
+     * pair whose boxes overlap. Call once, after every bloon and projectile of the frame
+     * has been added.
+     */
+    public void sweep() {
+        Arrays.sort(bloonKeys, 0, bloonKeyCount);
+        Arrays.sort(projKeys, 0, projKeyCount);
+
+        // Merge the two sorted lists; each box entering the sweep meets every box of the
+        // other side still open in its band, after dropping those that ended to its left
+        int nb = 0;
+        int np = 0;
+        int band = -1;
+        int b = 0;
+        int p = 0;
+        while (b < bloonKeyCount || p < projKeyCount) {
+            boolean bloonNext = p == projKeyCount
+                    || (b < bloonKeyCount && (bloonKeys[b] >>> INDEX_BITS) <= (projKeys[p] >>> INDEX_BITS));
+            long key = bloonNext ? bloonKeys[b++] : projKeys[p++];
+            int keyBand = (int) (key >>> (INDEX_BITS + COORD_BITS));
+            if (keyBand != band) {
+                band = keyBand;
+                nb = 0;
+                np = 0;
+            }
+            int index = (int) (key & INDEX_MASK);
+            if (bloonNext) {
+                double minX = bloonX[index] - bloonRadius[index];
+                for (int k = 0; k < np; ) {
+                    int s = activeProjs[k];
+                    if (projX[s] + projReach[s] < minX) {
+                        activeProjs[k] = activeProjs[--np];
+                        continue;
+                    }
+                    pairInBand(s, index, band);
+                    k++;
+                }
+                if (nb == activeBloons.length) activeBloons = Arrays.copyOf(activeBloons, nb * 2);
+                activeBloons[nb++] = index;
+            } else {
+                double minX = projX[index] - projReach[index];
+                for (int k = 0; k < nb; ) {
+                    int i = activeBloons[k];
+                    if (bloonX[i] + bloonRadius[i] < minX) {
+                        activeBloons[k] = activeBloons[--nb];
+                        continue;
+                    }
+                    pairInBand(index, i, band);
+                    k++;
+                }
+                if (np == activeProjs.length) activeProjs = Arrays.copyOf(activeProjs, np * 2);
+                activeProjs[np++] = index;
+            }
+        }
+
+        groupPairs();
+    }
+
+    /**
+     * Records a pair whose boxes overlap in x if they also overlap in y, and if this band is
+     * the one holding the top of the overlap, so a pair sharing several bands is kept once.
+     * The top of the overlap is the lower of the two tops, so its band is the later of the
+     * two first bands.
+     */
+    private void pairInBand(int slot, int bloon, int band) {
+        if (pairCount == pairSlot.length) {
+            pairSlot = Arrays.copyOf(pairSlot, pairCount * 2);
+            pairBloon = Arrays.copyOf(pairBloon, pairCount * 2);
+        }
+        // Written either way and kept by advancing the count, which spares the sweep a
+        // badly predicted branch per overlap
+        pairSlot[pairCount] = slot;
+        pairBloon[pairCount] = bloon;
+        boolean keep = Math.max(projBand[slot], bloonBand[bloon]) == band
+                & Math.abs(projY[slot] - bloonY[bloon]) <= projReach[slot] + bloonRadius[bloon];
+        pairCount += keep ? 1 : 0;
+    }
+
+    /**
+     * Counts the pairs per projectile and copies them into {@link #candidates} grouped by
+     * slot, each group in the order the sweep found its pairs.
+     */
+    private void groupPairs() {
+        if (firstPair.length < projCount + 1) {
+            firstPair = new int[projX.length + 1];
+            nextCandidate = new int[projX.length];
+        }
+        if (candidates.length < pairCount) candidates = new int[pairSlot.length];
+        Arrays.fill(firstPair, 0, projCount + 1, 0);
+        for (int k = 0; k < pairCount; k++) firstPair[pairSlot[k] + 1]++;
+        for (int s = 0; s < projCount; s++) {
+            firstPair[s + 1] += firstPair[s];
+            nextCandidate[s] = firstPair[s];
+        }
+        for (int k = 0; k < pairCount; k++) candidates[nextCandidate[pairSlot[k]]++] = pairBloon[k];
+    }
+
+    /**
+     * Collects the bloons a projectile touches: those whose hit circle overlaps its own.
+     *
+     * @param slot       the slot {@link #addProjectile} returned, or {@code -1}
+     * @param generation the {@link #getGeneration()} the slot was taken in; a slot from an
+     *                   earlier sweep is ignored and every bloon is tested instead
+     * @param x          the projectile's current x-coordinate
+     * @param y          the projectile's current y-coordinate
+     * @param radius     its hit radius
+     * @param out        cleared, then filled with the touching bloons; the order depends only
+     *                   on what was added, so runs with the same input hit in the same order
+     */
+    @SuppressWarnings("unchecked")
+    public void collect(int slot, int generation, double x, double y, double radius, List<? super B> out) {
+        out.clear();
+        if (slot >= 0 && slot < projCount && generation == this.generation) {
+            for (int k = firstPair[slot], end = firstPair[slot + 1]; k < end; k++) {
+                int i = candidates[k];
+                if (touches(i, x, y, radius)) out.add((B) bloons[i]);
+            }
+            return;
+        }
+        for (int i = 0; i < bloonCount; i++) {
+            if (touches(i, x, y, radius)) out.add((B) bloons[i]);
+        }
+    }
+
+    /** @return whether a bloon's hit circle overlaps a circle */
+    private boolean touches(int bloon, double x, double y, double radius) {
+        double dx = bloonX[bloon] - x;
+        double dy = bloonY[bloon] - y;
+        double r = bloonRadius[bloon] + radius;
+        return dx * dx + dy * dy < r * r;
+    }
+
+    /** @return the band a y-coordinate falls in, clamped to the bands there are */
+    private static int band(double y) {
+        // Truncating rounds values just above -BAND_HEIGHT up to 0 rather than down to -1;
+        // both are clamped to 0
+        int band = (int) (y / BAND_HEIGHT);
+        return Math.max(0, Math.min(MAX_BAND, band));
+    }
+
+    /** @return a sort key ordering by band, then by {@code x}, then by {@code index} */
+    private static long key(int band, double x, int index) {
+        // Offset first, so truncating rounds down like floor for every x that fits
+        long coord = Math.max(0, Math.min(2 * KEY_OFFSET, (long) (x * KEY_SCALE + KEY_OFFSET)));
+        return ((long) band << (INDEX_BITS + COORD_BITS)) | (coord << INDEX_BITS) | index;
+    }
+}
@@ -0,0 +1,126 @@
+import greenfoot.*;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+/**
+ * Spawns and despawns requested by actors during a frame, applied together by
+ * {@link BloonWorld} at the start of the next world act.
+ * <p>
+ * Popping a bloon, firing, exploding and leaving the screen used to add and remove actors
+ * in the middle of other actors' turns, so every piece of code that held an actor had to
+ * check {@code getWorld() == null} before touching it. Now an actor that is despawned stays
+ * in the world, marked, until the buffer is applied; {@link BloonWorld#liveWorld(Actor)}
+ * tells live actors from marked ones.
+ * </p>
+ *
+ * <p>Key features:</p>
+ * <ul>
+ *   <li>Requests are applied in the order they were made: all spawns, then all despawns.</li>
+ *   <li>Despawning the same actor twice (a bloon hit by two darts) only counts once.</li>
+ *   <li>Arrays are reused from frame to frame; the marked set is an open-addressed
+ *       {@link IdentityHashMap}, so recording a request does not allocate.</li>
+ * </ul>
+ */
+public class CommandBuffer {
+    private Actor[] spawns = new Actor[64];
+    private int[] spawnX = new int[64];
+    private int[] spawnY = new int[64];
+    private int spawnCount = 0;
+    /** Spawns of bloons, so the bloon store can be sized once before they are added. */
+    private int bloonSpawnCount = 0;
+
+    private Actor[] despawns = new Actor[64];
+    private int despawnCount = 0;
+    /** Actors marked for despawn; values are unused. */
+    private final IdentityHashMap<Actor, Boolean> despawning = new IdentityHashMap<>();
+
+    /**
+     * Queues an actor to be added to the world.
+     *
+     * @param actor the actor to add
+     * @param x     x-coordinate
+     * @param y     y-coordinate
+     */
+    public void spawn(Actor actor, int x, int y) {
+        if (spawnCount == spawns.length) {
+            int n = spawnCount * 2;
+            spawns = Arrays.copyOf(spawns, n);
+            spawnX = Arrays.copyOf(spawnX, n);
+            spawnY = Arrays.copyOf(spawnY, n);
+        }
+        spawns[spawnCount] = actor;
+        spawnX[spawnCount] = x;
+        spawnY[spawnCount] = y;
+        spawnCount++;
+        if (actor instanceof Bloon) bloonSpawnCount++;
+    }
+
+    /**
+     * Marks an actor to be removed from the world. Repeated requests are ignored.
+     *
+     * @param actor the actor to remove
+     */
+    public void despawn(Actor actor) {
+        if (despawning.put(actor, Boolean.TRUE) != null) return;
+        if (despawnCount == despawns.length) despawns = Arrays.copyOf(despawns, despawnCount * 2);
+        despawns[despawnCount++] = actor;
+    }
+
+    /**
+     * @param actor the actor to check
+     * @return whether {@code actor} is marked to be removed at the next {@link #apply}
+     */
+    public boolean isDespawning(Actor actor) {
+        return despawnCount != 0 && despawning.containsKey(actor);
+    }
+
+    /** @return number of spawns queued since the buffer was last applied */
+    public int getSpawnCount() {
+        return spawnCount;
+    }
+
+    /**
+     * @param i queue position, from {@code 0} to {@link #getSpawnCount()} - 1
+     * @return the actor queued there
+     */
+    public Actor getSpawn(int i) {
+        return spawns[i];
+    }
+
+    /** @return x-coordinate the {@code i}-th queued actor will be added at */
+    public int getSpawnX(int i) {
+        return spawnX[i];
+    }
+
+    /** @return y-coordinate the {@code i}-th queued actor will be added at */
+    public int getSpawnY(int i) {
+        return spawnY[i];
+    }
+
+    /** @return whether there is nothing to apply */
+    public boolean isEmpty() {
+        return spawnCount == 0 && despawnCount == 0;
+    }
+
+    /**
+     * Applies every queued request to the world and clears the buffer.
+     *
+     * @param world the world to add to and remove from
+     * @param store the world's bloon store, grown once for all queued bloons
+     */
+    public void apply(World world, BloonStore store) {
+        store.ensureCapacity(store.size() + bloonSpawnCount);
+        for (int i = 0; i < spawnCount; i++) {
+            world.addObject(spawns[i], spawnX[i], spawnY[i]);
+            spawns[i] = null;
+        }
+        for (int i = 0; i < despawnCount; i++) {
+            world.removeObject(despawns[i]);
+            despawns[i] = null;
+        }
+        spawnCount = 0;
+        bloonSpawnCount = 0;
+        despawnCount = 0;
+        despawning.clear();
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * Rules for removing actors that can no longer matter, and counts of what they removed.
+ * <p>
+ * The world used to sweep every actor every 300 frames and remove whatever had drifted far
+ * off-screen, so a dart whose target popped kept flying, acting and testing collisions for
+ * up to five seconds. Projectiles now check these rules each time they move and are culled
+ * on the frame they break one. {@link BloonWorld} and {@link HeadlessSimulation} share the
+ * rules and keep one of these each to count culls by reason.
+ * </p>
+ *
+ * <p>Key features:</p>
+ * <ul>
+ *   <li>Out of bounds: more than {@link #MARGIN} pixels past any edge of the playfield.</li>
+ *   <li>Range: flew further than its {@link ProjectileType} allows.</li>
+ *   <li>Lifetime: in flight for more frames than its {@link ProjectileType} allows.</li>
+ * </ul>
+ */
+public class Culling {
+    /** Why an actor was culled. */
+    public enum Reason {
+        /** Left the playfield plus {@link #MARGIN}. */
+        OUT_OF_BOUNDS,
+        /** Travelled its projectile type's full range. */
+        RANGE,
+        /** Outlived its projectile type's lifetime. */
+        LIFETIME
+    }
+
+    /** How far past an edge of the playfield an actor may go before it is culled. */
+    public static final int MARGIN = 200;
+
+    private static final Reason[] REASONS = Reason.values();
+
+    private final long[] counts = new long[REASONS.length];
+
+    /**
+     * @param x      x-coordinate
+     * @param y      y-coordinate
+     * @param width  playfield width
+     * @param height playfield height
+     * @return whether the point is further than {@link #MARGIN} past an edge
+     */
+    public static boolean isOutside(int x, int y, int width, int height) {
+        return x < -MARGIN || x > width + MARGIN || y < -MARGIN || y > height + MARGIN;
+    }
+
+    /**
+     * Checks a projectile against every rule, in the order of {@link Reason}.
+     *
+     * @param type      the projectile's type, for its range and lifetime
+     * @param x         x-coordinate
+     * @param y         y-coordinate
+     * @param width     playfield width
+     * @param height    playfield height
+     * @param travelled pixels flown since it was fired
+     * @param age       frames since it was fired
+     * @return the first rule it breaks, or {@code null} if it may keep flying
+     */
+    public static Reason check(ProjectileType type, int x, int y, int width, int height,
+                               int travelled, int age) {
+        if (isOutside(x, y, width, height)) return Reason.OUT_OF_BOUNDS;
+        if (travelled > type.getRange()) return Reason.RANGE;
+        if (age > type.getLifetime()) return Reason.LIFETIME;
+        return null;
+    }
+
+    /**
+     * Counts one culled actor.
+     *
+     * @param reason why it was culled
+     */
+    public void record(Reason reason) {
+        counts[reason.ordinal()]++;
+    }
+
+    /** @return actors culled for {@code reason} so far */
+    public long getCount(Reason reason) {
+        return counts[reason.ordinal()];
+    }
+
+    /** @return actors culled for any reason so far */
+    public long getTotal() {
+        long total = 0;
+        for (long c : counts) total += c;
+        return total;
+    }
+
+    /** @return the counts as {@code reason=count} pairs, e.g. for a log line */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Reason r : REASONS) {
+            if (sb.length() > 0) sb.append(' ');
+            sb.append(r).append('=').append(counts[r.ordinal()]);
+        }
+        return sb.toString();
+    }
+}
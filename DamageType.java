@@ -1,3 +1,33 @@
+/**
+ * Kinds of damage a bloon can be hit with. Each kind has its own bit, so a set of
+ * immunities fits in one {@code int} mask (see {@link BloonType#getImmunityMask()}).
+ */
 public enum DamageType {
-    NORMAL, SHARP, EXPLOSIVE, MAGIC, ICE
+    NORMAL, SHARP, EXPLOSIVE, MAGIC, ICE;
+
+    /** This type's bit in an immunity mask. */
+    private final int bit = 1 << ordinal();
+
+    /** @return this type's bit in an immunity mask */
+    public int bit() {
+        return bit;
+    }
+
+    /**
+     * @param types damage types to include
+     * @return a mask with the bit of every given type set
+     */
+    public static int maskOf(DamageType... types) {
+        int mask = 0;
+        for (DamageType t : types) mask |= t.bit;
+        return mask;
+    }
+
+    /**
+     * @param types damage types to leave out
+     * @return a mask with the bit of every type except the given ones set
+     */
+    public static int allExcept(DamageType... types) {
+        return ((1 << values().length) - 1) & ~maskOf(types);
+    }
 }
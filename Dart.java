@@ -4,19 +4,17 @@ public class Dart extends Projectile {
 
     public Dart(Monkey source, Bloon target) {
         super(source, target);
-        setImage("Dart.png");
+        setImage(ProjectileType.DART.getSprite().get());
     }
 
     @Override
     protected void checkCollision() {
-        if (getWorld() == null) return;
+        if (BloonWorld.liveWorld(this) == null) return;
 
-        Bloon b = (Bloon) getOneIntersectingObject(Bloon.class);
+        Bloon b = getHitBloon();
         if (b != null) {
             b.takeDamage(1, DamageType.NORMAL);
-            if (getWorld() != null) {
-                getWorld().removeObject(this);  
-            }
+            despawn();
         }
     }
 }
@@ -0,0 +1,331 @@
+import greenfoot.*;
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.util.Arrays;
+
+/**
+ * Draws every pop, blood splash and explosion in the world from one actor.
+ * <p>
+ * Each of these used to be its own actor, so a bomb going off in a dense pack added dozens
+ * of actors at once, every one of them acted, z-sorted and painted by Greenfoot on its own.
+ * The renderer instead keeps a pooled record per effect (kind, position, frames, frame and
+ * timer), advances them all in one loop from {@link BloonWorld#act()}, and draws them onto a
+ * single image. Greenfoot only ever sees one actor, painted above everything else but the
+ * profiler overlay.
+ * </p>
+ * <p>
+ * The image only covers the running effects: it is sized to their bounding box, rounded up
+ * so it need not be reallocated every time the box changes, and the actor is moved to sit
+ * over it. With no effects running the actor has no image at all. Between reallocations only
+ * the areas of effects that started, changed image or finished are cleared and redrawn.
+ * </p>
+ *
+ * <p>Key features:</p>
+ * <ul>
+ *   <li>Records are parallel arrays reused from frame to frame; spawning allocates nothing.</li>
+ *   <li>An effect spawned on top of one of the same kind, in the same frame, is merged
+ *       into it: one effect drawn and one sound played for the pair.</li>
+ *   <li>Nothing is composited while no effect is running, and nothing is redrawn on frames
+ *       where no effect changed.</li>
+ *   <li>Ice blasts stay actors, since they damage and freeze bloons.</li>
+ * </ul>
+ */
+public class EffectRenderer extends Actor {
+    /** Kinds of effect, each with its sound and how many frames each image is shown for. */
+    public enum Kind {
+        POP(SoundManager.Clip.POP, 20, 6),
+        BLOOD(SoundManager.Clip.HIT, 50, 2),
+        EXPLOSION(SoundManager.Clip.EXPLOSION, 80, 2);
+
+        private final SoundManager.Clip clip;
+        private final int volume;
+        private final int frameDelay;
+
+        Kind(SoundManager.Clip clip, int volume, int frameDelay) {
+            this.clip = clip;
+            this.volume = volume;
+            this.frameDelay = frameDelay;
+        }
+    }
+
+    /** Blood splash shown when a monkey dies. */
+    public static final SpriteCache.Animation BLOOD = SpriteCache.animation("blood/Blood", 15, 1);
+    /** Pop burst shown when a bloon is destroyed, as a one-frame sequence. */
+    private static final GreenfootImage[] POP_FRAMES = { SpriteCache.POP.get() };
+    private static final Kind[] KINDS = Kind.values();
+    /** Canvas sizes are rounded up to a multiple of this, so small changes reuse the image. */
+    private static final int CANVAS_STEP = 64;
+
+    /** Everything drawn this frame, or {@code null} while no effect is running. */
+    private GreenfootImage canvas;
+    /** World coordinates of the canvas's top-left corner. */
+    private int canvasLeft, canvasTop;
+    /** Areas to redraw: left, top, right and bottom in world coordinates, four entries each. */
+    private int[] damage = new int[64];
+    private int damageCount = 0;
+    /** World acts so far; effects spawned between the same two acts may merge. */
+    private int frame = 0;
+
+    // --- Per-record state ---
+    private int count = 0;
+    private byte[] kind = new byte[64];
+    private GreenfootImage[][] frames = new GreenfootImage[64][];
+    private int[] x = new int[64];
+    private int[] y = new int[64];
+    /** Index of the image currently shown. */
+    private int[] current = new int[64];
+    /** World acts since the image last changed. */
+    private int[] timer = new int[64];
+    /** Value of {@link #frame} when the effect was spawned. */
+    private int[] born = new int[64];
+
+    /**
+     * Creates a renderer with nothing to draw. It moves itself over its effects, so it can
+     * be added anywhere.
+     */
+    public EffectRenderer() {
+        setImage((GreenfootImage) null);
+    }
+
+    /**
+     * Returns the shared frames for an explosion of a given radius, scaled by
+     * {@code radius / 100} of their natural size (at least half).
+     *
+     * @param radius the radius of the explosion
+     * @return the animation handle
+     */
+    public static SpriteCache.Animation explosion(int radius) {
+        return SpriteCache.animation("explosion/explosion", 7, Math.max(0.5, radius / 100.0));
+    }
+
+    /**
+     * Shows a pop burst.
+     *
+     * @param px x-coordinate of its centre
+     * @param py y-coordinate of its centre
+     */
+    public void pop(int px, int py) {
+        spawn(Kind.POP, POP_FRAMES, px, py);
+    }
+
+    /**
+     * Shows a blood splash.
+     *
+     * @param px x-coordinate of its centre
+     * @param py y-coordinate of its centre
+     */
+    public void blood(int px, int py) {
+        spawn(Kind.BLOOD, BLOOD.getFrames(), px, py);
+    }
+
+    /**
+     * Shows an explosion sized for its blast radius.
+     *
+     * @param px     x-coordinate of its centre
+     * @param py     y-coordinate of its centre
+     * @param radius the radius of the blast
+     */
+    public void explosion(int px, int py, int radius) {
+        spawn(Kind.EXPLOSION, explosion(radius).getFrames(), px, py);
+    }
+
+    /** @return number of effects running */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Drops every running effect, e.g. between benchmark runs.
+     */
+    public void clear() {
+        for (int i = 0; i < count; i++) frames[i] = null;
+        count = 0;
+        damageCount = 0;
+        dropCanvas();
+    }
+
+    /**
+     * Advances every effect by one frame, drops the finished ones and redraws the rest.
+     * Called once per world act.
+     */
+    public void update() {
+        frame++;
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            if (++timer[i] >= KINDS[kind[i]].frameDelay) {
+                timer[i] = 0;
+                damage(frames[i][current[i]], x[i], y[i]);
+                if (++current[i] >= frames[i].length) continue;
+                damage(frames[i][current[i]], x[i], y[i]);
+            }
+            if (kept != i) copy(i, kept);
+            kept++;
+        }
+        for (int i = kept; i < count; i++) frames[i] = null;
+        count = kept;
+        redraw();
+    }
+
+    /**
+     * Adds an effect, or merges it into one of the same kind and size spawned this frame
+     * that it mostly covers.
+     */
+    private void spawn(Kind k, GreenfootImage[] sequence, int px, int py) {
+        GreenfootImage first = sequence[0];
+        int halfW = first.getWidth() / 2;
+        int halfH = first.getHeight() / 2;
+        for (int i = count - 1; i >= 0 && born[i] == frame; i--) {
+            if (frames[i] == sequence && kind[i] == k.ordinal()
+                    && Math.abs(x[i] - px) < halfW && Math.abs(y[i] - py) < halfH) {
+                return;
+            }
+        }
+
+        if (count == kind.length) grow();
+        int i = count++;
+        kind[i] = (byte) k.ordinal();
+        frames[i] = sequence;
+        x[i] = px;
+        y[i] = py;
+        current[i] = 0;
+        timer[i] = 0;
+        born[i] = frame;
+        damage(first, px, py);
+        SoundManager.play(k.clip, k.volume);
+    }
+
+    /** Marks the area an image centred on a point covers as needing a redraw. */
+    private void damage(GreenfootImage img, int cx, int cy) {
+        if (damageCount * 4 == damage.length) damage = Arrays.copyOf(damage, damage.length * 2);
+        int left = cx - img.getWidth() / 2;
+        int top = cy - img.getHeight() / 2;
+        damage[damageCount * 4] = left;
+        damage[damageCount * 4 + 1] = top;
+        damage[damageCount * 4 + 2] = left + img.getWidth();
+        damage[damageCount * 4 + 3] = top + img.getHeight();
+        damageCount++;
+    }
+
+    /**
+     * Brings the canvas up to date. If the effects no longer fit on it, or it has become
+     * far larger than they need, a canvas fitted to them is placed and fully drawn.
+     * Otherwise only the damaged areas are cleared and redrawn.
+     */
+    private void redraw() {
+        if (count == 0) {
+            damageCount = 0;
+            dropCanvas();
+            return;
+        }
+        if (canvas == null && damageCount == 0) return;
+
+        int left = Integer.MAX_VALUE, top = Integer.MAX_VALUE;
+        int right = Integer.MIN_VALUE, bottom = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            GreenfootImage img = frames[i][current[i]];
+            int l = x[i] - img.getWidth() / 2;
+            int t = y[i] - img.getHeight() / 2;
+            left = Math.min(left, l);
+            top = Math.min(top, t);
+            right = Math.max(right, l + img.getWidth());
+            bottom = Math.max(bottom, t + img.getHeight());
+        }
+        // Nothing past the edge of the world is ever seen
+        World world = getWorld();
+        if (world != null) {
+            left = Math.max(left, 0);
+            top = Math.max(top, 0);
+            right = Math.min(right, world.getWidth());
+            bottom = Math.min(bottom, world.getHeight());
+        }
+        int width = roundUp(right - left);
+        int height = roundUp(bottom - top);
+
+        boolean fits = canvas != null
+                && left >= canvasLeft && top >= canvasTop
+                && right <= canvasLeft + canvas.getWidth() && bottom <= canvasTop + canvas.getHeight()
+                && canvas.getWidth() * canvas.getHeight() <= 4 * width * height;
+        if (!fits) {
+            if (canvas == null || canvas.getWidth() != width || canvas.getHeight() != height) {
+                canvas = new GreenfootImage(width, height);
+                setImage(canvas);
+            } else {
+                canvas.clear();
+            }
+            canvasLeft = left;
+            canvasTop = top;
+            // Both sizes are even, so the image is centred exactly on the actor
+            setLocation(left + width / 2, top + height / 2);
+            damageCount = 0;
+            Graphics2D g = canvas.getAwtImage().createGraphics();
+            drawEffects(g, left, top, left + width, top + height);
+            g.dispose();
+            return;
+        }
+
+        if (damageCount == 0) return;
+        Graphics2D g = canvas.getAwtImage().createGraphics();
+        for (int d = 0; d < damageCount; d++) {
+            int l = Math.max(damage[d * 4], canvasLeft);
+            int t = Math.max(damage[d * 4 + 1], canvasTop);
+            int r = Math.min(damage[d * 4 + 2], canvasLeft + canvas.getWidth());
+            int b = Math.min(damage[d * 4 + 3], canvasTop + canvas.getHeight());
+            if (l >= r || t >= b) continue;
+            g.setComposite(AlphaComposite.Clear);
+            g.fillRect(l - canvasLeft, t - canvasTop, r - l, b - t);
+            g.setComposite(AlphaComposite.SrcOver);
+            drawEffects(g, l, t, r, b);
+        }
+        g.dispose();
+        damageCount = 0;
+    }
+
+    /**
+     * Draws, clipped to an area, every running effect that reaches into it, in spawn order
+     * with the oldest at the back.
+     */
+    private void drawEffects(Graphics2D g, int left, int top, int right, int bottom) {
+        g.setClip(left - canvasLeft, top - canvasTop, right - left, bottom - top);
+        for (int i = 0; i < count; i++) {
+            GreenfootImage img = frames[i][current[i]];
+            int l = x[i] - img.getWidth() / 2;
+            int t = y[i] - img.getHeight() / 2;
+            if (l >= right || t >= bottom || l + img.getWidth() <= left || t + img.getHeight() <= top) continue;
+            g.drawImage(img.getAwtImage(), l - canvasLeft, t - canvasTop, null);
+        }
+        g.setClip(null);
+    }
+
+    /** Takes the canvas away, so Greenfoot has nothing of this actor to paint. */
+    private void dropCanvas() {
+        if (canvas == null) return;
+        canvas = null;
+        setImage((GreenfootImage) null);
+    }
+
+    /** @return {@code n} rounded up to a whole number of {@link #CANVAS_STEP}s */
+    private static int roundUp(int n) {
+        return Math.max(1, (n + CANVAS_STEP - 1) / CANVAS_STEP) * CANVAS_STEP;
+    }
+
+    private void copy(int from, int to) {
+        kind[to] = kind[from];
+        frames[to] = frames[from];
+        x[to] = x[from];
+        y[to] = y[from];
+        current[to] = current[from];
+        timer[to] = timer[from];
+        born[to] = born[from];
+    }
+
+    private void grow() {
+        int n = kind.length * 2;
+        kind = Arrays.copyOf(kind, n);
+        frames = Arrays.copyOf(frames, n);
+        x = Arrays.copyOf(x, n);
+        y = Arrays.copyOf(y, n);
+        current = Arrays.copyOf(current, n);
+        timer = Arrays.copyOf(timer, n);
+        born = Arrays.copyOf(born, n);
+    }
+}
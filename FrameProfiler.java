@@ -0,0 +1,261 @@
+import greenfoot.*;
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Times every phase of a frame so stutters can be traced to the code that caused them.
+ * <p>
+ * {@link BloonWorld#act()} times its own phases (queued commands, bloon update, grid rebuild,
+ * effects, spawning, collision sweep, paint order) and each actor category (monkeys,
+ * projectiles, ice blasts under effects) times its {@code act()}, all with
+ * {@link System#nanoTime()}. Two phases are timed inside others: {@code TRAFFIC} is part of
+ * {@code BLOONS}, and {@code COLLISION} is part of {@code PROJECTILES}. The total frame time
+ * is measured from one world act to the next, so it also covers Greenfoot's own work such as
+ * painting.
+ * </p>
+ *
+ * <p>Key features:</p>
+ * <ul>
+ *   <li>Rolling p50/p95/p99 over the last {@link #WINDOW} frames, per phase.</li>
+ *   <li>Live actor counts per class.</li>
+ *   <li>An on-screen overlay ({@link ProfilerOverlay}) and a per-frame CSV stream.</li>
+ *   <li>Nested sections of the same phase (e.g. {@code IceMonkey.act} calling
+ *       {@code Monkey.act}) are only counted once.</li>
+ *   <li>When neither the overlay nor the CSV is on, every call returns immediately.</li>
+ * </ul>
+ */
+public final class FrameProfiler {
+    /** A timed part of the frame. */
+    public enum Phase {
+        /** Whole frame, from one world act to the next. */
+        FRAME,
+        /** Spawns and despawns queued by actors last frame. */
+        COMMANDS,
+        /** Bloon grid rebuild. */
+        GRID,
+        /** Collision broadphase: sorting bloons and projectiles into candidate pairs. */
+        SWEEP,
+        /** Spawn schedule: bloons, monkeys and the random ice blast. */
+        SPAWN,
+        /** Paint-order update. */
+        Z_ORDER,
+        /** Every monkey's act. */
+        MONKEYS,
+        /** Every projectile's act. */
+        PROJECTILES,
+        /** Projectile collision checks, part of {@link #PROJECTILES}. */
+        COLLISION,
+        /** Bloon store update: thawing, traffic, movement and contact. */
+        BLOONS,
+        /** Serial merge of lane changes, contact damage and leaks, part of {@link #BLOONS}. */
+        TRAFFIC,
+        /** Effect renderer update, plus every ice blast's act. */
+        EFFECTS
+    }
+
+    /** Number of recent frames the percentiles are taken over. */
+    public static final int WINDOW = 600;
+
+    private static final Phase[] PHASES = Phase.values();
+    private static final int PHASE_COUNT = PHASES.length;
+
+    private static boolean enabled = false;
+    /** Time spent in each phase during the current frame. */
+    private static final long[] current = new long[PHASE_COUNT];
+    /** Whether a phase is currently being timed, so nested sections are skipped. */
+    private static final boolean[] open = new boolean[PHASE_COUNT];
+    /** Ring buffer of the last {@link #WINDOW} frames, per phase. */
+    private static final long[][] history = new long[PHASE_COUNT][WINDOW];
+    /** Scratch copy used to sort a window for percentiles. */
+    private static final long[] sortBuffer = new long[WINDOW];
+    private static int historySize = 0;
+    private static int historyPos = 0;
+    private static long frameStart = -1;
+    private static long frameCount = 0;
+    /** Live actors per class, counted once per frame. */
+    private static final Map<Class<?>, int[]> classCounts = new HashMap<>();
+
+    private static BufferedWriter csv;
+
+    private FrameProfiler() {
+    }
+
+    /**
+     * Starts timing a phase.
+     *
+     * @param phase the phase being entered
+     * @return the start time to pass to {@link #exit}, or {@code -1} if profiling is off
+     *         or the phase is already being timed
+     */
+    public static long enter(Phase phase) {
+        if (!enabled || open[phase.ordinal()]) return -1;
+        open[phase.ordinal()] = true;
+        return System.nanoTime();
+    }
+
+    /**
+     * Stops timing a phase and adds the elapsed time to the current frame.
+     *
+     * @param phase the phase being left
+     * @param start the value returned by the matching {@link #enter}
+     */
+    public static void exit(Phase phase, long start) {
+        if (start < 0) return;
+        current[phase.ordinal()] += System.nanoTime() - start;
+        open[phase.ordinal()] = false;
+    }
+
+    /**
+     * Closes the previous frame and starts a new one. Called first thing in every world act.
+     *
+     * @param world          the world being profiled, for actor counts
+     * @param simulationTime the simulation clock, written to the CSV
+     */
+    public static void beginFrame(World world, int simulationTime) {
+        if (!enabled) return;
+        long now = System.nanoTime();
+        if (frameStart >= 0) {
+            current[Phase.FRAME.ordinal()] = now - frameStart;
+            countActors(world);
+            record();
+            if (csv != null) writeCsvRow(simulationTime);
+        }
+        Arrays.fill(current, 0);
+        frameStart = now;
+    }
+
+    /**
+     * Turns timing on or off. Turning it off also closes any CSV stream.
+     *
+     * @param on whether phases should be timed
+     */
+    public static void setEnabled(boolean on) {
+        if (!on) stopCsv();
+        enabled = on;
+        frameStart = -1;
+        Arrays.fill(open, false);
+    }
+
+    /** @return whether phases are currently being timed */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts streaming one CSV row per frame to a file, replacing any current stream.
+     * Enables profiling if needed.
+     *
+     * @param file the file to write
+     * @throws IOException if the file cannot be opened
+     */
+    public static void startCsv(String file) throws IOException {
+        stopCsv();
+        csv = new BufferedWriter(new FileWriter(file));
+        StringBuilder header = new StringBuilder("frame,simulationTime");
+        for (Phase p : PHASES) header.append(',').append(p.name().toLowerCase()).append("_ns");
+        header.append(",bloons,monkeys,projectiles,classCounts");
+        csv.write(header.toString());
+        csv.newLine();
+        if (!enabled) setEnabled(true);
+    }
+
+    /** Flushes and closes the CSV stream, if one is open. */
+    public static void stopCsv() {
+        if (csv == null) return;
+        try {
+            csv.close();
+        } catch (IOException e) {
+            // Nothing useful to do; the file is simply cut short
+        }
+        csv = null;
+    }
+
+    /** @return whether a CSV stream is open */
+    public static boolean isCsvActive() {
+        return csv != null;
+    }
+
+    /**
+     * Returns a percentile of a phase's time over the recent window.
+     *
+     * @param phase      the phase
+     * @param percentile from {@code 0} to {@code 100}
+     * @return the time in nanoseconds, or {@code 0} before the first full frame
+     */
+    public static long percentile(Phase phase, double percentile) {
+        if (historySize == 0) return 0;
+        System.arraycopy(history[phase.ordinal()], 0, sortBuffer, 0, historySize);
+        Arrays.sort(sortBuffer, 0, historySize);
+        int i = (int) Math.ceil(percentile / 100.0 * historySize) - 1;
+        return sortBuffer[Math.max(0, Math.min(historySize - 1, i))];
+    }
+
+    /** @return frames recorded since profiling was enabled */
+    public static long getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * Returns the live actor count per class from the last frame, largest first.
+     *
+     * @return a new array of {@code "ClassName=count"} entries
+     */
+    public static String[] getClassCounts() {
+        return classCounts.entrySet().stream()
+            .filter(e -> e.getValue()[0] > 0)
+            .sorted((a, b) -> Integer.compare(b.getValue()[0], a.getValue()[0]))
+            .map(e -> e.getKey().getSimpleName() + "=" + e.getValue()[0])
+            .toArray(String[]::new);
+    }
+
+    private static void countActors(World world) {
+        for (int[] c : classCounts.values()) c[0] = 0;
+        List<Actor> all = world.getObjects(null);
+        for (Actor a : all) {
+            int[] c = classCounts.get(a.getClass());
+            if (c == null) {
+                c = new int[1];
+                classCounts.put(a.getClass(), c);
+            }
+            c[0]++;
+        }
+    }
+
+    private static int countOf(Class<?> base) {
+        int n = 0;
+        for (Map.Entry<Class<?>, int[]> e : classCounts.entrySet()) {
+            if (base.isAssignableFrom(e.getKey())) n += e.getValue()[0];
+        }
+        return n;
+    }
+
+    private static void record() {
+        for (int i = 0; i < PHASE_COUNT; i++) {
+            history[i][historyPos] = current[i];
+        }
+        historyPos = (historyPos + 1) % WINDOW;
+        if (historySize < WINDOW) historySize++;
+        frameCount++;
+    }
+
+    private static void writeCsvRow(int simulationTime) {
+        StringBuilder row = new StringBuilder();
+        row.append(frameCount).append(',').append(simulationTime);
+        for (int i = 0; i < PHASE_COUNT; i++) row.append(',').append(current[i]);
+        row.append(',').append(countOf(Bloon.class))
+           .append(',').append(countOf(Monkey.class))
+           .append(',').append(countOf(Projectile.class))
+           .append(',').append(String.join(";", getClassCounts()));
+        try {
+            csv.write(row.toString());
+            csv.newLine();
+        } catch (IOException e) {
+            stopCsv();
+        }
+    }
+}
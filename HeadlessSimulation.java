@@ -0,0 +1,963 @@
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Runs the bloon simulation without Greenfoot, as fast as the CPU allows, with a fixed timestep.
+ * <p>
+ * The GUI drives every rule from {@code act()} methods, so it only runs at the display frame
+ * rate and needs a window. This engine keeps its own lightweight bloons, monkeys, projectiles
+ * and ice blasts as plain objects and advances them one tick (one GUI frame) at a time. It
+ * uses the same {@link SpawnDirector} schedule and the same {@link BloonType},
+ * {@link MonkeyType} and {@link ProjectileType} tables as the actors, and shares or mirrors
+ * their rules:
+ * </p>
+ * <ul>
+ *   <li>Traffic: a bloon slows down when the bloon {@link LaneIndex} finds ahead of it is a
+ *       Moab, then tries to change to a free lane, in the same phases as {@link BloonStore}.</li>
+ *   <li>Targeting: monkeys stop when bloons are ahead and fire at the nearest one in range.</li>
+ *   <li>Pierce, homing and boomerang return flights, per projectile type.</li>
+ *   <li>Immunities and who can be frozen, from {@link BloonType#ignores} and
+ *       {@link BloonType#canFreeze}.</li>
+ *   <li>Pops, leftover damage and inherited freeze, walked by a {@link PopCascade}.</li>
+ *   <li>Freeze from Ice Monkeys and the random fullscreen ice blast.</li>
+ * </ul>
+ *
+ * <p>Range, nearest-bloon and look-ahead queries search a uniform grid of the live bloons,
+ * the counterpart of {@link BloonGrid}, instead of testing every bloon.</p>
+ *
+ * <p>Greenfoot's act order is replaced by a fixed phase order per tick: spawn schedule,
+ * monkeys, projectiles, bloons, ice blasts. Entities created during a phase
+ * first act on the next tick. Projectiles hit bloons through the same {@link CollisionSweep},
+ * swept once the monkeys have acted. The children of popped bloons are held back and added
+ * at the end of the tick, the way the GUI's {@link CommandBuffer} adds them at the start of
+ * the next frame: until then nothing can hit them, and an ice blast only freezes those held
+ * back within its radius, as {@link IceBlastEffect} does with the queued ones. Other contacts use axis-aligned sprite boxes (rotation ignored)
+ * and positions are kept as doubles, so runs track the GUI closely but not pixel for pixel.</p>
+ *
+ * <p>Usage: {@code java HeadlessSimulation [ticks] [statsFile] [seed]}. Without a stats file
+ * (or with {@code -}) the summary is printed to standard output. Without a seed a random one
+ * is picked; it is part of the summary, and running again with it reproduces the run exactly.</p>
+ *
+ * <p>A fourth argument records the run's spawn decisions to a replay log.
+ * {@code java HeadlessSimulation replay <log> [statsFile]} plays back a log recorded here or by
+ * a {@link BloonWorld} to its last frame instead of running the schedule.</p>
+ *
+ * <p>Each run can be given its own {@link SimulationConfig} in place of the table values for
+ * fire rates, ranges, health and the bloon tier ladder; {@link ParameterSweep} runs many
+ * such runs in parallel.</p>
+ */
+public class HeadlessSimulation implements SpawnDirector.Host {
+    /** World size, matching {@link BloonWorld}. */
+    public static final int WIDTH = 1024;
+    public static final int HEIGHT = 800;
+    /** One hour of game time at 60 ticks per second. */
+    public static final int DEFAULT_TICKS = 60 * 60 * 60;
+
+    // --- Layout, matching BloonWorld.prepareLanes ---
+    private static final int LANE_TOP = 232;
+    private static final int LANE_HEIGHT = 64;
+    private static final int LANE_SPACING = 6;
+    private static final int SIDEWALK_DEPTH = 60;
+    private static final int SPAWNER_HALF_W = BloonSpawner.DIST_BETWEEN_BLOONS / 2;
+    private static final int SPAWNER_HALF_H = (int) (LANE_HEIGHT * 0.75) / 2;
+    // --- Rules, matching the actor classes ---
+    private static final int TRAFFIC_LOOK_AHEAD = 100;
+    private static final double LANE_CHANGE_SPEED = 2.0;
+    private static final int MONKEY_LOOK_DISTANCE = 800;
+    private static final int MONKEY_CHECK_WIDTH = 150;
+    private static final int CONTACT_COOLDOWN = 30;
+    private static final int ICE_BLAST_LIFETIME = 16;
+
+    private final int[] lanes = new int[SpawnDirector.LANE_COUNT];
+    private final int monkeyTopY;
+    private final int monkeyBottomY;
+
+    /** Balance parameters of this run. */
+    private final SimulationConfig config;
+    private SpawnDirector director;
+    /** Recorded session replacing the director, or {@code null} to run the schedule. */
+    private ReplayPlayer replay;
+    /** Log of the director's decisions, or {@code null} if not recording. */
+    private ReplayRecorder recorder;
+    private final SimulationStats stats = new SimulationStats();
+    private final List<SimBloon> bloons = new ArrayList<>();
+    private final List<SimMonkey> monkeys = new ArrayList<>();
+    private final List<SimProjectile> projectiles = new ArrayList<>();
+    private final List<SimBlast> blasts = new ArrayList<>();
+    /** Reusable buffer for area-of-effect queries. */
+    private final List<SimBloon> queryBuffer = new ArrayList<>();
+    /** Candidate projectile&ndash;bloon pairs, swept once per tick before projectiles act. */
+    private final CollisionSweep<SimBloon> collisionSweep = new CollisionSweep<>();
+    /** Reusable buffer for the bloons one projectile touches. */
+    private final List<SimBloon> touching = new ArrayList<>();
+    /** Live bloons by cell, for range and look-ahead queries. */
+    private final SimGrid grid = new SimGrid(WIDTH, HEIGHT);
+    /** Walks the tier tree of popped bloons, with this run's bloon health. */
+    private final PopCascade popCascade;
+
+    /** Bloons of each lane sorted by x, for traffic and the spawn mouths, as in {@link BloonStore}. */
+    private final LaneIndex laneIndex = new LaneIndex();
+    /** Whether bloons were added or removed since {@link #laneIndex} was built. */
+    private boolean indexDirty = true;
+    // --- Slots of the lane index: each bloon with its position, tier and speed when it was built ---
+    private SimBloon[] indexed = new SimBloon[256];
+    private double[] indexX = new double[256];
+    private double[] indexY = new double[256];
+    private byte[] indexTier = new byte[256];
+    private double[] indexSpeed = new double[256];
+    private int indexCount = 0;
+    /** Children of bloons popped this tick, added at the end of it. */
+    private final List<SimBloon> popped = new ArrayList<>();
+    /** Bloons that found a Moab ahead this tick, trying a lane change once every bloon moved. */
+    private final List<SimBloon> blocked = new ArrayList<>();
+
+    /**
+     * Creates an empty simulation at tick zero, with the balance of the type tables.
+     *
+     * @param seed seed for every random decision
+     */
+    public HeadlessSimulation(long seed) {
+        this(seed, new SimulationConfig());
+    }
+
+    /**
+     * Creates an empty simulation at tick zero with its own balance parameters.
+     *
+     * @param seed   seed for every random decision
+     * @param config balance parameters; not copied, so do not change it while the run is going
+     */
+    public HeadlessSimulation(long seed, SimulationConfig config) {
+        this.config = config;
+        popCascade = new PopCascade(config::getHealth);
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = LANE_TOP + LANE_SPACING + i * (LANE_HEIGHT + LANE_SPACING) + LANE_HEIGHT / 2;
+        }
+        int sidewalkTopEnd = LANE_TOP - 10;
+        int sidewalkBottomStart = lanes[lanes.length - 1] + LANE_HEIGHT / 2 + 10;
+        monkeyTopY = sidewalkTopEnd - SIDEWALK_DEPTH;
+        monkeyBottomY = sidewalkBottomStart + SIDEWALK_DEPTH;
+        director = new SpawnDirector(this, seed, WIDTH, config.getSchedule());
+        director.setLadderScale(config.getLadderScale());
+        stats.setSeed(seed);
+    }
+
+    /**
+     * Runs a simulation and writes its summary.
+     *
+     * @param args optional tick count, output file, seed and replay log to record;
+     *             or {@code replay}, a replay log and an optional output file
+     * @throws IOException if the summary cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        HeadlessSimulation sim;
+        String statsFile;
+        if (args.length > 1 && args[0].equals("replay")) {
+            sim = replay(ReplayPlayer.open(Paths.get(args[1])));
+            sim.runReplay();
+            statsFile = args.length > 2 ? args[2] : "-";
+        } else {
+            int ticks = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_TICKS;
+            long seed = args.length > 2 ? Long.parseLong(args[2]) : new Random().nextLong();
+            sim = new HeadlessSimulation(seed);
+            if (args.length > 3) sim.record(Paths.get(args[3]));
+            sim.run(ticks);
+            sim.stopRecording();
+            statsFile = args.length > 1 ? args[1] : "-";
+        }
+
+        if (!statsFile.equals("-")) {
+            try (PrintWriter out = new PrintWriter(new FileWriter(statsFile))) {
+                sim.getStats().write(out);
+            }
+        } else {
+            sim.getStats().write(new PrintWriter(System.out));
+        }
+    }
+
+    /**
+     * Advances the simulation by a number of ticks and records the wall-clock time taken.
+     *
+     * @param ticks number of ticks to run
+     */
+    public void run(int ticks) {
+        long start = System.nanoTime();
+        for (int i = 0; i < ticks; i++) {
+            tick();
+        }
+        stats.setWallNanos(System.nanoTime() - start);
+    }
+
+    /**
+     * Creates a simulation that plays back a recorded session instead of running the
+     * spawn schedule.
+     *
+     * @param player the recorded session, positioned before its first frame
+     * @return the simulation at tick zero
+     */
+    public static HeadlessSimulation replay(ReplayPlayer player) {
+        HeadlessSimulation sim = new HeadlessSimulation(player.getSeed());
+        sim.replay = player;
+        return sim;
+    }
+
+    /**
+     * Starts recording the director's decisions to a replay log. Only possible before
+     * the first tick.
+     *
+     * @param file where to write the log
+     * @throws IOException if the file cannot be created
+     */
+    public void record(Path file) throws IOException {
+        if (stats.getTicks() != 0 || replay != null) {
+            throw new IllegalStateException("Recording must start at tick zero of a live run");
+        }
+        long seed = director.getSeed();
+        recorder = new ReplayRecorder(this, file, seed, WIDTH);
+        director = new SpawnDirector(recorder, seed, WIDTH, config.getSchedule());
+        director.setLadderScale(config.getLadderScale());
+    }
+
+    /**
+     * Ends the replay log, if recording, and waits for it to be written.
+     *
+     * @throws IOException if any part of the log could not be written
+     */
+    public void stopRecording() throws IOException {
+        if (recorder == null) return;
+        recorder.close();
+        recorder = null;
+    }
+
+    /**
+     * Plays a recorded session through to its last frame as fast as possible and records
+     * the wall-clock time taken.
+     */
+    public void runReplay() {
+        long start = System.nanoTime();
+        while (!replay.isFinished()) {
+            tick();
+        }
+        stats.setWallNanos(System.nanoTime() - start);
+    }
+
+    /**
+     * Advances the simulation by exactly one tick.
+     */
+    public void tick() {
+        if (replay != null) {
+            replay.tick(this);
+        } else {
+            if (recorder != null) recorder.nextFrame();
+            director.tick();
+        }
+
+        int n = monkeys.size();
+        for (int i = 0; i < n; i++) actMonkey(monkeys.get(i));
+        sweepCollisions();
+        n = projectiles.size();
+        for (int i = 0; i < n; i++) actProjectile(projectiles.get(i));
+        stepBloons();
+        n = blasts.size();
+        for (int i = 0; i < n; i++) actBlast(blasts.get(i));
+
+        for (SimBloon b : popped) addBloon(b);
+        popped.clear();
+        bloons.removeIf(b -> !b.alive);
+        monkeys.removeIf(m -> !m.alive);
+        projectiles.removeIf(p -> !p.alive);
+        blasts.removeIf(b -> !b.alive);
+        stats.endTick(bloons.size(), monkeys.size(), projectiles.size());
+    }
+
+    /** @return the counters collected so far */
+    public SimulationStats getStats() {
+        return stats;
+    }
+
+    /** @return the balance parameters of this run */
+    public SimulationConfig getConfig() {
+        return config;
+    }
+
+    /** @return the spawn schedule, e.g. to enable dev mode */
+    public SpawnDirector getDirector() {
+        return director;
+    }
+
+    // --- SpawnDirector.Host ---
+
+    @Override
+    public int getMoabCount() {
+        int count = 0;
+        for (SimBloon b : bloons) {
+            if (b.alive && b.type == BloonType.MOAB) count++;
+        }
+        return count;
+    }
+
+    @Override
+    public boolean isLaneMouthBlocked(int lane) {
+        if (indexDirty) rebuildLaneIndex();
+        return laneIndex.isOccupied(lane, -SPAWNER_HALF_W, SPAWNER_HALF_W, SPAWNER_HALF_H);
+    }
+
+    @Override
+    public void spawnBloon(BloonType type, int lane) {
+        int direction = SpawnDirector.laneDirection(lane);
+        int startX = (direction == 1) ? 1 : WIDTH - 1;
+        addBloon(new SimBloon(type, config.getHealth(type), direction, lanes[lane], startX, lanes[lane]));
+        stats.bloonSpawned(type);
+    }
+
+    @Override
+    public void spawnMonkey(MonkeyType type, boolean atTop, int x) {
+        SimMonkey m = new SimMonkey(type, config.getHealth(type), x,
+                                    atTop ? monkeyTopY : monkeyBottomY, atTop ? 1 : -1);
+        m.despawnY = atTop ? monkeyBottomY : monkeyTopY;
+        monkeys.add(m);
+        stats.monkeySpawned(type);
+    }
+
+    @Override
+    public void triggerIceBlast() {
+        blasts.add(new SimBlast(WIDTH / 2, HEIGHT / 2, Math.max(WIDTH, HEIGHT) / 2));
+        stats.iceBlast(false);
+    }
+
+    // --- Bloons ---
+
+    /**
+     * Mirrors {@code BloonStore.update()}: every bloon moves against the lane index as it was
+     * at the start of the phase, then the blocked ones try to change lanes against the index
+     * of where everyone ended up.
+     */
+    private void stepBloons() {
+        if (indexDirty) rebuildLaneIndex();
+        blocked.clear();
+        int n = bloons.size();
+        for (int i = 0; i < n; i++) actBloon(bloons.get(i));
+
+        rebuildLaneIndex();
+        for (SimBloon b : blocked) tryLaneChange(b);
+        grid.rebuild(bloons);
+    }
+
+    /** Mirrors {@code BloonStore.stepLane()} for one bloon. */
+    private void actBloon(SimBloon b) {
+        if (!b.alive) return;
+        if (b.frozen) {
+            b.freezeTimer--;
+            if (b.freezeTimer <= 0) {
+                b.frozen = false;
+            } else {
+                return;
+            }
+        }
+
+        // Traffic: only the one bloon ahead counts, and only if it is a Moab
+        int front = laneIndex.bloonAt(b.x + b.direction * TRAFFIC_LOOK_AHEAD, b.y, b.slot);
+        if (front >= 0 && indexed[front].type == BloonType.MOAB) {
+            b.speed = Math.max(indexSpeed[front], b.speed * 0.97);
+            if (!b.changingLane) blocked.add(b);
+        }
+        if (b.changingLane) {
+            int dy = b.laneY - round(b.y);
+            if (Math.abs(dy) < 2) {
+                b.changingLane = false;
+            } else {
+                b.x = round(b.x);
+                b.y = round(b.y) + Math.signum(dy) * LANE_CHANGE_SPEED;
+            }
+        }
+
+        b.x += b.speed * b.direction;
+
+        if (b.contactCooldown == 0) {
+            for (SimMonkey m : monkeys) {
+                if (m.alive && overlaps(b.x, b.y, b.halfW(), b.halfH(), m.x, m.y, m.halfW(), m.halfH())) {
+                    damageMonkey(m, b.type.getContactDamage());
+                    b.contactCooldown = CONTACT_COOLDOWN;
+                    break;
+                }
+            }
+        }
+
+        int x = round(b.x);
+        if (x < 0 || x > WIDTH) {
+            b.alive = false;
+            indexDirty = true;
+            stats.bloonLeaked(b.type);
+        }
+    }
+
+    /** Mirrors {@code BloonStore.tryLaneChange()}. */
+    private void tryLaneChange(SimBloon b) {
+        int currentLane = -1;
+        for (int i = 0; i < lanes.length; i++) {
+            if (Math.abs(lanes[i] - b.laneY) < 5) {
+                currentLane = i;
+                break;
+            }
+        }
+        if (currentLane == -1) return;
+
+        int[] offsets = {-2, -1, 1, 2};
+        for (int offset : offsets) {
+            int newLane = currentLane + offset;
+            if (newLane < 0 || newLane >= lanes.length) continue;
+            if (SpawnDirector.laneDirection(newLane) != b.direction) continue;
+            if (!laneIndex.isOccupied(newLane, b.x, b.x, 0)) {
+                b.laneY = lanes[newLane];
+                b.changingLane = true;
+                return;
+            }
+        }
+    }
+
+    /** Copies the live bloons into the lane index's slots and rebuilds it. */
+    private void rebuildLaneIndex() {
+        int n = 0;
+        for (SimBloon b : bloons) {
+            b.slot = -1;
+            if (!b.alive) continue;
+            if (n == indexed.length) {
+                int capacity = n * 2;
+                indexed = Arrays.copyOf(indexed, capacity);
+                indexX = Arrays.copyOf(indexX, capacity);
+                indexY = Arrays.copyOf(indexY, capacity);
+                indexTier = Arrays.copyOf(indexTier, capacity);
+                indexSpeed = Arrays.copyOf(indexSpeed, capacity);
+            }
+            indexed[n] = b;
+            indexX[n] = b.x;
+            indexY[n] = b.y;
+            indexTier[n] = (byte) b.type.ordinal();
+            indexSpeed[n] = b.speed;
+            b.slot = n++;
+        }
+        Arrays.fill(indexed, n, Math.max(n, indexCount), null);
+        indexCount = n;
+        laneIndex.rebuild(lanes, n, indexX, indexY, indexTier);
+        indexDirty = false;
+    }
+
+    /** Adds a bloon that first acts on the next bloon phase. */
+    private void addBloon(SimBloon b) {
+        bloons.add(b);
+        grid.insert(b);
+        indexDirty = true;
+    }
+
+    /**
+     * Applies one point of damage, unless {@link BloonType#ignores} says the hit does nothing
+     * to this tier, given the temporary immunity of a frozen bloon.
+     */
+    private void damageBloon(SimBloon b, DamageType damage) {
+        if (!b.alive) return;
+        int temporary = b.frozen ? BloonType.FROZEN_IMMUNITY.bit() : 0;
+        if (b.type.ignores(damage, temporary)) return;
+        b.health--;
+        if (b.health <= 0) pop(b, -b.health, damage);
+    }
+
+    /**
+     * Mirrors {@code PopCascade.pop()}: whatever survives of a popped bloon is held back in
+     * {@link #popped} until the end of the tick.
+     */
+    private void pop(SimBloon b, int overkill, DamageType damage) {
+        b.alive = false;
+        indexDirty = true;
+        stats.bloonPopped(b.type);
+        int y = round(b.y);
+        int first = popCascade.resolve(b.type, round(b.x), overkill, damage, b.frozen ? b.freezeTimer : 0);
+        for (int i = first; i < popCascade.size(); i++) {
+            BloonType t = popCascade.getLeafType(i);
+            SimBloon child = new SimBloon(t, config.getHealth(t) - popCascade.getLeafDamage(i),
+                                          b.direction, b.laneY, popCascade.getLeafX(i), y);
+            popped.add(child);
+            if (popCascade.getLeafFreeze(i) > 0) freeze(child, popCascade.getLeafFreeze(i));
+        }
+        popCascade.discard(first);
+    }
+
+    /** Mirrors {@code Bloon.applyFreeze()}. */
+    private void freeze(SimBloon b, int duration) {
+        if (!b.type.canFreeze() || b.frozen) return;
+        b.frozen = true;
+        b.freezeTimer = duration;
+    }
+
+    // --- Monkeys ---
+
+    /** Mirrors {@code Monkey.act()} and {@code IceMonkey.act()}. */
+    private void actMonkey(SimMonkey m) {
+        if (!m.alive) return;
+        MonkeyType t = m.type;
+        m.fireTimer++;
+
+        if (bloonInFront(m)) {
+            ProjectileType pt = t.getProjectile();
+            if (pt != null) {
+                SimBloon target = grid.nearest(m.x, m.y, config.getRange(t));
+                if (target != null && m.fireTimer >= config.getFireRate(t)) {
+                    m.rotation = (int) Math.toDegrees(Math.atan2(target.y - m.y, target.x - m.x));
+                    projectiles.add(new SimProjectile(pt, m, target));
+                    stats.shotFired(pt);
+                    m.fireTimer = 0;
+                }
+            }
+        } else {
+            m.rotation = m.moveDirection == -1 ? 270 : 90;
+            m.y += t.getSpeed() * m.moveDirection;
+        }
+
+        int x = round(m.x);
+        int y = round(m.y);
+        if (m.health <= 0 || x < 0 || x > WIDTH) {
+            m.alive = false;
+            return;
+        }
+        if ((m.rotation == 90 && y >= m.despawnY) || (m.rotation == 270 && y <= m.despawnY)) {
+            m.alive = false;
+            stats.monkeyCrossed(t);
+            return;
+        }
+
+        if (t == MonkeyType.ICE) {
+            if (m.iceTimer > 0) {
+                m.iceTimer--;
+                return;
+            }
+            int freezeRange = config.getRange(t);
+            if (grid.hasFreezableInRange(m.x, m.y, freezeRange)) {
+                blasts.add(new SimBlast(x, y, freezeRange));
+                stats.iceBlast(true);
+                m.iceTimer = config.getFireRate(t);
+            }
+        }
+    }
+
+    private void damageMonkey(SimMonkey m, int amount) {
+        m.health -= amount;
+        stats.monkeyDamaged(amount);
+        if (m.health <= 0 && m.alive) {
+            m.alive = false;
+            stats.monkeyKilled(m.type);
+        }
+    }
+
+    /** Mirrors {@code Monkey.bloonsInFront()}: a strict rectangle to the right of the monkey. */
+    private boolean bloonInFront(SimMonkey m) {
+        int mx = round(m.x);
+        int my = round(m.y);
+        return grid.hasBloonInRect(mx, my - MONKEY_CHECK_WIDTH, mx + MONKEY_LOOK_DISTANCE, my + MONKEY_CHECK_WIDTH);
+    }
+
+    // --- Projectiles ---
+
+    /** Mirrors the {@code act()} and {@code checkCollision()} of each projectile class. */
+    private void actProjectile(SimProjectile p) {
+        if (!p.alive) return;
+        switch (p.type) {
+            case BOOMERANG:
+                actBoomerang(p);
+                return;
+            case MAGIC:
+                if (p.target == null || !p.target.alive) {
+                    p.target = grid.nearest(p.x, p.y, Double.MAX_VALUE);
+                }
+                break;
+            default:
+                break;
+        }
+        if (p.target != null && p.target.alive) p.aimAt(p.target.x, p.target.y);
+        p.advance();
+        if (culled(p)) return;
+
+        if (p.type == ProjectileType.MAGIC) {
+            hitIntersecting(p, DamageType.MAGIC, false);
+            return;
+        }
+        SimBloon hit = firstIntersecting(p);
+        if (hit == null) return;
+        p.alive = false;
+        if (p.type == ProjectileType.BOMB) {
+            grid.collectInRange(p.x, p.y, BombProjectile.EXPLOSION_RADIUS, queryBuffer);
+            for (SimBloon b : queryBuffer) {
+                if (!b.type.isImmuneTo(DamageType.EXPLOSIVE)) damageBloon(b, DamageType.EXPLOSIVE);
+            }
+        } else {
+            damageBloon(hit, DamageType.NORMAL);
+        }
+    }
+
+    /** Mirrors {@code Boomerang.act()}: out after the target, then back to the thrower. */
+    private void actBoomerang(SimProjectile p) {
+        int speed = p.type.getSpeed();
+        if (!p.returning) {
+            if (p.target != null && p.target.alive) p.aimAt(p.target.x, p.target.y);
+            p.advance();
+            if (culled(p)) return;
+            p.traveled += speed;
+            if (p.traveled >= Boomerang.MAX_DISTANCE) {
+                p.returning = true;
+                p.hits.clear();
+            }
+        } else {
+            if (p.source.alive) {
+                p.homeX = round(p.source.x);
+                p.homeY = round(p.source.y);
+            }
+            p.aimAt(p.homeX, p.homeY);
+            p.advance();
+            if (culled(p)) return;
+            if (Math.hypot(p.x - p.homeX, p.y - p.homeY) < speed + 2) {
+                p.alive = false;
+                return;
+            }
+        }
+        hitIntersecting(p, DamageType.NORMAL, true);
+    }
+
+    /**
+     * Damages every bloon touching a piercing projectile until its pierce runs out.
+     * Hitting an immune bloon destroys the projectile.
+     */
+    private void hitIntersecting(SimProjectile p, DamageType damage, boolean once) {
+        collectTouching(p);
+        for (SimBloon b : touching) {
+            if (!b.alive || (once && p.hits.contains(b))) continue;
+            if (b.type.isImmuneTo(damage)) {
+                p.alive = false;
+                return;
+            }
+            damageBloon(b, damage);
+            if (once) p.hits.add(b);
+            p.pierce--;
+            if (p.pierce <= 0) {
+                p.alive = false;
+                return;
+            }
+        }
+    }
+
+    // --- Ice blasts ---
+
+    /** Mirrors {@code IceBlastEffect.act()}: damage then freeze on the first tick. */
+    private void actBlast(SimBlast blast) {
+        if (!blast.triggered) {
+            blast.triggered = true;
+            int firstPopped = popped.size();
+            grid.collectInRange(blast.x, blast.y, blast.radius, queryBuffer);
+            for (SimBloon b : queryBuffer) {
+                if (!b.type.isImmuneTo(DamageType.ICE)) damageBloon(b, DamageType.ICE);
+            }
+            grid.collectInRange(blast.x, blast.y, blast.radius, queryBuffer);
+            for (SimBloon b : queryBuffer) {
+                if (!b.type.isImmuneTo(DamageType.ICE)) freeze(b, IceBlastEffect.FREEZE_DURATION);
+            }
+            // The children of what the blast just popped are only held back
+            double r2 = (double) blast.radius * blast.radius;
+            for (int i = firstPopped; i < popped.size(); i++) {
+                SimBloon b = popped.get(i);
+                double dx = b.x - blast.x;
+                double dy = b.y - blast.y;
+                if (dx * dx + dy * dy <= r2 && !b.type.isImmuneTo(DamageType.ICE)) {
+                    freeze(b, IceBlastEffect.FREEZE_DURATION);
+                }
+            }
+        }
+        if (--blast.lifetime <= 0) blast.alive = false;
+    }
+
+    // --- Culling ---
+
+    /** Mirrors {@code Projectile.advance()}: culls a projectile that broke a {@link Culling} rule. */
+    private boolean culled(SimProjectile p) {
+        Culling.Reason reason = Culling.check(p.type, round(p.x), round(p.y), WIDTH, HEIGHT, p.flown, p.age);
+        if (reason == null) return false;
+        p.alive = false;
+        stats.culled(reason);
+        return true;
+    }
+
+    // --- Queries ---
+
+    private SimBloon firstIntersecting(SimProjectile p) {
+        collectTouching(p);
+        for (SimBloon b : touching) {
+            if (b.alive) return b;
+        }
+        return null;
+    }
+
+    /** Mirrors {@code Projectile.getTouchingBloons()}: fills {@link #touching} for a projectile. */
+    private void collectTouching(SimProjectile p) {
+        collisionSweep.collect(p.sweepSlot, collisionSweep.getGeneration(), p.x, p.y, p.type.getHitRadius(), touching);
+    }
+
+    /** Enters every live bloon and projectile into the collision sweep and pairs them up. */
+    private void sweepCollisions() {
+        collisionSweep.clear();
+        for (SimBloon b : bloons) {
+            if (b.alive) collisionSweep.addBloon(b, b.x, b.y, b.type.getHitRadius());
+        }
+        for (SimProjectile p : projectiles) {
+            p.sweepSlot = p.alive ? collisionSweep.addProjectile(p.x, p.y, p.type.getHitRadius(), p.type.getSpeed()) : -1;
+        }
+        collisionSweep.sweep();
+    }
+
+    private static boolean overlaps(double ax, double ay, double ahw, double ahh,
+                                    double bx, double by, double bhw, double bhh) {
+        return Math.abs(ax - bx) < ahw + bhw && Math.abs(ay - by) < ahh + bhh;
+    }
+
+    /** Rounds halves away from zero, the way {@link SuperSmoothMover} snaps to pixels. */
+    private static int round(double v) {
+        return (int) (v + Math.signum(v) * 0.5);
+    }
+
+    // --- Entities ---
+
+    /** A bloon: the fields of {@link Bloon} that affect the rules. */
+    private static class SimBloon {
+        final BloonType type;
+        final int direction;
+        double x, y;
+        double speed;
+        int health;
+        int laneY;
+        int contactCooldown = 0;
+        boolean frozen = false;
+        int freezeTimer = 0;
+        boolean changingLane = false;
+        boolean alive = true;
+        /** Slot in the lane index, or {@code -1} if not in it. */
+        int slot = -1;
+
+        SimBloon(BloonType type, int health, int direction, int laneY, double x, double y) {
+            this.type = type;
+            this.health = health;
+            this.direction = direction;
+            this.laneY = laneY;
+            this.x = x;
+            this.y = y;
+            speed = type.getSpeed();
+        }
+
+        double halfW() { return type.getWidth() / 2.0; }
+        double halfH() { return type.getHeight() / 2.0; }
+    }
+
+    /**
+     * Live bloons bucketed by the cell of their pixel position, the counterpart of
+     * {@link BloonGrid}. Bloons only move in the bloon phase, which rebuilds the grid, and
+     * new ones are inserted as they spawn, so queries need no slack. Bloons that died since
+     * the rebuild are skipped.
+     */
+    private static class SimGrid {
+        private static final int CELL_SIZE = BloonGrid.CELL_SIZE;
+        private final int cols;
+        private final int rows;
+        private final List<List<SimBloon>> cells;
+
+        SimGrid(int worldWidth, int worldHeight) {
+            cols = Math.max(1, (worldWidth + CELL_SIZE - 1) / CELL_SIZE);
+            rows = Math.max(1, (worldHeight + CELL_SIZE - 1) / CELL_SIZE);
+            cells = new ArrayList<>(cols * rows);
+            for (int i = 0; i < cols * rows; i++) cells.add(new ArrayList<>());
+        }
+
+        void rebuild(List<SimBloon> bloons) {
+            for (List<SimBloon> cell : cells) cell.clear();
+            for (SimBloon b : bloons) {
+                if (b.alive) insert(b);
+            }
+        }
+
+        void insert(SimBloon b) {
+            cells.get(cellY(round(b.y)) * cols + cellX(round(b.x))).add(b);
+        }
+
+        /** @return the live bloon nearest a point within a range, or {@code null} */
+        SimBloon nearest(double x, double y, double range) {
+            int cx = cellX(x);
+            int cy = cellY(y);
+            int maxRing = Math.max(Math.max(cx, cols - 1 - cx), Math.max(cy, rows - 1 - cy));
+            SimBloon best = null;
+            double bestDistSq = range == Double.MAX_VALUE ? Double.MAX_VALUE : range * range;
+            for (int ring = 0; ring <= maxRing; ring++) {
+                // Nothing in this ring or beyond can be closer than this
+                double ringMin = Math.max(0, (ring - 1) * (double) CELL_SIZE);
+                if (ringMin * ringMin > bestDistSq) break;
+                for (int gy = cy - ring; gy <= cy + ring; gy++) {
+                    if (gy < 0 || gy >= rows) continue;
+                    boolean edgeRow = gy == cy - ring || gy == cy + ring;
+                    int step = edgeRow ? 1 : Math.max(1, 2 * ring);
+                    for (int gx = cx - ring; gx <= cx + ring; gx += step) {
+                        if (gx < 0 || gx >= cols) continue;
+                        for (SimBloon b : cells.get(gy * cols + gx)) {
+                            if (!b.alive) continue;
+                            double dx = round(b.x) - x;
+                            double dy = round(b.y) - y;
+                            double d = dx * dx + dy * dy;
+                            if (d <= bestDistSq && (best == null || d < bestDistSq)) {
+                                bestDistSq = d;
+                                best = b;
+                            }
+                        }
+                    }
+                }
+            }
+            return best;
+        }
+
+        /** Fills {@code out} with every live bloon within a radius. */
+        void collectInRange(double x, double y, double radius, List<SimBloon> out) {
+            out.clear();
+            double r2 = radius * radius;
+            for (int gy = cellY(y - radius); gy <= cellY(y + radius); gy++) {
+                for (int gx = cellX(x - radius); gx <= cellX(x + radius); gx++) {
+                    for (SimBloon b : cells.get(gy * cols + gx)) {
+                        if (!b.alive) continue;
+                        double dx = round(b.x) - x;
+                        double dy = round(b.y) - y;
+                        if (dx * dx + dy * dy <= r2) out.add(b);
+                    }
+                }
+            }
+        }
+
+        /** @return whether a live bloon that is not immune to ice is within a radius */
+        boolean hasFreezableInRange(double x, double y, double radius) {
+            double r2 = radius * radius;
+            for (int gy = cellY(y - radius); gy <= cellY(y + radius); gy++) {
+                for (int gx = cellX(x - radius); gx <= cellX(x + radius); gx++) {
+                    for (SimBloon b : cells.get(gy * cols + gx)) {
+                        if (!b.alive || b.type.isImmuneTo(DamageType.ICE)) continue;
+                        double dx = round(b.x) - x;
+                        double dy = round(b.y) - y;
+                        if (dx * dx + dy * dy <= r2) return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /** @return whether a live bloon's pixel position lies strictly inside a rectangle */
+        boolean hasBloonInRect(int minX, int minY, int maxX, int maxY) {
+            for (int gy = cellY(minY); gy <= cellY(maxY); gy++) {
+                for (int gx = cellX(minX); gx <= cellX(maxX); gx++) {
+                    for (SimBloon b : cells.get(gy * cols + gx)) {
+                        if (!b.alive) continue;
+                        int bx = round(b.x);
+                        int by = round(b.y);
+                        if (bx > minX && bx < maxX && by > minY && by < maxY) return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private int cellX(double x) {
+            return Math.max(0, Math.min(cols - 1, (int) Math.floor(x / CELL_SIZE)));
+        }
+
+        private int cellY(double y) {
+            return Math.max(0, Math.min(rows - 1, (int) Math.floor(y / CELL_SIZE)));
+        }
+    }
+
+    /** A monkey: the fields of {@link Monkey} that affect the rules. */
+    private static class SimMonkey {
+        final MonkeyType type;
+        final int moveDirection;
+        double x, y;
+        int health;
+        int rotation;
+        int fireTimer = 0;
+        int despawnY;
+        int iceTimer = 0;
+        boolean alive = true;
+
+        SimMonkey(MonkeyType type, int health, double x, double y, int moveDirection) {
+            this.type = type;
+            this.health = health;
+            this.x = x;
+            this.y = y;
+            this.moveDirection = moveDirection;
+            rotation = moveDirection == -1 ? 270 : 90;
+        }
+
+        // Walking monkeys face up or down, so the sprite box is turned on its side
+        double halfW() { return type.getSprite().getHeight() / 2.0; }
+        double halfH() { return type.getSprite().getWidth() / 2.0; }
+    }
+
+    /** A projectile of any type, with the per-type state of each projectile class. */
+    private static class SimProjectile {
+        final ProjectileType type;
+        final SimMonkey source;
+        SimBloon target;
+        double x, y;
+        double angle;
+        int pierce;
+        boolean alive = true;
+        // Culling limits
+        int flown = 0;
+        int age = 0;
+        // Boomerang flight
+        int traveled = 0;
+        boolean returning = false;
+        int homeX, homeY;
+        final List<SimBloon> hits = new ArrayList<>();
+        /** Slot in this tick's collision sweep. */
+        int sweepSlot = -1;
+
+        SimProjectile(ProjectileType type, SimMonkey source, SimBloon target) {
+            this.type = type;
+            this.source = source;
+            this.target = target;
+            x = round(source.x);
+            y = round(source.y);
+            homeX = (int) x;
+            homeY = (int) y;
+            pierce = type.getPierce();
+            aimAt(target.x, target.y);
+        }
+
+        void aimAt(double tx, double ty) {
+            if (tx != x || ty != y) angle = Math.atan2(ty - y, tx - x);
+        }
+
+        void advance() {
+            x += Math.cos(angle) * type.getSpeed();
+            y += Math.sin(angle) * type.getSpeed();
+            flown += type.getSpeed();
+            age++;
+        }
+    }
+
+    /** An ice blast: damages and freezes once, then lingers for its animation. */
+    private static class SimBlast {
+        final int x, y;
+        final int radius;
+        boolean triggered = false;
+        int lifetime = ICE_BLAST_LIFETIME;
+        boolean alive = true;
+
+        SimBlast(int x, int y, int radius) {
+            this.x = x;
+            this.y = y;
+            this.radius = radius;
+        }
+    }
+}
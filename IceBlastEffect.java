@@ -1,4 +1,7 @@
 import greenfoot.*;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.List;
 /**
  * Represents an animated ice explosion effect that damages and freezes nearby {@link Bloon}s.
@@ -17,8 +20,8 @@ import java.util.List;
 public class IceBlastEffect extends Actor {
     /** Total number of animation frames (Ice1.png through Ice8.png). */
     private static final int FRAME_COUNT = 8; 
-    /** Array of preloaded animation frames for the ice effect. */    
-    private GreenfootImage[] frames = new GreenfootImage[FRAME_COUNT];
+    /** Animation frames for the ice effect, shared with every blast of the same size. */
+    private final GreenfootImage[] frames;
     /** The current animation frame index. */
     private int currentFrame = 0;
     /** Number of act cycles to wait before switching frames. */    
@@ -30,12 +33,12 @@ public class IceBlastEffect extends Actor {
     /** Whether the blast effect has already applied damage and freeze effects. */
     private boolean triggered = false;
     /** Duration (in frames) that affected Bloons remain frozen. */
-    private int freezeDuration = 150;
+    public static final int FREEZE_DURATION = 150;
 
     /**
      * Creates a new IceBlastEffect with the specified radius.
      * <p>
-     * The constructor preloads animation frames, scales them according to the radius,
+     * The constructor picks up the shared animation frames for the radius
      * and plays a one-time sound effect.
      * </p>
      *
@@ -43,23 +46,54 @@ public class IceBlastEffect extends Actor {
      */
     public IceBlastEffect(int radius) {
         this.radius = radius;
-        int targetSize = radius * 2;
-
-        for (int i = 0; i < FRAME_COUNT; i++) {
-            GreenfootImage img = new GreenfootImage("ice/Ice" + (i + 1) + ".png");
-            int scaledW = Math.max(targetSize, 250);
-            int scaledH = Math.max(targetSize, 250);
-            img.scale(scaledW, scaledH);
-            img.setTransparency(200);
-            frames[i] = img;
-        }
+        frames = animation(radius).getFrames();
         setImage(frames[0]);
 
-        GreenfootSound sound = new GreenfootSound("IceEffectSound.wav");
-        sound.setVolume(80);
-        sound.play();
+        SoundManager.play(SoundManager.Clip.ICE, 80);
+    }
+
+    /**
+     * Returns the shared frames for a blast of a given radius: square, as wide as the
+     * blast (at least 250 pixels), and slightly see-through.
+     *
+     * @param radius the radius of the ice blast
+     * @return the animation handle
+     */
+    public static SpriteCache.Animation animation(int radius) {
+        int size = Math.max(radius * 2, 250);
+        return SpriteCache.animation("ice/Ice", FRAME_COUNT, size, size, 200);
+    }
+
+    /** @return the blast radius in pixels */
+    public int getRadius() {
+        return radius;
+    }
+
+    /**
+     * Writes whether the blast has gone off and how far its animation has run, for a
+     * {@link WorldSnapshot}. The radius is written by the snapshot.
+     *
+     * @param out where to write
+     * @throws IOException if writing fails
+     */
+    void writeState(DataOutput out) throws IOException {
+        out.writeBoolean(triggered);
+        out.writeByte(currentFrame);
+        out.writeByte(delayCounter);
     }
 
+    /**
+     * Restores what {@link #writeState} wrote.
+     *
+     * @param in where to read from
+     * @throws IOException if reading fails
+     */
+    void readState(DataInput in) throws IOException {
+        triggered = in.readBoolean();
+        currentFrame = in.readByte();
+        delayCounter = in.readByte();
+        setImage(frames[currentFrame]);
+    }
 
     /**
      * Called every frame to control the ice effect’s animation and timing.
@@ -71,33 +105,63 @@ public class IceBlastEffect extends Actor {
      */
     @Override
     public void act() {
-        if (!triggered) {
-            triggered = true;
-            World w = getWorld();
-            if (w != null) {
-                List<Bloon> bloons = getObjectsInRange(radius, Bloon.class);
+        long t = FrameProfiler.enter(FrameProfiler.Phase.EFFECTS);
+        try {
+            BloonWorld world = BloonWorld.liveWorld(this);
+            if (world == null) return;
+
+            if (!triggered) {
+                triggered = true;
+                BloonGrid grid = world.getBloonGrid();
+                CommandBuffer queued = world.getCommands();
+                int firstQueued = queued.getSpawnCount();
+                List<Bloon> bloons = grid.getBloonsInRange(getX(), getY(), radius);
                 for (Bloon b : bloons) {
                     if (!b.isImmuneTo(DamageType.ICE)) {
                         b.takeDamage(1, DamageType.ICE);
                     }
                 }
-                List<Bloon> bloons2 = getObjectsInRange(radius, Bloon.class);
+                List<Bloon> bloons2 = grid.getBloonsInRange(getX(), getY(), radius);
                 for (Bloon b : bloons2) {
                     if (!b.isImmuneTo(DamageType.ICE)) {
-                        b.applyFreeze(freezeDuration);
+                        b.applyFreeze(FREEZE_DURATION);
                     }
                 }
+                freezeQueuedChildren(queued, firstQueued);
             }
+
+            delayCounter++;
+            if (delayCounter >= frameDelay) {
+                delayCounter = 0;
+                currentFrame++;
+                if (currentFrame < FRAME_COUNT) {
+                    setImage(frames[currentFrame]);
+                } else {
+                    world.despawn(this);
+                }
+            }
+        } finally {
+            FrameProfiler.exit(FrameProfiler.Phase.EFFECTS, t);
         }
+    }
 
-        delayCounter++;
-        if (delayCounter >= frameDelay) {
-            delayCounter = 0;
-            currentFrame++;
-            if (currentFrame < FRAME_COUNT) {
-                setImage(frames[currentFrame]);
-            } else {
-                if (getWorld() != null) getWorld().removeObject(this);
+    /**
+     * Freezes the children of bloons the damage pass popped. While actors act they are only
+     * queued, so the grid does not list them yet; each one queued within the radius gets
+     * the freeze once it is added, as if the blast had hit it.
+     *
+     * @param queued the world's queued spawns
+     * @param first  the first spawn queued by the damage pass
+     */
+    private void freezeQueuedChildren(CommandBuffer queued, int first) {
+        double r2 = (double) radius * radius;
+        for (int i = first; i < queued.getSpawnCount(); i++) {
+            if (!(queued.getSpawn(i) instanceof Bloon)) continue;
+            Bloon b = (Bloon) queued.getSpawn(i);
+            double dx = queued.getSpawnX(i) - getX();
+            double dy = queued.getSpawnY(i) - getY();
+            if (dx * dx + dy * dy <= r2 && !b.isImmuneTo(DamageType.ICE)) {
+                b.applyFreeze(FREEZE_DURATION);
             }
         }
     }
@@ -1,50 +1,60 @@
 import greenfoot.*;
-import java.util.List;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 
 public class IceMonkey extends Monkey {
-    private int freezeRange = 200;   // area of effect
-    private int cooldown = 120;      // delay between blasts
+    public static final int FREEZE_RANGE = 200;   // area of effect
+    public static final int COOLDOWN = 120;       // delay between blasts
     private int timer = 0;
 
     public IceMonkey() {
-        fireRate = cooldown;
-        range = freezeRange;
-        health = 6;
-        speed = 2;
-        projectileType = null; // no projectile
-
-        GreenfootImage monkey = new GreenfootImage("Ice_Monkey.png");
-        monkey.scale(67, 70);
-        setImage(monkey);
+        super(MonkeyType.ICE);
     }
 
     @Override
     public void act() {
-        super.act();
-
-        World world = getWorld();
-        if (world == null) return;
-
-        // Handle cooldown
-        if (timer > 0) {
-            timer--;
-            return;
+        long t = FrameProfiler.enter(FrameProfiler.Phase.MONKEYS);
+        try {
+            super.act();
+
+            BloonWorld world = BloonWorld.liveWorld(this);
+            if (world == null) return;
+
+            // Handle cooldown
+            if (timer > 0) {
+                timer--;
+                return;
+            }
+
+            // Check for any non-immune bloon nearby
+            if (isBloonInRange()) {
+                // Spawn the visual + functional freeze effect
+                world.spawn(new IceBlastEffect(FREEZE_RANGE), getX(), getY());
+                timer = COOLDOWN; // reset cooldown
+            }
+        } finally {
+            FrameProfiler.exit(FrameProfiler.Phase.MONKEYS, t);
         }
+    }
 
-        // Check for any non-immune bloon nearby
-        if (isBloonInRange()) {
-            // Spawn the visual + functional freeze effect
-            world.addObject(new IceBlastEffect(freezeRange), getX(), getY());
-            timer = cooldown; // reset cooldown
-        }
+    @Override
+    void writeState(DataOutput out) throws IOException {
+        super.writeState(out);
+        out.writeInt(timer);
+    }
+
+    @Override
+    void readState(DataInput in) throws IOException {
+        super.readState(in);
+        timer = in.readInt();
     }
 
     /** Checks if any non-immune bloon is within range. */
     private boolean isBloonInRange() {
-        List<Bloon> bloons = getObjectsInRange(freezeRange, Bloon.class);
-        for (Bloon b : bloons) {
-            if (!b.isImmuneTo(DamageType.ICE)) return true;
-        }
-        return false;
+        BloonWorld world = BloonWorld.liveWorld(this);
+        if (world == null) return false;
+        BloonGrid grid = world.getBloonGrid();
+        return grid.hasBloonInRange(getX(), getY(), FREEZE_RANGE, b -> !b.isImmuneTo(DamageType.ICE));
     }
 }
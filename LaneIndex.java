@@ -0,0 +1,173 @@
+import java.util.Arrays;
+
+/**
+ * The bloons of every lane, ordered by x, for the {@link BloonStore}'s occupancy questions:
+ * is there room to change into a lane here, is a lane's spawn mouth clear, and which bloon
+ * is just ahead of another.
+ * <p>
+ * Each question used to test every bloon in the world (or ask Greenfoot for every actor
+ * overlapping the spawner). With each lane's bloons sorted by x, a binary search finds the
+ * first one that could reach the queried span, and the scan stops at the first one past it.
+ * A bloon is listed in every lane its sprite comes near, so a Moab, which is taller than a
+ * lane, and a bloon halfway through a lane change still count where they overlap.
+ * </p>
+ *
+ * <p>Key features:</p>
+ * <ul>
+ *   <li>Rebuilt from the store's arrays in one pass plus a primitive sort per lane.</li>
+ *   <li>Sort keys pack the x-coordinate and the slot into one {@code long}, so sorting
+ *       needs no comparator and never allocates.</li>
+ *   <li>Positions and extents are copied in, so queries see the frame the index was built
+ *       from even if the store grows in between.</li>
+ * </ul>
+ */
+public class LaneIndex {
+    /** Tallest query box, as a half height: half the distance between two lane centres. */
+    public static final double MAX_QUERY_HALF_HEIGHT = 35;
+
+    /** Bits of a sort key that hold the slot. */
+    private static final int SLOT_BITS = 24;
+    private static final long SLOT_MASK = (1L << SLOT_BITS) - 1;
+    /** Sub-pixel steps of x kept in a sort key. */
+    private static final double KEY_SCALE = 16;
+    /** Offset that keeps every scaled x positive. */
+    private static final long KEY_OFFSET = 1L << 30;
+    /**
+     * Half the width of the widest bloon, plus a pixel for keys that round two close
+     * bloons into the same step; nothing further away can overlap a span.
+     */
+    private static final double REACH_X;
+
+    static {
+        int widest = 0;
+        for (BloonType t : BloonType.values()) widest = Math.max(widest, t.getWidth());
+        REACH_X = widest / 2.0 + 1;
+    }
+
+    private int[] lanes = new int[0];
+    private long[][] keys = new long[0][];
+    private int[] sizes = new int[0];
+    /** Per lane, in x order: centre and half extents, four entries per bloon. */
+    private double[][] boxes = new double[0][];
+
+    /**
+     * Rebuilds the index from the store's arrays.
+     *
+     * @param laneCentres centre Y of every lane, top to bottom
+     * @param count       number of bloons
+     * @param x           x-coordinate per slot
+     * @param y           y-coordinate per slot
+     * @param tier        {@link BloonType} ordinal per slot, for sprite sizes
+     */
+    public void rebuild(int[] laneCentres, int count, double[] x, double[] y, byte[] tier) {
+        int laneCount = laneCentres.length;
+        if (sizes.length != laneCount) {
+            keys = new long[laneCount][16];
+            boxes = new double[laneCount][64];
+            sizes = new int[laneCount];
+        }
+        lanes = laneCentres;
+        Arrays.fill(sizes, 0);
+
+        BloonType[] tiers = BloonType.values();
+        for (int i = 0; i < count; i++) {
+            double reachY = tiers[tier[i]].getHeight() / 2.0 + MAX_QUERY_HALF_HEIGHT;
+            long scaled = (long) Math.floor(x[i] * KEY_SCALE) + KEY_OFFSET;
+            long key = (Math.max(0, Math.min(2 * KEY_OFFSET, scaled)) << SLOT_BITS) | i;
+            for (int l = 0; l < laneCount; l++) {
+                if (Math.abs(lanes[l] - y[i]) >= reachY) continue;
+                if (sizes[l] == keys[l].length) keys[l] = Arrays.copyOf(keys[l], sizes[l] * 2);
+                keys[l][sizes[l]++] = key;
+            }
+        }
+
+        for (int l = 0; l < laneCount; l++) {
+            int n = sizes[l];
+            Arrays.sort(keys[l], 0, n);
+            if (boxes[l].length < n * 4) boxes[l] = new double[keys[l].length * 4];
+            double[] box = boxes[l];
+            for (int k = 0; k < n; k++) {
+                int slot = (int) (keys[l][k] & SLOT_MASK);
+                BloonType t = tiers[tier[slot]];
+                box[k * 4] = x[slot];
+                box[k * 4 + 1] = y[slot];
+                box[k * 4 + 2] = t.getWidth() / 2.0;
+                box[k * 4 + 3] = t.getHeight() / 2.0;
+            }
+        }
+    }
+
+    /**
+     * Checks whether any bloon's sprite overlaps a box centred on a lane.
+     *
+     * @param lane       lane index
+     * @param minX       left edge of the box
+     * @param maxX       right edge of the box; equal to {@code minX} for a vertical line
+     * @param halfHeight half the box's height, at most {@link #MAX_QUERY_HALF_HEIGHT};
+     *                   {@code 0} for a line through the lane centre
+     * @return {@code true} if a sprite reaches strictly into the box
+     */
+    public boolean isOccupied(int lane, double minX, double maxX, double halfHeight) {
+        if (lane < 0 || lane >= sizes.length) return false;
+        double[] box = boxes[lane];
+        int n = sizes[lane];
+        double centreY = lanes[lane];
+        for (int k = lowerBound(box, n, minX - REACH_X); k < n && box[k * 4] < maxX + REACH_X; k++) {
+            double bx = box[k * 4];
+            double hw = box[k * 4 + 2];
+            if (bx + hw > minX && bx - hw < maxX
+                    && Math.abs(box[k * 4 + 1] - centreY) < box[k * 4 + 3] + halfHeight) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds a bloon whose sprite covers a point, the way {@code getOneObjectAtOffset} did
+     * for a bloon looking ahead. Greenfoot reported an arbitrary one of the bloons there;
+     * this reports the first in x order, so the answer does not depend on add order.
+     *
+     * @param px      x-coordinate of the point
+     * @param py      y-coordinate of the point
+     * @param exclude slot to skip, usually the bloon asking; {@code -1} for none
+     * @return the slot of a bloon covering the point, or {@code -1} if there is none
+     */
+    public int bloonAt(double px, double py, int exclude) {
+        if (sizes.length == 0) return -1;
+        // A sprite covering the point reaches within MAX_QUERY_HALF_HEIGHT of the nearest
+        // lane centre, so it is listed in that lane
+        int lane = 0;
+        for (int l = 1; l < lanes.length; l++) {
+            if (Math.abs(lanes[l] - py) < Math.abs(lanes[lane] - py)) lane = l;
+        }
+        double[] box = boxes[lane];
+        long[] key = keys[lane];
+        int n = sizes[lane];
+        for (int k = lowerBound(box, n, px - REACH_X); k < n && box[k * 4] < px + REACH_X; k++) {
+            int slot = (int) (key[k] & SLOT_MASK);
+            if (slot == exclude) continue;
+            if (Math.abs(px - box[k * 4]) < box[k * 4 + 2] && Math.abs(py - box[k * 4 + 1]) < box[k * 4 + 3]) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /** @return number of bloons listed in {@code lane} */
+    public int size(int lane) {
+        return lane < 0 || lane >= sizes.length ? 0 : sizes[lane];
+    }
+
+    /** @return the first entry in the first {@code n} boxes whose x is at least {@code v} */
+    private static int lowerBound(double[] box, int n, double v) {
+        int lo = 0;
+        int hi = n;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (box[mid * 4] < v) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
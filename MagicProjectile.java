@@ -1,5 +1,5 @@
 import greenfoot.*;
-import java.util.List;
+import java.io.IOException;
 /**
  * A homing projectile that tracks and damages bloons using magical energy.
  * <p>
@@ -18,7 +18,7 @@ import java.util.List;
  */
 public class MagicProjectile extends Projectile {
     /** How many bloons this projectile can hit before disappearing. */
-    private int pierce = 12;
+    private int pierce = ProjectileType.MAGIC.getPierce();
     /** Maximum turn rate in degrees per act step when homing. */
     private double turnRate = 6;
     /** The current target bloon this projectile is tracking. */
@@ -32,14 +32,41 @@ public class MagicProjectile extends Projectile {
      */
     public MagicProjectile(Monkey source, Bloon target) {
         super(source, target);
-        GreenfootImage magic = new GreenfootImage("magic.png");
-        magic.scale(30, 30);
-        setImage(magic);
-        speed = 7;
+        setImage(ProjectileType.MAGIC.getSprite().get());
+        speed = ProjectileType.MAGIC.getSpeed();
+        type = ProjectileType.MAGIC;
+        currentTarget = target;
+    }
+
+    /**
+     * Restores full pierce and a fresh target so a pooled projectile can be fired again.
+     *
+     * @param source the tower (monkey) firing this projectile
+     * @param target the initial bloon target
+     */
+    @Override
+    protected void reset(Monkey source, Bloon target) {
+        super.reset(source, target);
+        pierce = ProjectileType.MAGIC.getPierce();
         currentTarget = target;
     }
 
 
+    /** Also writes the pierce left and the bloon being tracked. */
+    @Override
+    void writeState(WorldSnapshot.Writer out) throws IOException {
+        super.writeState(out);
+        out.writeInt(pierce);
+        out.writeRef(currentTarget);
+    }
+
+    @Override
+    void readState(WorldSnapshot.Reader in) throws IOException {
+        super.readState(in);
+        pierce = in.readInt();
+        currentTarget = in.readBloon();
+    }
+
     /**
      * Performs homing movement, target acquisition, and collision handling.
      * <p>
@@ -49,19 +76,26 @@ public class MagicProjectile extends Projectile {
      */
     @Override
     public void act() {
-        if (getWorld() == null) return;
+        long t = FrameProfiler.enter(FrameProfiler.Phase.PROJECTILES);
+        try {
+            if (BloonWorld.liveWorld(this) == null) return;
 
-        if (currentTarget == null || currentTarget.getWorld() == null) {
-            currentTarget = getNearestBloon();
-        }
+            if (currentTarget == null || BloonWorld.liveWorld(currentTarget) == null) {
+                currentTarget = getNearestBloon();
+            }
 
-        if (currentTarget != null && currentTarget.getWorld() != null) {
-            turnTowards(currentTarget.getX(), currentTarget.getY());
-        }
+            if (currentTarget != null) {
+                turnTowards(currentTarget.getX(), currentTarget.getY());
+            }
 
-        move(speed);
+            if (!advance(speed)) return;
 
-        checkCollision();
+            long collision = FrameProfiler.enter(FrameProfiler.Phase.COLLISION);
+            checkCollision();
+            FrameProfiler.exit(FrameProfiler.Phase.COLLISION, collision);
+        } finally {
+            FrameProfiler.exit(FrameProfiler.Phase.PROJECTILES, t);
+        }
     }
 
     /**
@@ -70,37 +104,9 @@ public class MagicProjectile extends Projectile {
      * @return the nearest {@code Bloon} to this projectile, or {@code null} if none exist
      */
     private Bloon getNearestBloon() {
-        World world = getWorld();
-        if (world == null) return null; 
-        List<Bloon> bloons = world.getObjects(Bloon.class);
-        if (bloons == null || bloons.isEmpty()) return null;
-
-        Bloon nearest = null;
-        double minDist = Double.MAX_VALUE;
-
-        for (Bloon b : bloons) {
-            if (b == null || b.getWorld() == null) continue;
-            double d = getDistance(getX(), getY(), b.getX(), b.getY());
-            if (d < minDist) {
-                minDist = d;
-                nearest = b;
-            }
-        }
-        return nearest;
-    }
-    /**
-     * Calculates the Euclidean distance between two points.
-     *
-     * @param x1 x-coordinate of the first point
-     * @param y1 y-coordinate of the first point
-     * @param x2 x-coordinate of the second point
-     * @param y2 y-coordinate of the second point
-     * @return the straight-line distance between the two points
-     */
-    private double getDistance(double x1, double y1, double x2, double y2) {
-        double dx = x1 - x2;
-        double dy = y1 - y2;
-        return Math.sqrt(dx * dx + dy * dy);
+        BloonWorld world = BloonWorld.liveWorld(this);
+        if (world == null) return null;
+        return world.getBloonGrid().nearest(getX(), getY(), Double.MAX_VALUE);
     }
 
     /**
@@ -113,29 +119,21 @@ public class MagicProjectile extends Projectile {
      */
     @Override  
     protected void checkCollision() {
-        World world = getWorld();
+        BloonWorld world = BloonWorld.liveWorld(this);
         if (world == null) return;
 
-        List<Bloon> bloons = getIntersectingObjects(Bloon.class);
-        if (bloons == null || bloons.isEmpty()) return;
-
-        for (Bloon b : bloons) {
-            if (b == null) continue;
+        for (Bloon b : getTouchingBloons()) {
+            if (b == null || BloonWorld.liveWorld(b) == null) continue;
         
             if (b.isImmuneTo(DamageType.MAGIC)) {
-                GreenfootSound immuneSound = new GreenfootSound("PurpleSound.wav");
-                immuneSound.setVolume(40);
-                immuneSound.play();
-        
-                if (getWorld() != null) {
-                    world.removeObject(this);
-                    return;
-                }
+                SoundManager.play(SoundManager.Clip.PURPLE, 40);
+                world.despawn(this);
+                return;
             } else {
                 b.takeDamage(1, DamageType.MAGIC);
                 pierce--;
-                if (pierce <= 0 && getWorld() != null) {
-                    world.removeObject(this);
+                if (pierce <= 0) {
+                    world.despawn(this);
                     return;
                 }
             }
@@ -1,5 +1,7 @@
 import greenfoot.*;
-import java.util.List;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 /**
  * The {@code Monkey} class is the abstract base for all monkey units in the game.
  * <p>
@@ -14,10 +16,12 @@ import java.util.List;
  *   <li>Automatic targeting and projectile firing</li>
  *   <li>Dynamic movement logic when bloons are or aren’t present</li>
  *   <li>Health and death management</li>
- *   <li>Flexible projectile system using reflection or subclass creation</li>
+ *   <li>Flexible projectile system using {@link ProjectileType} factories or subclass creation</li>
  * </ul>
  */
 public abstract class Monkey extends SuperSmoothMover {
+    /** The kind of monkey, source of its base stats. */
+    private final MonkeyType type;
     /** Current health of the monkey. When 0 or below, it dies. */
     protected int health;
     /** Maximum attack range (in pixels). */
@@ -26,8 +30,8 @@ public abstract class Monkey extends SuperSmoothMover {
     protected int fireRate; 
     /** Frame counter to track when the next shot can be fired. */
     protected int fireTimer;
-    /** The type of projectile this monkey fires. Must have a (Monkey, Bloon) constructor. */
-    protected Class<? extends Projectile> projectileType;
+    /** The type of projectile this monkey fires, or {@code null} for none. */
+    protected ProjectileType projectileType;
     
     /** Walking speed of the monkey when not attacking. */
     protected int speed;     
@@ -40,33 +44,97 @@ public abstract class Monkey extends SuperSmoothMover {
     /** Y-coordinate at which monkey should despawn (optional) */
     private int despawnY = -1;
 
+    /**
+     * Creates a monkey with the stats and image of its type.
+     *
+     * @param type the kind of monkey
+     */
+    protected Monkey(MonkeyType type) {
+        this.type = type;
+        range = type.getRange();
+        fireRate = type.getFireRate();
+        health = type.getHealth();
+        speed = type.getSpeed();
+        projectileType = type.getProjectile();
+        setImage(type.getSprite().get());
+    }
+
+    /** @return the kind of monkey */
+    public MonkeyType getType() {
+        return type;
+    }
+
+    /**
+     * Writes this monkey's exact position, facing, health, fire timer, walking state and
+     * despawn target for a {@link WorldSnapshot}. Subclasses with timers of their own
+     * override this and call {@code super.writeState} first.
+     *
+     * @param out where to write
+     * @throws IOException if writing fails
+     */
+    void writeState(DataOutput out) throws IOException {
+        out.writeDouble(getPreciseX());
+        out.writeDouble(getPreciseY());
+        out.writeDouble(getPreciseRotation());
+        out.writeInt(health);
+        out.writeInt(fireTimer);
+        out.writeByte(moveDirection);
+        out.writeBoolean(waiting);
+        out.writeBoolean(initialized);
+        out.writeShort(despawnY);
+    }
+
+    /**
+     * Restores what {@link #writeState} wrote, once the monkey has been added to its world.
+     *
+     * @param in where to read from
+     * @throws IOException if reading fails
+     */
+    void readState(DataInput in) throws IOException {
+        setLocation(in.readDouble(), in.readDouble());
+        setRotation(in.readDouble());
+        health = in.readInt();
+        fireTimer = in.readInt();
+        moveDirection = in.readByte();
+        waiting = in.readBoolean();
+        initialized = in.readBoolean();
+        despawnY = in.readShort();
+    }
+
     /**
      * Default act method called every frame.
      * Handles movement, targeting, firing, death, and despawning.
      */
     @Override
     public void act() {
-        if (getWorld() == null) return;
-        if (!initialized) {
-            int r = getRotation();
-            moveDirection = (r >= 180) ? -1 : 1;
-            initialized = true;
-        }
-        fireTimer++;
-        boolean bloonsAhead = bloonsInFront();
-
-        if (bloonsAhead) {
-            waiting = true;
-            attackNearest();
-        } else {
-            waiting = false;
-            walkAcrossStreet();
-        }
+        long t = FrameProfiler.enter(FrameProfiler.Phase.MONKEYS);
+        try {
+            if (BloonWorld.liveWorld(this) == null) return;
+            if (!initialized) {
+                int r = getRotation();
+                moveDirection = (r >= 180) ? -1 : 1;
+                initialized = true;
+            }
+            fireTimer++;
+            boolean bloonsAhead = bloonsInFront();
 
-        checkDeath();
-        checkOutOfBounds();
-        if (despawnY != -1 && ((getRotation() == 90 && getY() >= despawnY) || (getRotation() == 270 && getY() <= despawnY))) {
-            getWorld().removeObject(this);
+            if (bloonsAhead) {
+                waiting = true;
+                attackNearest();
+            } else {
+                waiting = false;
+                walkAcrossStreet();
+            }
+
+            checkDeath();
+            checkOutOfBounds();
+            BloonWorld world = BloonWorld.liveWorld(this);
+            if (world != null && despawnY != -1
+                    && ((getRotation() == 90 && getY() >= despawnY) || (getRotation() == 270 && getY() <= despawnY))) {
+                world.despawn(this);
+            }
+        } finally {
+            FrameProfiler.exit(FrameProfiler.Phase.MONKEYS, t);
         }
     }
 
@@ -76,20 +144,14 @@ public abstract class Monkey extends SuperSmoothMover {
      *
      * @return true if there are bloons ahead, false otherwise
      */
-    private boolean bloonsInFront() {
+    protected boolean bloonsInFront() {
         int lookDistance = 800; 
         int checkWidth = 150; 
 
-        List<Bloon> bloons = getWorld().getObjects(Bloon.class);
-        for (Bloon b : bloons) {
-            double dx = b.getX() - getX();
-            double dy = Math.abs(b.getY() - getY());
-
-            if (dx > 0 && dx < lookDistance && dy < checkWidth) {
-                return true; 
-            }
-        }
-        return false;
+        BloonWorld world = BloonWorld.liveWorld(this);
+        if (world == null) return false;
+        BloonGrid grid = world.getBloonGrid();
+        return grid.hasBloonInRect(getX(), getY() - checkWidth, getX() + lookDistance, getY() + checkWidth);
     }
 
     /** Handles attacking logic */
@@ -111,8 +173,10 @@ public abstract class Monkey extends SuperSmoothMover {
             else setRotation(90); 
         }
         move(speed);
-            if (getX() < -getImage().getWidth()/2 || getX() > getWorld().getWidth() + getImage().getWidth()/2) {
-            getWorld().removeObject(this);
+        BloonWorld world = BloonWorld.liveWorld(this);
+        if (world == null) return;
+        if (getX() < -getImage().getWidth()/2 || getX() > world.getWidth() + getImage().getWidth()/2) {
+            world.cull(this, Culling.Reason.OUT_OF_BOUNDS);
         }
     }
 
@@ -122,20 +186,10 @@ public abstract class Monkey extends SuperSmoothMover {
      * @return nearest Bloon or null if none in range
      */
     protected Bloon getNearestBloon() {
-        List<Bloon> bloons = getObjectsInRange(range, Bloon.class);
-        if (bloons.isEmpty()) return null;
-
-        Bloon nearest = bloons.get(0);
-        double minDist = distanceTo(nearest);
-
-        for (Bloon b : bloons) {
-            double d = distanceTo(b);
-            if (d < minDist) {
-                minDist = d;
-                nearest = b;
-            }
-        }
-        return nearest;
+        BloonWorld world = BloonWorld.liveWorld(this);
+        if (world == null) return null;
+        BloonGrid grid = world.getBloonGrid();
+        return grid.nearest(getX(), getY(), range);
     }
 
     /**
@@ -153,14 +207,10 @@ public abstract class Monkey extends SuperSmoothMover {
      * @param target the bloon to attack
      */
     protected void fireAt(Bloon target) {
-        try {
-            Projectile p = projectileType
-                .getDeclaredConstructor(Monkey.class, Bloon.class)
-                .newInstance(this, target);
-            getWorld().addObject(p, getX(), getY());
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        BloonWorld world = BloonWorld.liveWorld(this);
+        if (world == null) return;
+        Projectile p = world.getProjectilePool().acquire(projectileType, this, target);
+        world.spawn(p, getX(), getY());
     }
 
     /**
@@ -169,23 +219,22 @@ public abstract class Monkey extends SuperSmoothMover {
      * @param dmg amount of damage taken
      */
     public void takeDamage(int dmg) {
+        BloonWorld world = BloonWorld.liveWorld(this);
+        if (world == null) return;
         health -= dmg;
-    
-        if (getWorld() != null) {
-            getWorld().addObject(new BloodEffect(), getX(), getY());
-        }
+        world.getEffects().blood(getX(), getY());
     
         if (health <= 0) die();
     }
 
 
     /**
-     * Removes this monkey from the world immediately.
+     * Removes this monkey from the world, at once or at the next world act if actors are acting.
      */
     protected void die() {
-        World world = getWorld();
+        BloonWorld world = BloonWorld.liveWorld(this);
         if (world != null) {
-            world.removeObject(this);
+            world.despawn(this);
         }
     }
 
@@ -193,15 +242,14 @@ public abstract class Monkey extends SuperSmoothMover {
      * Checks if the monkey should be removed due to death.
      */
     protected void checkDeath() {
-        if (health <= 0 && getWorld() != null) {
-            getWorld().removeObject(this);
-        }
+        if (health <= 0) die();
     }
     /** Remove if out of world bounds */
     protected void checkOutOfBounds() {
-        if (getWorld() == null) return;
-        if (getX() < 0 || getX() > getWorld().getWidth()) {
-            getWorld().removeObject(this);
+        BloonWorld world = BloonWorld.liveWorld(this);
+        if (world == null) return;
+        if (getX() < 0 || getX() > world.getWidth()) {
+            world.cull(this, Culling.Reason.OUT_OF_BOUNDS);
         }
     }
     /**
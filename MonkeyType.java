@@ -0,0 +1,86 @@
+import java.util.function.Supplier;
+
+/**
+ * Every monkey the world can spawn, each holding a factory for its actor class
+ * and its base stats.
+ * <p>
+ * Constants are in the order of the monkey ids rolled by
+ * {@code SpawnDirector.spawnMonkeys()}, so {@code values()[id]} picks the right one.
+ * The stats are read both by the {@link Monkey} actors and by {@link HeadlessSimulation}.
+ * </p>
+ */
+public enum MonkeyType {
+    DART(DartMonkey::new, 450, 50, 5, 5, ProjectileType.DART,
+            SpriteCache.sprite("Dart_Monkey.png", 67, 70)),
+    BOOMERANG(BoomerangMonkey::new, 500, 45, 10, 3, ProjectileType.BOOMERANG,
+            SpriteCache.sprite("Boomerang_Monkey.png", 71, 77)),
+    SUPER(SuperMonkey::new, 500, 4, 30, 2, ProjectileType.DART,
+            SpriteCache.sprite("Super_Monkey.png", 109, 104)),
+    WIZARD(WizardMonkey::new, 300, 30, 5, 3, ProjectileType.MAGIC,
+            SpriteCache.sprite("Wizard_Monkey.png", 67, 70)),
+    BOMB(BombTower::new, 300, 90, 8, 1, ProjectileType.BOMB,
+            SpriteCache.sprite("Bomb_Tower.png", 67, 70)),
+    ICE(IceMonkey::new, IceMonkey.FREEZE_RANGE, IceMonkey.COOLDOWN, 6, 2, null,
+            SpriteCache.sprite("Ice_Monkey.png", 67, 70));
+
+    /** Constructor reference for this monkey. */
+    private final Supplier<Monkey> factory;
+    /** Attack range in pixels. */
+    private final int range;
+    /** Frames between shots. */
+    private final int fireRate;
+    /** Starting health. */
+    private final int health;
+    /** Walking speed in pixels per frame. */
+    private final int speed;
+    /** Projectile fired, or {@code null} for none. */
+    private final ProjectileType projectile;
+    /** Shared image for this monkey. */
+    private final SpriteCache.Sprite sprite;
+
+    MonkeyType(Supplier<Monkey> factory, int range, int fireRate, int health, int speed,
+               ProjectileType projectile, SpriteCache.Sprite sprite) {
+        this.factory = factory;
+        this.range = range;
+        this.fireRate = fireRate;
+        this.health = health;
+        this.speed = speed;
+        this.projectile = projectile;
+        this.sprite = sprite;
+    }
+
+    /** @return attack range in pixels */
+    public int getRange() {
+        return range;
+    }
+
+    /** @return frames between shots */
+    public int getFireRate() {
+        return fireRate;
+    }
+
+    /** @return starting health */
+    public int getHealth() {
+        return health;
+    }
+
+    /** @return walking speed in pixels per frame */
+    public int getSpeed() {
+        return speed;
+    }
+
+    /** @return the projectile this monkey fires, or {@code null} for none */
+    public ProjectileType getProjectile() {
+        return projectile;
+    }
+
+    /** @return the shared sprite for this monkey */
+    public SpriteCache.Sprite getSprite() {
+        return sprite;
+    }
+
+    /** @return a new monkey of this type, not yet added to a world */
+    public Monkey create() {
+        return factory.get();
+    }
+}
@@ -0,0 +1,302 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs a matrix of balance configurations and seeds as independent
+ * {@link HeadlessSimulation}s on every core, and collects their outcomes in one CSV file.
+ * <p>
+ * Tuning used to mean editing a monkey or bloon constructor and watching the GUI. A sweep
+ * instead lists the values to try for each parameter (see {@link SimulationConfig} for the
+ * keys) and the seeds to try them with; every combination is run once per seed. Runs share
+ * nothing but the read-only type tables, so they are handed to a fixed thread pool with one
+ * thread per core and need no locking. Each finished run is written as one CSV row at once,
+ * so a long sweep can be watched, or its partial results kept if it is stopped.
+ * </p>
+ *
+ * <p>Sweep file format, one {@code key=value} per line, {@code #} starting a comment:</p>
+ * <pre>
+ * ticks=36000
+ * seeds=1..20
+ * monkey.DART.fireRate=50,40,30
+ * monkey.ICE.range=200,250
+ * bloon.CERAMIC.health=10,14
+ * ladder.scale=1,1.5
+ * schedule=waves/default.txt,waves/moab-rush.txt
+ * </pre>
+ * <p>
+ * {@code seeds} takes a list, a range {@code a..b}, or both, comma separated. That file
+ * describes 3 &times; 2 &times; 2 &times; 2 &times; 2 configurations &times; 20 seeds = 960 runs.
+ * </p>
+ *
+ * <p>Each row holds the run number, seed and parameter values, then ticks, ticks per second,
+ * peak live bloons and projectiles, monkey deaths, bloons leaked, pops per tier and deaths per
+ * monkey type. Rows appear in the order runs finish; sort on {@code run} for a stable order.
+ * Ticks per second is measured per run, with the other runs competing for the same cores.</p>
+ *
+ * <p>Usage: {@code java ParameterSweep <sweepFile> <resultFile> [threads]}.</p>
+ */
+public class ParameterSweep {
+    private static final BloonType[] TIERS = BloonType.values();
+    private static final MonkeyType[] MONKEYS = MonkeyType.values();
+
+    private final int ticks;
+    private final long[] seeds;
+    /** Parameters varied, in the order they vary: the last one changes fastest. */
+    private final List<String> keys = new ArrayList<>();
+    /** Values tried for each of {@link #keys}. */
+    private final List<String[]> values = new ArrayList<>();
+    /** Each schedule file the sweep tries, loaded once and shared by every run that uses it. */
+    private final Map<String, WaveSchedule> schedules = new HashMap<>();
+
+    /**
+     * Creates a sweep that runs the table values with every seed, until parameters are varied.
+     *
+     * @param ticks ticks per run
+     * @param seeds seeds each configuration is run with
+     */
+    public ParameterSweep(int ticks, long[] seeds) {
+        if (ticks <= 0 || seeds.length == 0) throw new IllegalArgumentException("A sweep needs ticks and seeds");
+        this.ticks = ticks;
+        this.seeds = seeds.clone();
+    }
+
+    /**
+     * Adds a parameter to the matrix.
+     *
+     * @param key     a {@link SimulationConfig} parameter key
+     * @param options values to try
+     * @throws IllegalArgumentException if the key or any value is not valid, or the key is
+     *                                  already varied
+     */
+    public void vary(String key, String... options) {
+        if (keys.contains(key)) throw new IllegalArgumentException("Parameter listed twice: " + key);
+        if (options.length == 0) throw new IllegalArgumentException("No values for " + key);
+        SimulationConfig check = new SimulationConfig();
+        for (String option : options) {
+            check.set(key, option);
+            if (key.equals("schedule")) schedules.put(option, check.getSchedule());
+        }
+        keys.add(key);
+        values.add(options.clone());
+    }
+
+    /**
+     * Reads a sweep file (format in the class description).
+     *
+     * @param file the sweep file
+     * @return the sweep it describes
+     * @throws IOException if the file cannot be read or is not valid
+     */
+    public static ParameterSweep read(Path file) throws IOException {
+        int ticks = HeadlessSimulation.DEFAULT_TICKS;
+        long[] seeds = null;
+        List<String> paramKeys = new ArrayList<>();
+        List<String[]> paramOptions = new ArrayList<>();
+        int lineNumber = 0;
+        for (String line : Files.readAllLines(file)) {
+            lineNumber++;
+            int hash = line.indexOf('#');
+            if (hash >= 0) line = line.substring(0, hash);
+            line = line.trim();
+            if (line.isEmpty()) continue;
+            int eq = line.indexOf('=');
+            if (eq < 0) throw new IOException(file + ":" + lineNumber + ": expected key=value");
+            String key = line.substring(0, eq).trim();
+            String[] options = line.substring(eq + 1).split(",");
+            for (int i = 0; i < options.length; i++) options[i] = options[i].trim();
+            try {
+                if (key.equals("ticks")) {
+                    ticks = Integer.parseInt(options[0]);
+                } else if (key.equals("seeds")) {
+                    seeds = parseSeeds(options);
+                } else {
+                    paramKeys.add(key);
+                    paramOptions.add(options);
+                }
+            } catch (NumberFormatException e) {
+                throw new IOException(file + ":" + lineNumber + ": not a number", e);
+            }
+        }
+        if (seeds == null) throw new IOException(file + ": no seeds listed");
+
+        try {
+            ParameterSweep sweep = new ParameterSweep(ticks, seeds);
+            for (int i = 0; i < paramKeys.size(); i++) sweep.vary(paramKeys.get(i), paramOptions.get(i));
+            return sweep;
+        } catch (IllegalArgumentException e) {
+            throw new IOException(file + ": " + e.getMessage(), e);
+        }
+    }
+
+    /** Expands a seed list such as {@code 1..5,42}. */
+    private static long[] parseSeeds(String[] options) {
+        List<Long> list = new ArrayList<>();
+        for (String option : options) {
+            int dots = option.indexOf("..");
+            if (dots < 0) {
+                list.add(Long.parseLong(option));
+                continue;
+            }
+            long from = Long.parseLong(option.substring(0, dots).trim());
+            long to = Long.parseLong(option.substring(dots + 2).trim());
+            for (long s = from; s <= to; s++) list.add(s);
+        }
+        long[] seeds = new long[list.size()];
+        for (int i = 0; i < seeds.length; i++) seeds[i] = list.get(i);
+        return seeds;
+    }
+
+    /** @return number of runs: every configuration once per seed */
+    public int size() {
+        int n = seeds.length;
+        for (String[] v : values) n = Math.multiplyExact(n, v.length);
+        return n;
+    }
+
+    /**
+     * Builds the configuration of one run.
+     *
+     * @param run run number, from {@code 0} to {@link #size()}{@code  - 1}
+     * @return its balance parameters
+     */
+    public SimulationConfig config(int run) {
+        SimulationConfig config = new SimulationConfig();
+        String[] chosen = chosen(run);
+        for (int k = 0; k < chosen.length; k++) {
+            if (keys.get(k).equals("schedule")) config.setSchedule(schedules.get(chosen[k]));
+            else config.set(keys.get(k), chosen[k]);
+        }
+        return config;
+    }
+
+    /** @return the value of each varied parameter in a run, in the order of {@link #keys} */
+    private String[] chosen(int run) {
+        String[] chosen = new String[keys.size()];
+        int combination = run / seeds.length;
+        for (int k = keys.size() - 1; k >= 0; k--) {
+            String[] v = values.get(k);
+            chosen[k] = v[combination % v.length];
+            combination /= v.length;
+        }
+        return chosen;
+    }
+
+    /**
+     * @param run run number
+     * @return the seed it runs with
+     */
+    public long seed(int run) {
+        return seeds[run % seeds.length];
+    }
+
+    /**
+     * Runs every configuration with every seed and writes one row per run as it finishes.
+     *
+     * @param resultFile where to write the CSV; replaced if it exists
+     * @param threads    runs at a time, usually the number of cores
+     * @throws IOException          if the file cannot be written or a run failed
+     * @throws InterruptedException if interrupted while waiting for runs; the runs left are dropped
+     */
+    public void run(Path resultFile, int threads) throws IOException, InterruptedException {
+        int total = size();
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "sweep-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        CompletionService<String> finished = new ExecutorCompletionService<>(pool);
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(resultFile))) {
+            for (int run = 0; run < total; run++) {
+                int r = run;
+                finished.submit(() -> runOne(r));
+            }
+            out.println(header());
+            out.flush();
+
+            long start = System.nanoTime();
+            int step = Math.max(1, total / 20);
+            for (int done = 1; done <= total; done++) {
+                out.println(finished.take().get());
+                out.flush();
+                if (done % step == 0 || done == total) {
+                    System.err.printf(Locale.ROOT, "%d/%d runs, %.0fs%n", done, total,
+                                      (System.nanoTime() - start) / 1e9);
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new IOException("A run failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /** Runs one simulation and formats its row. Called on a pool thread. */
+    private String runOne(int run) {
+        SimulationConfig config = config(run);
+        HeadlessSimulation sim = new HeadlessSimulation(seed(run), config);
+        sim.run(ticks);
+        return row(run, sim.getStats());
+    }
+
+    private String header() {
+        StringBuilder sb = new StringBuilder("run,seed");
+        for (String key : keys) sb.append(',').append(key);
+        sb.append(",ticks,ticksPerSecond,peakBloons,peakProjectiles,monkeyDeaths,bloonsLeaked");
+        for (BloonType t : TIERS) sb.append(",popped.").append(t);
+        for (MonkeyType t : MONKEYS) sb.append(",killed.").append(t);
+        return sb.toString();
+    }
+
+    private String row(int run, SimulationStats stats) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(run).append(',').append(seed(run));
+        for (String c : chosen(run)) sb.append(',').append(c);
+
+        long deaths = 0;
+        for (MonkeyType t : MONKEYS) deaths += stats.getKilled(t);
+        long leaked = 0;
+        for (BloonType t : TIERS) leaked += stats.getLeaked(t);
+        sb.append(',').append(stats.getTicks())
+          .append(',').append(String.format(Locale.ROOT, "%.0f", stats.getTicksPerSecond()))
+          .append(',').append(stats.getPeakBloons())
+          .append(',').append(stats.getPeakProjectiles())
+          .append(',').append(deaths)
+          .append(',').append(leaked);
+        for (BloonType t : TIERS) sb.append(',').append(stats.getPopped(t));
+        for (MonkeyType t : MONKEYS) sb.append(',').append(stats.getKilled(t));
+        return sb.toString();
+    }
+
+    /**
+     * Runs a sweep file.
+     *
+     * @param args sweep file, result file, and optionally the number of threads
+     *             (default: one per core)
+     * @throws Exception if the sweep cannot be read, written or completed
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: java ParameterSweep <sweepFile> <resultFile> [threads]");
+            System.exit(2);
+        }
+        ParameterSweep sweep = read(Paths.get(args[0]));
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        System.err.println(sweep.size() + " runs of " + sweep.ticks + " ticks on " + threads + " threads");
+        sweep.run(Paths.get(args[1]), threads);
+    }
+}
@@ -0,0 +1,206 @@
+import java.util.Arrays;
+import java.util.function.ToIntFunction;
+
+/**
+ * Resolves a popped bloon into the bloons that survive it, walking the tier tree in
+ * {@link BloonType} instead of creating every layer in between.
+ * <p>
+ * Damage beyond what a bloon needed to pop carries over to each of its children. A child
+ * that the leftover damage also pops is never created; its own children are resolved in
+ * its place with what is left. Only the bloons that survive (the leaves of the walk) are
+ * created, and they are spawned together once the walk is done. With the 1-damage hits
+ * monkeys deal today nothing carries over and every pop releases its direct children, but
+ * a heavier hit on a Moab goes straight to whatever is left of it.
+ * </p>
+ *
+ * <p>Rules kept from the per-tier pop code this replaces:</p>
+ * <ul>
+ *   <li>Two children spawn 12 pixels either side of the parent, four children
+ *       (Moab) 10 and 30 pixels either side, a single child in its place.</li>
+ *   <li>A single child inherits the rest of its parent's freeze; split pops do not.</li>
+ *   <li>A child immune to the damage type stops the carry-over.</li>
+ *   <li>One pop effect per resolved pop, not per layer. Single-child tiers and the Moab
+ *       show it, Black and Ceramic only play its sound, and the rest pop silently.</li>
+ * </ul>
+ *
+ * <p>
+ * Each {@link BloonWorld} owns one cascade. The walk itself ({@link #resolve}) only deals in
+ * {@link BloonType}s, so the headless engine can resolve its pops with one of its own. Leaves
+ * are pushed onto a stack and popped off once spawned, so a pop that starts while another's
+ * leaves are being spawned keeps its own.
+ * </p>
+ *
+ * <p>
+ * Leaves go through {@link BloonWorld#spawn}, so a bloon popped while actors act leaves
+ * children that are only queued until the next frame: no projectile can hit them and the
+ * grid does not list them before then. {@link IceBlastEffect} freezes the queued ones within
+ * its radius itself, and {@link HeadlessSimulation} holds its children back to the end of
+ * the tick the same way.
+ * </p>
+ */
+public final class PopCascade {
+    /** Horizontal spawn offsets of the children, by number of children. */
+    private static final int[][] CHILD_OFFSETS = {
+        {},
+        {0},
+        {-12, 12},
+        {-20, 0, 20},
+        {-30, -10, 10, 30}
+    };
+
+    /** Hits each tier needs to pop, for deciding which children the leftover damage pops too. */
+    private final ToIntFunction<BloonType> health;
+
+    // --- Leaf stack: tier, x, preset damage and inherited freeze of each surviving bloon ---
+    private BloonType[] leafType = new BloonType[16];
+    private int[] leafX = new int[16];
+    private int[] leafDamage = new int[16];
+    private int[] leafFreeze = new int[16];
+    private int leafCount = 0;
+
+    /**
+     * Creates a cascade that pops children at the health of the {@link BloonType} table.
+     */
+    public PopCascade() {
+        this(BloonType::getHealth);
+    }
+
+    /**
+     * Creates a cascade that pops children at other health values, such as a
+     * {@link SimulationConfig}'s.
+     *
+     * @param health hits each tier needs to pop
+     */
+    public PopCascade(ToIntFunction<BloonType> health) {
+        this.health = health;
+    }
+
+    /**
+     * Pops a bloon and spawns whatever survives of it.
+     *
+     * @param bloon    the bloon that just lost its last health
+     * @param overkill damage left over after its health reached zero
+     * @param damage   the damage type that popped it, for the children's immunities
+     */
+    public void pop(Bloon bloon, int overkill, DamageType damage) {
+        BloonWorld world = BloonWorld.liveWorld(bloon);
+        if (world == null) return;
+
+        BloonType type = bloon.getType();
+        int x = bloon.getX();
+        int y = bloon.getY();
+        int freeze = bloon.isFrozen() ? bloon.getRemainingFreeze() : 0;
+
+        int first = resolve(type, x, overkill, damage, freeze);
+        for (int i = first; i < leafCount; i++) {
+            Bloon leaf = leafType[i].create(bloon.getDirection(), bloon.getLaneY());
+            if (leafDamage[i] > 0) leaf.presetDamage(leafDamage[i]);
+            if (leafFreeze[i] > 0) leaf.applyFreeze(leafFreeze[i]);
+            world.spawn(leaf, leafX[i], y);
+        }
+        discard(first);
+
+        showPop(world, type, x, y);
+        world.despawn(bloon);
+    }
+
+    /**
+     * Walks the tier tree below a popped bloon and pushes the bloons that survive it.
+     * Read them with the {@code getLeaf} methods from the returned index up to
+     * {@link #size()}, then hand that index to {@link #discard}.
+     *
+     * @param type     tier of the popped bloon
+     * @param x        its x-coordinate
+     * @param overkill damage left over after its health reached zero
+     * @param damage   the damage type that popped it
+     * @param freeze   frames of freeze it had left, {@code 0} if not frozen
+     * @return index of the first leaf pushed
+     */
+    public int resolve(BloonType type, int x, int overkill, DamageType damage, int freeze) {
+        int first = leafCount;
+        release(type, x, Math.max(0, overkill), damage, freeze);
+        return first;
+    }
+
+    /** @return number of leaves on the stack */
+    public int size() {
+        return leafCount;
+    }
+
+    /** @return tier of leaf {@code i} */
+    public BloonType getLeafType(int i) {
+        return leafType[i];
+    }
+
+    /** @return x-coordinate leaf {@code i} spawns at */
+    public int getLeafX(int i) {
+        return leafX[i];
+    }
+
+    /** @return damage leaf {@code i} starts with, {@code 0} for none */
+    public int getLeafDamage(int i) {
+        return leafDamage[i];
+    }
+
+    /** @return frames of freeze leaf {@code i} inherits, {@code 0} for none */
+    public int getLeafFreeze(int i) {
+        return leafFreeze[i];
+    }
+
+    /**
+     * Pops leaves off the stack once they are spawned.
+     *
+     * @param first the index {@link #resolve} returned
+     */
+    public void discard(int first) {
+        Arrays.fill(leafType, first, leafCount, null);
+        leafCount = first;
+    }
+
+    /**
+     * Resolves the children of a popped tier: those the leftover damage also pops are
+     * walked in turn, the rest are pushed as leaves.
+     */
+    private void release(BloonType parent, int x, int overkill, DamageType damage, int freeze) {
+        int count = parent.getChildCount();
+        int childFreeze = count == 1 ? freeze : 0;
+        for (int i = 0; i < count; i++) {
+            BloonType child = parent.getChild(i);
+            int cx = x + CHILD_OFFSETS[count][i];
+            boolean hurt = overkill > 0 && !child.ignores(damage, 0);
+            int childHealth = health.applyAsInt(child);
+            if (hurt && overkill >= childHealth) {
+                release(child, cx, overkill - childHealth, damage, childFreeze);
+                continue;
+            }
+            addLeaf(child, cx, hurt ? overkill : 0, childFreeze);
+        }
+    }
+
+    /** Plays the pop feedback of the tier that was actually hit. */
+    private static void showPop(BloonWorld world, BloonType type, int x, int y) {
+        if (type == BloonType.MOAB) {
+            SoundManager.play(SoundManager.Clip.MOAB_POP, 75);
+            world.getEffects().pop(x, y);
+        } else if (type.getChildCount() == 1) {
+            world.getEffects().pop(x, y);
+        } else if (type == BloonType.BLACK || type == BloonType.CERAMIC) {
+            SoundManager.play(SoundManager.Clip.POP, 20);
+        }
+    }
+
+    private void addLeaf(BloonType type, int x, int damage, int freeze) {
+        if (leafCount == leafType.length) {
+            int n = leafCount * 2;
+            leafType = Arrays.copyOf(leafType, n);
+            leafX = Arrays.copyOf(leafX, n);
+            leafDamage = Arrays.copyOf(leafDamage, n);
+            leafFreeze = Arrays.copyOf(leafFreeze, n);
+        }
+        leafType[leafCount] = type;
+        leafX[leafCount] = x;
+        leafDamage[leafCount] = damage;
+        leafFreeze[leafCount] = freeze;
+        leafCount++;
+    }
+}
@@ -0,0 +1,68 @@
+import greenfoot.*;
+
+/**
+ * On-screen readout of the {@link FrameProfiler}: p50/p95/p99 per phase in milliseconds,
+ * followed by the most numerous actor classes.
+ * <p>
+ * The text is redrawn every {@link #REFRESH_FRAMES} frames rather than every frame, so
+ * the overlay itself barely shows up in the numbers. It sits in the empty strip above the
+ * top sidewalk.
+ * </p>
+ */
+public class ProfilerOverlay extends Actor {
+    /** Frames between redraws. */
+    private static final int REFRESH_FRAMES = 30;
+    private static final int LINE_HEIGHT = 12;
+    static final int WIDTH = 420;
+    /** Header row plus one row per profiled phase, with a little room for descenders. */
+    static final int HEIGHT = LINE_HEIGHT * (FrameProfiler.Phase.values().length + 1) + 6;
+    private static final Color BACKGROUND = new Color(0, 0, 0, 170);
+    private static final Font FONT = new Font("Monospaced", false, false, 11);
+
+    private final GreenfootImage image = new GreenfootImage(WIDTH, HEIGHT);
+    private int timer = 0;
+
+    public ProfilerOverlay() {
+        redraw();
+    }
+
+    @Override
+    public void act() {
+        if (++timer >= REFRESH_FRAMES) {
+            timer = 0;
+            redraw();
+        }
+    }
+
+    private void redraw() {
+        image.clear();
+        image.setColor(BACKGROUND);
+        image.fill();
+        image.setFont(FONT);
+        image.setColor(Color.WHITE);
+
+        int y = LINE_HEIGHT;
+        image.drawString(String.format("%-12s %7s %7s %7s   frames=%d%s", "phase (ms)", "p50", "p95", "p99",
+                FrameProfiler.getFrameCount(), FrameProfiler.isCsvActive() ? "  [csv]" : ""), 6, y);
+        for (FrameProfiler.Phase p : FrameProfiler.Phase.values()) {
+            y += LINE_HEIGHT;
+            image.drawString(String.format("%-12s %7.2f %7.2f %7.2f", p.name().toLowerCase(),
+                    ms(FrameProfiler.percentile(p, 50)),
+                    ms(FrameProfiler.percentile(p, 95)),
+                    ms(FrameProfiler.percentile(p, 99))), 6, y);
+        }
+
+        // Class counts in a second column
+        int cy = LINE_HEIGHT * 2;
+        for (String count : FrameProfiler.getClassCounts()) {
+            if (cy > HEIGHT - 4) break;
+            image.drawString(count, 300, cy);
+            cy += LINE_HEIGHT;
+        }
+        setImage(image);
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1e6;
+    }
+}
@@ -1,4 +1,7 @@
 import greenfoot.*;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 /**
  * Represents a projectile fired by a {@link Monkey} toward a {@link Bloon}.
  * <p>
@@ -11,7 +14,10 @@ import greenfoot.*;
  * <h2>Features:</h2>
  * <ul>
  *   <li>Moves toward its assigned target each frame.</li>
- *   <li>Removes itself when colliding with a Bloon or leaving the world bounds.</li>
+ *   <li>Removes itself when colliding with a Bloon. Hits are circle tests against the
+ *       candidates the world's {@link CollisionSweep} paired it with this frame.</li>
+ *   <li>Is culled as soon as it leaves the playfield or outlives its range or lifetime
+ *       (see {@link Culling}).</li>
  *   <li>Prevents double-hit issues using an internal {@code hasHit} flag.</li>
  * </ul>
  *
@@ -27,7 +33,16 @@ public abstract class Projectile extends Actor {
     protected Bloon target;
 
     /** The movement speed of the projectile (in pixels per frame). */
-    protected int speed = 8;
+    protected int speed = ProjectileType.DART.getSpeed();
+
+    /** The type whose range and lifetime limit this projectile's flight. */
+    protected ProjectileType type = ProjectileType.DART;
+
+    /** Pixels flown since this projectile was fired. */
+    private int travelled = 0;
+
+    /** Frames since this projectile was fired. */
+    private int age = 0;
 
     /** Cached reference to the world this projectile exists in. */
     protected World worldRef;
@@ -35,6 +50,16 @@ public abstract class Projectile extends Actor {
     /** Flag to ensure the projectile only hits once. */
     private boolean hasHit = false;
 
+    /** The pool this projectile returns to when removed, or {@code null} if not pooled. */
+    private ProjectileType poolType;
+
+    /** Slot in the world's collision sweep, valid while {@link #sweepGeneration} is current. */
+    private int sweepSlot = -1;
+    /** The sweep generation {@link #sweepSlot} was taken in. */
+    private int sweepGeneration;
+    /** Bloons found by the last collision check, reused between checks. */
+    private final List<Bloon> touching = new ArrayList<>();
+
     /**
      * Constructs a projectile fired from a given source toward a target Bloon.
      *
@@ -46,16 +71,84 @@ public abstract class Projectile extends Actor {
         this.target = target;
     }
 
+    /**
+     * Prepares a pooled projectile for another shot, as if it had just been constructed.
+     * Subclasses that keep per-shot state must override this and call {@code super.reset}.
+     *
+     * @param source The {@link Monkey} firing the projectile.
+     * @param target The {@link Bloon} the projectile is aimed at.
+     */
+    protected void reset(Monkey source, Bloon target) {
+        this.source = source;
+        this.target = target;
+        worldRef = null;
+        hasHit = false;
+        sweepSlot = -1;
+        travelled = 0;
+        age = 0;
+    }
+
+    /** @return the pool type this projectile belongs to, or {@code null} if not pooled */
+    public ProjectileType getPoolType() {
+        return poolType;
+    }
+
+    /**
+     * Marks this projectile as belonging to a {@link ProjectilePool}.
+     *
+     * @param type the pool type it should be returned to
+     */
+    void setPoolType(ProjectileType type) {
+        poolType = type;
+    }
+
+    /** @return the type whose range and lifetime limit this projectile's flight */
+    public ProjectileType getType() {
+        return type;
+    }
+
+    /**
+     * Writes this projectile's facing, flight so far and hit flag for a {@link WorldSnapshot}.
+     * Subclasses with per-shot state override this and call {@code super.writeState} first.
+     *
+     * @param out where to write
+     * @throws IOException if writing fails
+     */
+    void writeState(WorldSnapshot.Writer out) throws IOException {
+        out.writeShort(getRotation());
+        out.writeInt(travelled);
+        out.writeInt(age);
+        out.writeBoolean(hasHit);
+    }
+
+    /**
+     * Restores what {@link #writeState} wrote, once the projectile has been added to its world.
+     *
+     * @param in where to read from
+     * @throws IOException if reading fails
+     */
+    void readState(WorldSnapshot.Reader in) throws IOException {
+        setRotation(in.readShort());
+        travelled = in.readInt();
+        age = in.readInt();
+        hasHit = in.readBoolean();
+    }
+
     /**
      * Called automatically when the projectile is added to the world.
      * Stores a world reference and rotates the projectile toward its initial target.
+     * <p>
+     * Only the first add aims: the paint-order tracker re-adds actors whenever they
+     * swap depth, and a re-add must not change where a projectile is heading.
+     * </p>
      *
      * @param world The {@link World} this projectile was added to.
      */
     @Override
     public void addedToWorld(World world) {
+        boolean firstAdd = worldRef == null;
         worldRef = world;
-        if (target != null && target.getWorld() != null) {
+        if (firstAdd && target != null && target.getWorld() != null) {
             turnTowards(target.getX(), target.getY());
         }
     }
@@ -64,20 +157,27 @@ public abstract class Projectile extends Actor {
      * Called every frame to update projectile movement and handle collisions.
      * <ul>
      *   <li>Tracks and faces its target if available.</li>
-     *   <li>Moves forward at its defined speed.</li>
-     *   <li>Checks for collisions with Bloons and removes itself when hitting or exiting the world.</li>
+     *   <li>Moves forward at its defined speed, unless that gets it culled.</li>
+     *   <li>Checks for collisions with Bloons and removes itself when hitting.</li>
      * </ul>
      */
     @Override
     public void act() {
-        if (worldRef == null) return;
+        long t = FrameProfiler.enter(FrameProfiler.Phase.PROJECTILES);
+        try {
+            if (worldRef == null || BloonWorld.liveWorld(this) == null) return;
 
-        if (target != null && target.getWorld() != null) {
-            turnTowards(target.getX(), target.getY());
-        }
+            if (target != null && target.getWorld() != null) {
+                turnTowards(target.getX(), target.getY());
+            }
 
-        move(speed);
-        checkCollision();
+            if (!advance(speed)) return;
+            long collision = FrameProfiler.enter(FrameProfiler.Phase.COLLISION);
+            checkCollision();
+            FrameProfiler.exit(FrameProfiler.Phase.COLLISION, collision);
+        } finally {
+            FrameProfiler.exit(FrameProfiler.Phase.PROJECTILES, t);
+        }
     }
 
     /**
@@ -87,13 +187,79 @@ public abstract class Projectile extends Actor {
     protected void checkCollision() {
         if (worldRef == null || hasHit) return;
 
-        Bloon b = (Bloon) getOneIntersectingObject(Bloon.class);
+        Bloon b = getHitBloon();
         if (b != null) {
             b.takeDamage(1, DamageType.NORMAL);
             hasHit = true; 
-            if (getWorld() != null) {
-                getWorld().removeObject(this);
-            }
+            despawn();
+        }
+    }
+
+    /**
+     * Returns a bloon this projectile overlaps that has not already been popped this frame.
+     *
+     * @return a live bloon touching this projectile, or {@code null} if none
+     */
+    protected Bloon getHitBloon() {
+        for (Bloon b : getTouchingBloons()) {
+            if (BloonWorld.liveWorld(b) != null) return b;
         }
+        return null;
+    }
+
+    /**
+     * Returns every bloon whose hit circle overlaps this projectile's, including bloons
+     * popped earlier this frame, which callers skip.
+     *
+     * @return the touching bloons in x order; reused by the next call, so iterate it before
+     *         checking again
+     */
+    protected List<Bloon> getTouchingBloons() {
+        BloonWorld world = BloonWorld.liveWorld(this);
+        if (world == null) {
+            touching.clear();
+            return touching;
+        }
+        world.getCollisionSweep().collect(sweepSlot, sweepGeneration, getX(), getY(), type.getHitRadius(), touching);
+        return touching;
+    }
+
+    /**
+     * Enters this projectile into the frame's collision sweep, padded by the distance it
+     * flies before it checks.
+     *
+     * @param sweep the world's sweep, before {@link CollisionSweep#sweep()}
+     */
+    void addToSweep(CollisionSweep<Bloon> sweep) {
+        sweepSlot = sweep.addProjectile(getX(), getY(), type.getHitRadius(), type.getSpeed());
+        sweepGeneration = sweep.getGeneration();
+    }
+
+    /**
+     * Moves forward, then culls this projectile if that took it out of bounds or past its
+     * type's range or lifetime.
+     *
+     * @param distance pixels to move
+     * @return {@code true} if the projectile is still in flight
+     */
+    protected boolean advance(int distance) {
+        move(distance);
+        travelled += distance;
+        age++;
+        BloonWorld world = BloonWorld.liveWorld(this);
+        if (world == null) return false;
+        world.actorMoved(this);
+        Culling.Reason reason = Culling.check(type, getX(), getY(), world.getWidth(), world.getHeight(), travelled, age);
+        if (reason == null) return true;
+        world.cull(this, reason);
+        return false;
+    }
+
+    /**
+     * Removes this projectile from the world once it is spent.
+     */
+    protected void despawn() {
+        BloonWorld world = BloonWorld.liveWorld(this);
+        if (world != null) world.despawn(this);
     }
 }
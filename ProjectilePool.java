@@ -0,0 +1,138 @@
+import java.util.ArrayDeque;
+
+/**
+ * Recycles {@link Projectile} actors so monkeys do not allocate a new one per shot.
+ * <p>
+ * {@link Monkey#fireAt(Bloon)} asks the pool for a projectile of its {@link ProjectileType}.
+ * When a pooled projectile leaves the world (hit, pierce used up, out of bounds, cleanup),
+ * {@link BloonWorld#removeObject} hands it back, and the next shot of that type resets and
+ * reuses it. Each type keeps its own free list, capped at {@link #MAX_IDLE_PER_TYPE}.
+ * </p>
+ *
+ * <p>Per-type counters are kept so pool sizes can be tuned from real runs:</p>
+ * <ul>
+ *   <li><b>hits</b> - acquires served from the free list</li>
+ *   <li><b>misses</b> - acquires that had to construct a new projectile</li>
+ *   <li><b>returns</b> - released projectiles kept for reuse</li>
+ *   <li><b>discards</b> - released projectiles dropped because the free list was full</li>
+ *   <li><b>peak live</b> - most projectiles of the type in flight at once</li>
+ * </ul>
+ */
+public class ProjectilePool {
+    /** Maximum number of idle projectiles kept per type. */
+    public static final int MAX_IDLE_PER_TYPE = 128;
+
+    /** Idle projectiles, one free list per type (indexed by ordinal). */
+    private final ArrayDeque<Projectile>[] free;
+    private final long[] hits;
+    private final long[] misses;
+    private final long[] returns;
+    private final long[] discards;
+    /** Projectiles of each type currently out of the pool. */
+    private final int[] live;
+    private final int[] peakLive;
+
+    /**
+     * Creates an empty pool with a free list for every {@link ProjectileType}.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public ProjectilePool() {
+        int n = ProjectileType.values().length;
+        free = new ArrayDeque[n];
+        for (int i = 0; i < n; i++) {
+            free[i] = new ArrayDeque<>();
+        }
+        hits = new long[n];
+        misses = new long[n];
+        returns = new long[n];
+        discards = new long[n];
+        live = new int[n];
+        peakLive = new int[n];
+    }
+
+    /**
+     * Returns a projectile ready to be added to the world, reusing an idle one if possible.
+     *
+     * @param type   the kind of projectile to fire
+     * @param source the monkey firing it
+     * @param target the bloon it is aimed at
+     * @return a projectile that is not in any world
+     */
+    public Projectile acquire(ProjectileType type, Monkey source, Bloon target) {
+        int i = type.ordinal();
+        Projectile p = free[i].pollFirst();
+        if (p != null) {
+            hits[i]++;
+            p.reset(source, target);
+        } else {
+            misses[i]++;
+            p = type.create(source, target);
+            p.setPoolType(type);
+        }
+        live[i]++;
+        if (live[i] > peakLive[i]) peakLive[i] = live[i];
+        return p;
+    }
+
+    /**
+     * Takes back a projectile that just left the world. Projectiles that were not
+     * handed out by a pool are ignored.
+     *
+     * @param p the projectile that was removed
+     */
+    public void release(Projectile p) {
+        ProjectileType type = p.getPoolType();
+        if (type == null) return;
+        int i = type.ordinal();
+        live[i]--;
+        if (free[i].size() < MAX_IDLE_PER_TYPE) {
+            // Drop references to the old source, target and hit set while idle
+            p.reset(null, null);
+            free[i].addFirst(p);
+            returns[i]++;
+        } else {
+            discards[i]++;
+        }
+    }
+
+    /** @return acquires of {@code type} served from the free list */
+    public long getHits(ProjectileType type) { return hits[type.ordinal()]; }
+
+    /** @return acquires of {@code type} that constructed a new projectile */
+    public long getMisses(ProjectileType type) { return misses[type.ordinal()]; }
+
+    /** @return releases of {@code type} kept for reuse */
+    public long getReturns(ProjectileType type) { return returns[type.ordinal()]; }
+
+    /** @return releases of {@code type} dropped because the free list was full */
+    public long getDiscards(ProjectileType type) { return discards[type.ordinal()]; }
+
+    /** @return idle projectiles of {@code type} waiting to be reused */
+    public int getIdleCount(ProjectileType type) { return free[type.ordinal()].size(); }
+
+    /** @return projectiles of {@code type} currently in flight */
+    public int getLiveCount(ProjectileType type) { return live[type.ordinal()]; }
+
+    /** @return the most projectiles of {@code type} that were in flight at once */
+    public int getPeakLive(ProjectileType type) { return peakLive[type.ordinal()]; }
+
+    /**
+     * @return one line per projectile type with all counters, for logging or an overlay
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (ProjectileType t : ProjectileType.values()) {
+            int i = t.ordinal();
+            sb.append(t).append(": hits=").append(hits[i])
+              .append(" misses=").append(misses[i])
+              .append(" returns=").append(returns[i])
+              .append(" discards=").append(discards[i])
+              .append(" idle=").append(free[i].size())
+              .append(" live=").append(live[i])
+              .append(" peak=").append(peakLive[i])
+              .append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,92 @@
+import java.util.function.BiFunction;
+
+/**
+ * Every projectile a monkey can fire, each holding a factory for its actor class
+ * and its flight stats.
+ * <p>
+ * Replaces the reflective {@code getDeclaredConstructor(Monkey, Bloon)} lookup that
+ * {@link Monkey#fireAt(Bloon)} used to do on every shot. Sprite sizes are explicit
+ * (the natural size of the image where it is not scaled) so hit radii are known to
+ * {@link HeadlessSimulation} without loading any image.
+ * </p>
+ * <p>
+ * Range and lifetime are generous limits for {@link Culling}, not part of each
+ * projectile's flight: they only catch projectiles that have lost their target.
+ * </p>
+ */
+public enum ProjectileType {
+    //        factory               speed pierce range lifetime sprite
+    DART(Dart::new,                    8,   1,   1600,  240, SpriteCache.sprite("Dart.png", 57, 39)),
+    BOOMERANG(Boomerang::new,          8,   5,   2000,  300, SpriteCache.sprite("Boomerang.png", 29, 68)),
+    MAGIC(MagicProjectile::new,        7,  12,   2800,  420, SpriteCache.sprite("magic.png", 30, 30)),
+    BOMB(BombProjectile::new,          6,   1,   1600,  300, SpriteCache.sprite("bomb.png", 56, 56));
+
+    /** Constructor reference taking the firing monkey and its target. */
+    private final BiFunction<Monkey, Bloon, Projectile> factory;
+    /** Movement speed in pixels per frame. */
+    private final int speed;
+    /** Number of bloons one projectile can hit. */
+    private final int pierce;
+    /** Pixels a projectile may fly before it is culled. */
+    private final int range;
+    /** Frames a projectile may fly before it is culled. */
+    private final int lifetime;
+    /** Shared image for this projectile. */
+    private final SpriteCache.Sprite sprite;
+
+    ProjectileType(BiFunction<Monkey, Bloon, Projectile> factory, int speed, int pierce,
+                   int range, int lifetime, SpriteCache.Sprite sprite) {
+        this.factory = factory;
+        this.speed = speed;
+        this.pierce = pierce;
+        this.range = range;
+        this.lifetime = lifetime;
+        this.sprite = sprite;
+    }
+
+    /** @return movement speed in pixels per frame */
+    public int getSpeed() {
+        return speed;
+    }
+
+    /** @return number of bloons one projectile can hit */
+    public int getPierce() {
+        return pierce;
+    }
+
+    /** @return pixels a projectile may fly before it is culled */
+    public int getRange() {
+        return range;
+    }
+
+    /** @return frames a projectile may fly before it is culled */
+    public int getLifetime() {
+        return lifetime;
+    }
+
+    /** @return the shared sprite for this projectile */
+    public SpriteCache.Sprite getSprite() {
+        return sprite;
+    }
+
+    /**
+     * Returns the radius of the circle that hits bloons: the mean of the sprite's half width
+     * and half height, which holds whichever way the projectile is turned.
+     *
+     * @return hit radius in pixels, used by {@link CollisionSweep}
+     */
+    public double getHitRadius() {
+        return (sprite.getWidth() + sprite.getHeight()) / 4.0;
+    }
+
+    /**
+     * Creates a new projectile of this type.
+     *
+     * @param source the monkey firing the projectile
+     * @param target the bloon it is aimed at
+     * @return the new projectile, not yet added to a world
+     */
+    public Projectile create(Monkey source, Bloon target) {
+        return factory.apply(source, target);
+    }
+}
@@ -0,0 +1,135 @@
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Plays back a replay log written by a {@link ReplayRecorder}, in place of a
+ * {@link SpawnDirector}.
+ * <p>
+ * The log is small, so it is read into memory whole. Each {@link #tick} advances one frame
+ * and hands the spawns and ice blasts recorded for that frame to a host, in the order they
+ * were made. No random numbers are drawn and the host is never asked about its state, so
+ * the same decisions are replayed whatever the host does with them: a {@link BloonWorld}
+ * shows the session at any Greenfoot speed, and a {@link HeadlessSimulation} runs it as
+ * fast as the CPU allows.
+ * </p>
+ */
+public class ReplayPlayer {
+    private static final BloonType[] TIERS = BloonType.values();
+    private static final MonkeyType[] MONKEYS = MonkeyType.values();
+
+    private final ByteBuffer log;
+    private final long seed;
+    private final int width;
+    /** Frames played so far. */
+    private int frame = 0;
+    /** Frame of the next event, or {@code -1} once the log is exhausted. */
+    private int nextEventFrame;
+
+    private ReplayPlayer(ByteBuffer log) throws IOException {
+        this.log = log;
+        try {
+            if (log.getInt() != ReplayRecorder.MAGIC) throw new IOException("Not a replay log");
+            byte version = log.get();
+            if (version != ReplayRecorder.VERSION) {
+                throw new IOException("Unsupported replay log version " + version);
+            }
+            seed = log.getLong();
+            width = log.getShort();
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Replay log header is truncated", e);
+        }
+        nextEventFrame = readFrame(0);
+    }
+
+    /**
+     * Reads a replay log.
+     *
+     * @param file the log written by a {@link ReplayRecorder}
+     * @return a player positioned before the first frame
+     * @throws IOException if the file cannot be read or is not a replay log
+     */
+    public static ReplayPlayer open(Path file) throws IOException {
+        return new ReplayPlayer(ByteBuffer.wrap(Files.readAllBytes(file)));
+    }
+
+    /** @return the seed of the recorded session */
+    public long getSeed() {
+        return seed;
+    }
+
+    /** @return world width the session was recorded at */
+    public int getWidth() {
+        return width;
+    }
+
+    /** @return frames played so far */
+    public int getFrame() {
+        return frame;
+    }
+
+    /** @return whether every recorded event has been played */
+    public boolean isFinished() {
+        return nextEventFrame < 0;
+    }
+
+    /**
+     * Advances one frame and replays what was recorded for it.
+     *
+     * @param host where to spawn
+     */
+    public void tick(SpawnDirector.Host host) {
+        frame++;
+        while (nextEventFrame == frame) {
+            byte event = log.get();
+            try {
+                switch (event) {
+                    case ReplayRecorder.BLOON: {
+                        int b = log.get() & 0xFF;
+                        host.spawnBloon(TIERS[b >> 3], b & 7);
+                        break;
+                    }
+                    case ReplayRecorder.MONKEY: {
+                        int b = log.get() & 0xFF;
+                        int x = log.getShort();
+                        host.spawnMonkey(MONKEYS[b >> 1], (b & 1) != 0, x);
+                        break;
+                    }
+                    case ReplayRecorder.ICE_BLAST:
+                        host.triggerIceBlast();
+                        break;
+                    default:
+                        // END, or a record this version does not know
+                        nextEventFrame = -1;
+                        return;
+                }
+            } catch (BufferUnderflowException e) {
+                // Log cut off mid-record; play what was complete
+                nextEventFrame = -1;
+                return;
+            }
+            nextEventFrame = readFrame(frame);
+        }
+    }
+
+    /**
+     * Reads the frame delta of the next record.
+     *
+     * @return the frame of the next event, or {@code -1} at the end of the log
+     */
+    private int readFrame(int from) {
+        int delta = 0;
+        int shift = 0;
+        while (true) {
+            if (!log.hasRemaining()) return -1;
+            int b = log.get() & 0xFF;
+            delta |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) break;
+            shift += 7;
+        }
+        // The event byte must follow
+        return log.hasRemaining() ? from + delta : -1;
+    }
+}
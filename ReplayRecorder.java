@@ -0,0 +1,209 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records every decision a {@link SpawnDirector} makes to a compact binary replay log, so a
+ * session can be played back exactly with a {@link ReplayPlayer}.
+ * <p>
+ * The recorder sits between the director and the world as its {@link SpawnDirector.Host}:
+ * every bloon spawn, monkey spawn and ice blast is passed on to the real host and appended
+ * to the log. The act thread only writes a few bytes into a buffer; full buffers are handed
+ * to a single background thread that writes them to a {@link FileChannel}.
+ * </p>
+ *
+ * <p>Log format (big-endian):</p>
+ * <ul>
+ *   <li>Header: magic {@code "BLRP"}, version byte, seed ({@code long}), world width ({@code short}).</li>
+ *   <li>Then one record per event: frames since the previous event as a variable-length
+ *       int (7 bits per byte), an event byte, and its payload:
+ *     <ul>
+ *       <li>{@link #BLOON}: one byte, tier ordinal {@code << 3 |} lane.</li>
+ *       <li>{@link #MONKEY}: one byte, type ordinal {@code << 1 |} top sidewalk, then x ({@code short}).</li>
+ *       <li>{@link #ICE_BLAST}: nothing.</li>
+ *       <li>{@link #END}: nothing; marks the last frame of a closed log.</li>
+ *     </ul>
+ *   </li>
+ * </ul>
+ * <p>
+ * Most events take three bytes, so an hour-long session is a few tens of kilobytes. A log
+ * cut short (the program was killed) still plays back up to the last buffer written.
+ * </p>
+ */
+public class ReplayRecorder implements SpawnDirector.Host, Closeable {
+    /** {@code "BLRP"} in ASCII. */
+    static final int MAGIC = 0x424C5250;
+    static final byte VERSION = 1;
+    static final byte BLOON = 1;
+    static final byte MONKEY = 2;
+    static final byte ICE_BLAST = 3;
+    static final byte END = 4;
+
+    /** Bytes collected on the act thread before they are handed to the writer. */
+    private static final int BUFFER_SIZE = 4096;
+    /** Buffers in rotation; the act thread only waits if the writer falls this far behind. */
+    private static final int BUFFER_COUNT = 4;
+
+    private final SpawnDirector.Host host;
+    private final FileChannel channel;
+    private final ExecutorService writer;
+    /** Empty buffers ready to be filled. */
+    private final BlockingQueue<ByteBuffer> free = new ArrayBlockingQueue<>(BUFFER_COUNT);
+    private ByteBuffer buffer;
+    /** Frames recorded so far. */
+    private int frame = 0;
+    /** Frame of the last event written. */
+    private int lastEventFrame = 0;
+    /** First error from the writer thread; recording stops once one occurs. */
+    private volatile IOException failure;
+    private boolean closed = false;
+
+    /**
+     * Creates (or truncates) a log file and writes its header.
+     *
+     * @param host  the world that actually places what the director decides
+     * @param file  where to write the log; parent directories are created
+     * @param seed  the director's seed
+     * @param width world width in pixels
+     * @throws IOException if the file cannot be created
+     */
+    public ReplayRecorder(SpawnDirector.Host host, Path file, long seed, int width) throws IOException {
+        this.host = host;
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) Files.createDirectories(dir);
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                   StandardOpenOption.TRUNCATE_EXISTING);
+        writer = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "replay-writer");
+            t.setDaemon(true);
+            return t;
+        });
+        for (int i = 0; i < BUFFER_COUNT; i++) free.add(ByteBuffer.allocateDirect(BUFFER_SIZE));
+        buffer = free.poll();
+        buffer.putInt(MAGIC).put(VERSION).putLong(seed).putShort((short) width);
+    }
+
+    /**
+     * Advances the recorder's clock. Call once per frame, before the director ticks.
+     */
+    public void nextFrame() {
+        frame++;
+    }
+
+    /** @return frames recorded so far */
+    public int getFrame() {
+        return frame;
+    }
+
+    // --- SpawnDirector.Host ---
+
+    @Override
+    public int getMoabCount() {
+        return host.getMoabCount();
+    }
+
+    @Override
+    public boolean isLaneMouthBlocked(int lane) {
+        return host.isLaneMouthBlocked(lane);
+    }
+
+    @Override
+    public void spawnBloon(BloonType type, int lane) {
+        if (begin(BLOON, 1)) buffer.put((byte) (type.ordinal() << 3 | lane));
+        host.spawnBloon(type, lane);
+    }
+
+    @Override
+    public void spawnMonkey(MonkeyType type, boolean atTop, int x) {
+        if (begin(MONKEY, 3)) buffer.put((byte) (type.ordinal() << 1 | (atTop ? 1 : 0))).putShort((short) x);
+        host.spawnMonkey(type, atTop, x);
+    }
+
+    @Override
+    public void triggerIceBlast() {
+        begin(ICE_BLAST, 0);
+        host.triggerIceBlast();
+    }
+
+    // --- Writing ---
+
+    /**
+     * Hands everything recorded so far to the writer thread, e.g. when the world is paused.
+     */
+    public void flush() {
+        if (closed || failure != null || buffer.position() == 0) return;
+        submit();
+    }
+
+    /**
+     * Writes the end marker, waits for every buffer to reach the file and closes it.
+     *
+     * @throws IOException if any write failed
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        begin(END, 0);
+        flush();
+        closed = true;
+        writer.shutdown();
+        try {
+            writer.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        if (failure != null) throw failure;
+    }
+
+    /**
+     * Starts a record: the frame delta and the event byte, making room for the payload.
+     *
+     * @return {@code false} if recording has stopped and the payload must be skipped
+     */
+    private boolean begin(byte event, int payload) {
+        if (closed || failure != null) return false;
+        // Up to five bytes of delta, the event byte and the payload
+        if (buffer.remaining() < 6 + payload) submit();
+        int delta = frame - lastEventFrame;
+        lastEventFrame = frame;
+        while ((delta & ~0x7F) != 0) {
+            buffer.put((byte) ((delta & 0x7F) | 0x80));
+            delta >>>= 7;
+        }
+        buffer.put((byte) delta);
+        buffer.put(event);
+        return true;
+    }
+
+    /** Queues the current buffer for writing and takes an empty one. */
+    private void submit() {
+        ByteBuffer full = buffer;
+        full.flip();
+        writer.execute(() -> {
+            try {
+                while (full.hasRemaining()) channel.write(full);
+            } catch (IOException e) {
+                if (failure == null) failure = e;
+            }
+            full.clear();
+            free.add(full);
+        });
+        try {
+            buffer = free.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure = new IOException("Interrupted while waiting for the replay writer", e);
+            buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        }
+    }
+}
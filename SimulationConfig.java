@@ -0,0 +1,130 @@
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Balance parameters of one {@link HeadlessSimulation} run, starting from the values in
+ * the {@link MonkeyType} and {@link BloonType} tables.
+ * <p>
+ * The tables are shared by every run and by the actors, so they are never changed. A run
+ * that tries other numbers reads them from its own config instead, which lets a
+ * {@link ParameterSweep} run many differently tuned simulations side by side.
+ * </p>
+ *
+ * <p>Parameters, by the key a sweep file names them with:</p>
+ * <ul>
+ *   <li>{@code monkey.<TYPE>.fireRate}: frames between shots (between blasts for {@code ICE}).</li>
+ *   <li>{@code monkey.<TYPE>.range}: attack range in pixels (freeze range for {@code ICE}).</li>
+ *   <li>{@code monkey.<TYPE>.health}: starting health.</li>
+ *   <li>{@code bloon.<TIER>.health}: hits needed to pop.</li>
+ *   <li>{@code ladder.scale}: stretches the time each new bloon tier unlocks at;
+ *       {@code 2} unlocks them half as fast.</li>
+ *   <li>{@code schedule}: the {@link WaveSchedule} file to spawn by, so a sweep can compare
+ *       scenarios such as a Moab rush.</li>
+ * </ul>
+ */
+public class SimulationConfig {
+    private static final MonkeyType[] MONKEYS = MonkeyType.values();
+    private static final BloonType[] TIERS = BloonType.values();
+
+    private final int[] fireRate = new int[MONKEYS.length];
+    private final int[] range = new int[MONKEYS.length];
+    private final int[] monkeyHealth = new int[MONKEYS.length];
+    private final int[] bloonHealth = new int[TIERS.length];
+    private double ladderScale = 1.0;
+    private WaveSchedule schedule = WaveSchedule.defaults();
+
+    /**
+     * Creates a config holding the values of the type tables.
+     */
+    public SimulationConfig() {
+        for (MonkeyType t : MONKEYS) {
+            fireRate[t.ordinal()] = t.getFireRate();
+            range[t.ordinal()] = t.getRange();
+            monkeyHealth[t.ordinal()] = t.getHealth();
+        }
+        for (BloonType t : TIERS) bloonHealth[t.ordinal()] = t.getHealth();
+    }
+
+    /** @return frames between shots of {@code type} */
+    public int getFireRate(MonkeyType type) { return fireRate[type.ordinal()]; }
+
+    /** @return attack range of {@code type} in pixels */
+    public int getRange(MonkeyType type) { return range[type.ordinal()]; }
+
+    /** @return starting health of {@code type} */
+    public int getHealth(MonkeyType type) { return monkeyHealth[type.ordinal()]; }
+
+    /** @return hits a bloon of {@code type} needs to pop */
+    public int getHealth(BloonType type) { return bloonHealth[type.ordinal()]; }
+
+    /** @return how much slower than normal new bloon tiers unlock */
+    public double getLadderScale() { return ladderScale; }
+
+    /** @return the wave schedule to spawn by */
+    public WaveSchedule getSchedule() { return schedule; }
+
+    /**
+     * Spawns by an already loaded schedule, so runs that share one do not each read its file.
+     *
+     * @param schedule the wave schedule to spawn by
+     */
+    public void setSchedule(WaveSchedule schedule) {
+        if (schedule == null) throw new IllegalArgumentException("No schedule");
+        this.schedule = schedule;
+    }
+
+    /**
+     * Sets one parameter by its key.
+     *
+     * @param key   a key listed in the class description
+     * @param value the new value; an integer for everything but {@code ladder.scale}
+     *              and {@code schedule}
+     * @throws IllegalArgumentException if the key or value is not valid
+     */
+    public void set(String key, String value) {
+        String[] parts = key.split("\\.");
+        try {
+            if (key.equals("schedule")) {
+                schedule = WaveSchedule.load(value.trim());
+                return;
+            }
+            if (key.equals("ladder.scale")) {
+                double scale = Double.parseDouble(value);
+                if (!(scale > 0)) throw new IllegalArgumentException("ladder.scale must be positive: " + value);
+                ladderScale = scale;
+                return;
+            }
+            if (parts.length == 3 && parts[0].equals("monkey")) {
+                int i = MonkeyType.valueOf(parts[1]).ordinal();
+                switch (parts[2]) {
+                    case "fireRate": fireRate[i] = positive(key, value); return;
+                    case "range": range[i] = positive(key, value); return;
+                    case "health": monkeyHealth[i] = positive(key, value); return;
+                    default: break;
+                }
+            } else if (parts.length == 3 && parts[0].equals("bloon") && parts[2].equals("health")) {
+                bloonHealth[BloonType.valueOf(parts[1]).ordinal()] = positive(key, value);
+                return;
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a number for " + key + ": " + value, e);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot load " + key + ": " + e.getMessage(), e);
+        }
+        throw new IllegalArgumentException("Unknown parameter: " + key);
+    }
+
+    private static int positive(String key, String value) {
+        int v = Integer.parseInt(value.trim());
+        if (v <= 0) throw new IllegalArgumentException(key + " must be positive: " + value);
+        return v;
+    }
+
+    @Override
+    public String toString() {
+        return "fireRate=" + Arrays.toString(fireRate) + " range=" + Arrays.toString(range)
+                + " monkeyHealth=" + Arrays.toString(monkeyHealth)
+                + " bloonHealth=" + Arrays.toString(bloonHealth) + " ladderScale=" + ladderScale
+                + " schedule=" + schedule.getName();
+    }
+}
@@ -0,0 +1,157 @@
+import java.io.PrintWriter;
+
+/**
+ * Counters collected by a {@link HeadlessSimulation} run, written out as a plain-text
+ * summary when the run ends.
+ * <p>
+ * Every counter is a primitive array indexed by enum ordinal, so recording an event
+ * never allocates.
+ * </p>
+ *
+ * <p>The summary contains:</p>
+ * <ul>
+ *   <li>Seed, ticks simulated, wall-clock time and ticks per second.</li>
+ *   <li>Bloons spawned, popped and leaked, per tier.</li>
+ *   <li>Monkeys spawned, killed and safely across, per type.</li>
+ *   <li>Shots fired per projectile type.</li>
+ *   <li>Ice blasts and peak numbers of live bloons, monkeys and projectiles.</li>
+ * </ul>
+ */
+public class SimulationStats {
+    private final long[] bloonsSpawned = new long[BloonType.values().length];
+    private final long[] bloonsPopped = new long[BloonType.values().length];
+    private final long[] bloonsLeaked = new long[BloonType.values().length];
+    private final long[] monkeysSpawned = new long[MonkeyType.values().length];
+    private final long[] monkeysKilled = new long[MonkeyType.values().length];
+    private final long[] monkeysCrossed = new long[MonkeyType.values().length];
+    private final long[] shots = new long[ProjectileType.values().length];
+    private final Culling culling = new Culling();
+    private long monkeyDamageTaken = 0;
+    private long worldIceBlasts = 0;
+    private long monkeyIceBlasts = 0;
+    private int peakBloons = 0;
+    private int peakMonkeys = 0;
+    private int peakProjectiles = 0;
+    private long seed = 0;
+    private long ticks = 0;
+    private long wallNanos = 0;
+
+    /** @param type tier of a bloon that entered a lane */
+    public void bloonSpawned(BloonType type) { bloonsSpawned[type.ordinal()]++; }
+
+    /** @param type tier of a bloon that was popped */
+    public void bloonPopped(BloonType type) { bloonsPopped[type.ordinal()]++; }
+
+    /** @param type tier of a bloon that left the far end of its lane */
+    public void bloonLeaked(BloonType type) { bloonsLeaked[type.ordinal()]++; }
+
+    /** @param type kind of monkey that stepped onto a sidewalk */
+    public void monkeySpawned(MonkeyType type) { monkeysSpawned[type.ordinal()]++; }
+
+    /** @param type kind of monkey that ran out of health */
+    public void monkeyKilled(MonkeyType type) { monkeysKilled[type.ordinal()]++; }
+
+    /** @param type kind of monkey that reached the opposite sidewalk */
+    public void monkeyCrossed(MonkeyType type) { monkeysCrossed[type.ordinal()]++; }
+
+    /** @param type kind of projectile fired */
+    public void shotFired(ProjectileType type) { shots[type.ordinal()]++; }
+
+    /** @param reason the {@link Culling} rule a projectile broke */
+    public void culled(Culling.Reason reason) { culling.record(reason); }
+
+    /** @param amount contact damage dealt to a monkey */
+    public void monkeyDamaged(int amount) { monkeyDamageTaken += amount; }
+
+    /** @param fromMonkey {@code true} for an Ice Monkey blast, {@code false} for the random fullscreen one */
+    public void iceBlast(boolean fromMonkey) {
+        if (fromMonkey) monkeyIceBlasts++;
+        else worldIceBlasts++;
+    }
+
+    /**
+     * Records the population at the end of a tick.
+     *
+     * @param bloons      live bloons
+     * @param monkeys     live monkeys
+     * @param projectiles projectiles in flight
+     */
+    public void endTick(int bloons, int monkeys, int projectiles) {
+        ticks++;
+        if (bloons > peakBloons) peakBloons = bloons;
+        if (monkeys > peakMonkeys) peakMonkeys = monkeys;
+        if (projectiles > peakProjectiles) peakProjectiles = projectiles;
+    }
+
+    /** @param seed seed of the run, reported so it can be reproduced */
+    public void setSeed(long seed) { this.seed = seed; }
+
+    /** @param nanos wall-clock time the run took */
+    public void setWallNanos(long nanos) { wallNanos = nanos; }
+
+    /** @return ticks simulated so far */
+    public long getTicks() { return ticks; }
+
+    /** @return bloons of {@code type} spawned so far */
+    public long getSpawned(BloonType type) { return bloonsSpawned[type.ordinal()]; }
+
+    /** @return bloons of {@code type} popped so far */
+    public long getPopped(BloonType type) { return bloonsPopped[type.ordinal()]; }
+
+    /** @return bloons of {@code type} that leaked so far */
+    public long getLeaked(BloonType type) { return bloonsLeaked[type.ordinal()]; }
+
+    /** @return monkeys of {@code type} killed so far */
+    public long getKilled(MonkeyType type) { return monkeysKilled[type.ordinal()]; }
+
+    /** @return monkeys of {@code type} that reached the opposite sidewalk so far */
+    public long getCrossed(MonkeyType type) { return monkeysCrossed[type.ordinal()]; }
+
+    /** @return most bloons alive at the end of any tick */
+    public int getPeakBloons() { return peakBloons; }
+
+    /** @return most projectiles in flight at the end of any tick */
+    public int getPeakProjectiles() { return peakProjectiles; }
+
+    /** @return ticks simulated per second of wall-clock time, or {@code 0} if not timed */
+    public double getTicksPerSecond() { return wallNanos > 0 ? ticks / (wallNanos / 1e9) : 0; }
+
+    /** @return projectiles culled for {@code reason} so far */
+    public long getCulled(Culling.Reason reason) { return culling.getCount(reason); }
+
+    /**
+     * Writes the summary as {@code key=value} lines, one per counter.
+     *
+     * @param out destination; not closed
+     */
+    public void write(PrintWriter out) {
+        double seconds = wallNanos / 1e9;
+        out.println("seed=" + seed);
+        out.println("ticks=" + ticks);
+        out.println("wallSeconds=" + String.format("%.3f", seconds));
+        out.println("ticksPerSecond=" + (seconds > 0 ? String.format("%.0f", ticks / seconds) : "n/a"));
+        out.println("peakBloons=" + peakBloons);
+        out.println("peakMonkeys=" + peakMonkeys);
+        out.println("peakProjectiles=" + peakProjectiles);
+        out.println("worldIceBlasts=" + worldIceBlasts);
+        out.println("monkeyIceBlasts=" + monkeyIceBlasts);
+        out.println("monkeyDamageTaken=" + monkeyDamageTaken);
+        for (BloonType t : BloonType.values()) {
+            int i = t.ordinal();
+            out.println("bloon." + t + "=spawned:" + bloonsSpawned[i]
+                    + " popped:" + bloonsPopped[i] + " leaked:" + bloonsLeaked[i]);
+        }
+        for (MonkeyType t : MonkeyType.values()) {
+            int i = t.ordinal();
+            out.println("monkey." + t + "=spawned:" + monkeysSpawned[i]
+                    + " killed:" + monkeysKilled[i] + " crossed:" + monkeysCrossed[i]);
+        }
+        for (ProjectileType t : ProjectileType.values()) {
+            out.println("shots." + t + "=" + shots[t.ordinal()]);
+        }
+        for (Culling.Reason r : Culling.Reason.values()) {
+            out.println("culled." + r + "=" + culling.getCount(r));
+        }
+        out.flush();
+    }
+}
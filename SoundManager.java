@@ -0,0 +1,133 @@
+import greenfoot.*;
+import java.util.Arrays;
+
+/**
+ * Plays every sound effect in the game from a small set of preloaded voices.
+ * <p>
+ * Actors used to create a new {@link GreenfootSound} per event, so a Moab under fire
+ * from a Super Monkey opened a fresh audio stream every few frames. Instead, each
+ * {@link Clip} gets {@link #VOICES_PER_CLIP} sounds created once by {@link #preload()}
+ * and reused:
+ * </p>
+ * <ul>
+ *   <li>Requests for the same clip within one frame are coalesced into a single play.</li>
+ *   <li>If every voice of a clip is still playing, the request is dropped.</li>
+ *   <li>{@link #setEnabled(boolean) setEnabled(false)} turns every call into a no-op,
+ *       for headless runs with no audio device.</li>
+ * </ul>
+ * {@link BloonWorld} advances the frame counter once per act.
+ */
+public final class SoundManager {
+    /** Every sound effect file used by the game. */
+    public enum Clip {
+        POP("Pop.wav"),
+        HIT("hit.wav"),
+        EXPLOSION("explosion.wav"),
+        ICE("IceEffectSound.wav"),
+        CERAMIC("CeramicSound.wav"),
+        MOAB_DAMAGE("moabdamage.wav"),
+        MOAB_POP("moabpop.wav"),
+        LEAD("LeadSound.wav"),
+        PURPLE("PurpleSound.wav");
+
+        /** Sound file name relative to {@code sounds/}. */
+        private final String file;
+
+        Clip(String file) {
+            this.file = file;
+        }
+    }
+
+    /** Maximum number of overlapping plays of any one clip. */
+    public static final int VOICES_PER_CLIP = 4;
+
+    private static final int CLIP_COUNT = Clip.values().length;
+    /** Preloaded voices, {@code null} until {@link #preload()} runs. */
+    private static GreenfootSound[][] voices;
+    /** Frame in which each clip last started playing. */
+    private static final long[] lastPlayedFrame = new long[CLIP_COUNT];
+    private static final long[] played = new long[CLIP_COUNT];
+    private static final long[] coalesced = new long[CLIP_COUNT];
+    private static final long[] dropped = new long[CLIP_COUNT];
+    private static boolean enabled = true;
+    private static long frame = 0;
+
+    private SoundManager() {
+    }
+
+    /**
+     * Creates the voices for every clip. Safe to call more than once; does nothing
+     * while sound is disabled.
+     */
+    public static void preload() {
+        if (!enabled || voices != null) return;
+        GreenfootSound[][] v = new GreenfootSound[CLIP_COUNT][VOICES_PER_CLIP];
+        for (Clip c : Clip.values()) {
+            for (int i = 0; i < VOICES_PER_CLIP; i++) {
+                v[c.ordinal()][i] = new GreenfootSound(c.file);
+            }
+        }
+        voices = v;
+        Arrays.fill(lastPlayedFrame, -1);
+    }
+
+    /**
+     * Plays a clip at the given volume, unless it already played this frame or all
+     * of its voices are busy.
+     *
+     * @param clip   the sound to play
+     * @param volume volume from 0 to 100
+     */
+    public static void play(Clip clip, int volume) {
+        if (!enabled) return;
+        if (voices == null) preload();
+        int c = clip.ordinal();
+        if (lastPlayedFrame[c] == frame) {
+            coalesced[c]++;
+            return;
+        }
+        for (GreenfootSound voice : voices[c]) {
+            if (!voice.isPlaying()) {
+                voice.setVolume(volume);
+                voice.play();
+                lastPlayedFrame[c] = frame;
+                played[c]++;
+                return;
+            }
+        }
+        dropped[c]++;
+    }
+
+    /** Starts a new frame for coalescing. Called once per world act. */
+    public static void nextFrame() {
+        frame++;
+    }
+
+    /**
+     * Turns all sound on or off. Disabling also stops anything currently playing.
+     *
+     * @param on {@code false} for silent (headless) runs
+     */
+    public static void setEnabled(boolean on) {
+        enabled = on;
+        if (!on && voices != null) {
+            for (GreenfootSound[] clipVoices : voices) {
+                for (GreenfootSound voice : clipVoices) voice.stop();
+            }
+        }
+    }
+
+    /** @return whether sounds are currently played */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /** @return times {@code clip} actually started playing */
+    public static long getPlayed(Clip clip) { return played[clip.ordinal()]; }
+
+    /** @return requests for {@code clip} merged into an earlier play in the same frame */
+    public static long getCoalesced(Clip clip) { return coalesced[clip.ordinal()]; }
+
+    /** @return requests for {@code clip} dropped because every voice was busy */
+    public static long getDropped(Clip clip) { return dropped[clip.ordinal()]; }
+}
@@ -0,0 +1,354 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Random;
+
+/**
+ * Decides when and what to spawn: bloons per lane, Moabs, monkeys, and the random
+ * fullscreen ice blast.
+ * <p>
+ * This is the spawn schedule that used to live in {@code BloonWorld.act()}, moved into
+ * plain Java so the same schedule drives both the Greenfoot world and the
+ * {@link HeadlessSimulation}. The director only makes decisions; placing actors is left
+ * to its {@link Host}.
+ * </p>
+ *
+ * <p>Key features:</p>
+ * <ul>
+ *   <li>Owns the simulation clock and every spawn and ice blast timer.</li>
+ *   <li>Draws every random number from one seeded source, in a fixed order, so the
+ *       same seed always produces the same sequence of spawns.</li>
+ *   <li>Takes what to spawn when (tier ladder, Moab odds, lane odds, monkey mix and pace)
+ *       from a compiled {@link WaveSchedule}, so scenarios are data rather than code.</li>
+ *   <li>Supports the developer mode that spawns only chosen bloon and monkey types.</li>
+ * </ul>
+ */
+public class SpawnDirector {
+    /** Number of bloon lanes. Lanes {@code 0-2} travel left, {@code 3-5} travel right. */
+    public static final int LANE_COUNT = 6;
+    private static final int BASE_MONKEY_INTERVAL = 80;
+    private static final int BASE_BLOON_INTERVAL = 240;
+    /** Bloon tiers by ordinal; cached because {@code values()} copies. */
+    private static final BloonType[] SPAWN_TIERS = BloonType.values();
+    /** Monkey types by ordinal. */
+    private static final MonkeyType[] MONKEY_TYPES = MonkeyType.values();
+
+    /**
+     * The world the director spawns into.
+     */
+    public interface Host {
+        /** @return number of Moabs currently alive */
+        int getMoabCount();
+
+        /**
+         * @param lane lane index
+         * @return {@code true} if a bloon is still sitting on the lane's spawner
+         */
+        boolean isLaneMouthBlocked(int lane);
+
+        /**
+         * Spawns a bloon at the entry end of a lane.
+         *
+         * @param type the tier to spawn
+         * @param lane lane index
+         */
+        void spawnBloon(BloonType type, int lane);
+
+        /**
+         * Spawns a monkey on one of the sidewalks.
+         *
+         * @param type  the monkey to spawn
+         * @param atTop {@code true} to start on the top sidewalk and walk down
+         * @param x     x-coordinate of the crossing
+         */
+        void spawnMonkey(MonkeyType type, boolean atTop, int x);
+
+        /** Triggers a fullscreen ice blast at the centre of the world. */
+        void triggerIceBlast();
+    }
+
+    private final Host host;
+    /** Seed the random source was created with. */
+    private final long seed;
+    /** Source of every spawn decision; never shared with anything else. Replaced on restore. */
+    private Random random;
+    /** World width in pixels, used for monkey crossing positions. */
+    private final int worldWidth;
+    /** What to spawn and how often, by simulation time. */
+    private final WaveSchedule schedule;
+
+    // --- Spawn timing variables ---
+    private int simulationTime = 0;
+    private final int[] laneSpawnTimers = new int[LANE_COUNT];
+    private int monkeySpawnTimer = 0;
+    private int bloonSpawnTimer = 0;
+    // --- Random event timers ---
+    private int iceBlastTimer = 0;
+    private boolean iceBlastActive = false;
+    /** Stretches the times at which new bloon tiers unlock; {@code 1} is the normal pace. */
+    private double ladderScale = 1.0;
+
+    // --- Developer testing features ---
+    private boolean devMode = false;
+    private BloonType devBloon1;
+    private BloonType devBloon2;
+    private MonkeyType devMonkey;
+
+    /**
+     * Creates a director at simulation time zero that follows the default wave schedule.
+     *
+     * @param host       the world to spawn into
+     * @param seed       seed for every random decision
+     * @param worldWidth world width in pixels
+     */
+    public SpawnDirector(Host host, long seed, int worldWidth) {
+        this(host, seed, worldWidth, WaveSchedule.defaults());
+    }
+
+    /**
+     * Creates a director at simulation time zero.
+     *
+     * @param host       the world to spawn into
+     * @param seed       seed for every random decision
+     * @param worldWidth world width in pixels
+     * @param schedule   what to spawn and how often
+     */
+    public SpawnDirector(Host host, long seed, int worldWidth, WaveSchedule schedule) {
+        this.host = host;
+        this.seed = seed;
+        this.random = new Random(seed);
+        this.worldWidth = worldWidth;
+        this.schedule = schedule;
+    }
+
+    /** @return the seed this director was created with, for reproducing the run */
+    public long getSeed() {
+        return seed;
+    }
+
+    /** @return the wave schedule this director follows */
+    public WaveSchedule getSchedule() {
+        return schedule;
+    }
+
+    /**
+     * Enables developer mode, which spawns custom bloons and monkeys for testing.
+     *
+     * @param bloonType1 first bloon type to spawn
+     * @param bloonType2 second bloon type to spawn
+     * @param monkeyType monkey type to spawn
+     */
+    public void enableDevMode(BloonType bloonType1, BloonType bloonType2, MonkeyType monkeyType) {
+        devMode = true;
+        devBloon1 = bloonType1;
+        devBloon2 = bloonType2;
+        devMonkey = monkeyType;
+    }
+
+    /**
+     * Slows down or speeds up the bloon tier ladder, for balance experiments.
+     *
+     * @param scale how much slower than the schedule new tiers unlock; {@code 2} takes twice as long
+     */
+    public void setLadderScale(double scale) {
+        ladderScale = scale;
+    }
+
+    /**
+     * Writes the clock, every timer, the developer mode settings and the state of the
+     * random source, so a director restored from them makes the same decisions from here on.
+     *
+     * @param out where to write
+     * @throws IOException if writing fails
+     */
+    void writeState(DataOutput out) throws IOException {
+        out.writeInt(simulationTime);
+        for (int timer : laneSpawnTimers) out.writeInt(timer);
+        out.writeInt(monkeySpawnTimer);
+        out.writeInt(bloonSpawnTimer);
+        out.writeInt(iceBlastTimer);
+        out.writeBoolean(iceBlastActive);
+        out.writeDouble(ladderScale);
+        out.writeBoolean(devMode);
+        out.writeByte(devBloon1 != null ? devBloon1.ordinal() : -1);
+        out.writeByte(devBloon2 != null ? devBloon2.ordinal() : -1);
+        out.writeByte(devMonkey != null ? devMonkey.ordinal() : -1);
+
+        // Random keeps its state private; serialisation is the supported way to copy it
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+            oos.writeObject(random);
+        }
+        out.writeShort(bytes.size());
+        out.write(bytes.toByteArray());
+    }
+
+    /**
+     * Restores what {@link #writeState} wrote. The director must have been created with
+     * the same seed and world width.
+     *
+     * @param in where to read from
+     * @throws IOException if reading fails or the data is not a director's state
+     */
+    void readState(DataInput in) throws IOException {
+        simulationTime = in.readInt();
+        for (int lane = 0; lane < LANE_COUNT; lane++) laneSpawnTimers[lane] = in.readInt();
+        monkeySpawnTimer = in.readInt();
+        bloonSpawnTimer = in.readInt();
+        iceBlastTimer = in.readInt();
+        iceBlastActive = in.readBoolean();
+        ladderScale = in.readDouble();
+        devMode = in.readBoolean();
+        int b1 = in.readByte();
+        int b2 = in.readByte();
+        int m = in.readByte();
+        devBloon1 = b1 >= 0 ? SPAWN_TIERS[b1] : null;
+        devBloon2 = b2 >= 0 ? SPAWN_TIERS[b2] : null;
+        devMonkey = m >= 0 ? MONKEY_TYPES[m] : null;
+
+        byte[] bytes = new byte[in.readUnsignedShort()];
+        in.readFully(bytes);
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            random = (Random) ois.readObject();
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Random source state is corrupt", e);
+        }
+    }
+
+    /**
+     * Advances the schedule by one frame: bloons, then monkeys, then the ice blast.
+     */
+    public void tick() {
+        simulationTime++;
+        spawnBloons();
+        spawnMonkeys();
+        triggerRandomIceBlast();
+    }
+
+    /**
+     * @return the simulation clock; in normal mode it advances twice per frame, once in
+     *         {@link #tick()} and once in the bloon schedule, which the tier thresholds are tuned for
+     */
+    public int getSimulationTime() {
+        return simulationTime;
+    }
+
+    /**
+     * @param lane lane index
+     * @return travel direction of that lane ({@code 1 = right}, {@code -1 = left})
+     */
+    public static int laneDirection(int lane) {
+        return (lane < 3) ? -1 : 1;
+    }
+
+    /**
+     * Handles all bloon spawning logic, including:
+     * <ul>
+     *   <li>Developer test bloon spawning</li>
+     *   <li>Normal bloon tier progression</li>
+     *   <li>MOAB spawn frequency scaling</li>
+     * </ul>
+     */
+    private void spawnBloons() {
+        //--- Dev Mode ---
+        if (devMode && (devBloon1 != null || devBloon2 != null)) {
+            bloonSpawnTimer++;
+            if (bloonSpawnTimer < BASE_BLOON_INTERVAL) return;
+            bloonSpawnTimer = 0;
+
+            for (int lane = 0; lane < LANE_COUNT; lane++) {
+                BloonType bloonType = (random.nextInt(2) == 0 ? devBloon1 : devBloon2);
+                if (bloonType != null) {
+                    host.spawnBloon(bloonType, lane);
+                }
+            }
+            return;
+        }
+
+        // --- Normal Spawns ---
+        simulationTime++;
+
+        // --- Moab Spawns ---
+        int currentMoabs = host.getMoabCount();
+        WaveSchedule.MoabRule moabs = schedule.moabsAt(simulationTime);
+
+        boolean canSpawnMoab = currentMoabs < moabs.max;
+        boolean shouldTrySpawnMoab = moabs.chance > 0 && random.nextInt(moabs.chance) == 0;
+
+        if (canSpawnMoab && shouldTrySpawnMoab) {
+            host.spawnBloon(BloonType.MOAB, random.nextInt(LANE_COUNT));
+            return;
+        }
+
+        // --- Small Bloon Spawns ---
+        WaveSchedule.LaneRule lanes = schedule.lanesAt(simulationTime);
+        int bloonSpawnChance = currentMoabs > 0 ? lanes.percentWithMoab : lanes.percent;
+        WaveSchedule.Roll<BloonType> tiers = schedule.bloonsAt((int) (simulationTime / ladderScale));
+
+        for (int lane = 0; lane < LANE_COUNT; lane++) {
+            laneSpawnTimers[lane]++;
+
+            if (random.nextInt(100) < bloonSpawnChance) {
+                if (laneSpawnTimers[lane] >= lanes.gap && !host.isLaneMouthBlocked(lane)) {
+                    laneSpawnTimers[lane] = 0;
+                    host.spawnBloon(tiers.pick(random), lane);
+                }
+            }
+        }
+    }
+
+    /**
+     * Handles automatic spawning of monkeys at dynamic intervals.
+     * The spawn rate and type of monkey depend on the current simulation phase.
+     */
+    private void spawnMonkeys() {
+        monkeySpawnTimer++;
+
+        if (devMode && devMonkey != null) {
+            if (monkeySpawnTimer < BASE_MONKEY_INTERVAL) return;
+            monkeySpawnTimer = 0;
+            addMonkey(devMonkey);
+            return;
+        }
+
+        if (monkeySpawnTimer < schedule.monkeyIntervalAt(simulationTime)) return;
+        monkeySpawnTimer = 0;
+
+        MonkeyType type = schedule.monkeysAt(simulationTime).pick(random);
+        if (type != null) addMonkey(type);
+    }
+
+    /**
+     * Picks a random sidewalk and crossing point for a new monkey.
+     *
+     * @param type the monkey to spawn
+     */
+    private void addMonkey(MonkeyType type) {
+        boolean spawnAtTop = random.nextInt(2) == 0;
+        int xSpawn = random.nextInt(worldWidth - 200) + 100;
+        host.spawnMonkey(type, spawnAtTop, xSpawn);
+    }
+
+    /**
+     * Occasionally triggers a fullscreen ice blast.
+     * Controlled by a cooldown timer and low random chance.
+     */
+    private void triggerRandomIceBlast() {
+        iceBlastTimer++;
+
+        if (iceBlastTimer < 600) return;
+
+        if (iceBlastTimer > 3000) iceBlastTimer = 600;
+
+        if (!iceBlastActive && random.nextInt(1000) == 0) {
+            iceBlastActive = true;
+            iceBlastTimer = 0;
+            host.triggerIceBlast();
+            iceBlastActive = false;
+        }
+    }
+}
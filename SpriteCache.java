@@ -0,0 +1,314 @@
+import greenfoot.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Central cache of every scaled sprite used by bloons, monkeys, projectiles and pops,
+ * and of the animation frames used by effects.
+ * <p>
+ * Each {@link Sprite} is one (asset, size) pair and hands out shared images for its
+ * four variants: normal or mirrored, and normal or frozen. Variants are decoded, scaled
+ * and tinted once, either during {@link #preload()} when the world starts or on first
+ * use, so spawning, freezing or thawing an actor is just a pointer swap.
+ * </p>
+ * <p>
+ * Each {@link Animation} is one (sequence, scale) pair: the numbered frames of an effect,
+ * decoded and scaled once and shared by every instance of the effect. Looking one up
+ * scans a short list instead of building a key, so spawning an effect allocates nothing
+ * but the effect itself.
+ * </p>
+ *
+ * <p><b>Shared images must not be modified.</b> Callers that need to draw on or
+ * mirror an image must copy it first with {@code new GreenfootImage(img)}.</p>
+ */
+public final class SpriteCache {
+    /** Every sprite handed out, keyed by asset and size. */
+    private static final Map<String, Sprite> SPRITES = new HashMap<>();
+    /** Every animation handed out; there are only a handful, so a list is searched. */
+    private static final List<Animation> ANIMATIONS = new ArrayList<>();
+
+    /** Pop burst shown when a bloon is destroyed. */
+    public static final Sprite POP = sprite("Pop.png", 100, 91);
+
+    private SpriteCache() {
+    }
+
+    /**
+     * Returns the shared sprite handle for an asset at a given size, creating it if needed.
+     * Handles are meant to be looked up once and stored, not looked up per spawn.
+     *
+     * @param asset  image file name relative to {@code images/}
+     * @param width  scaled width, or {@code 0} to keep the natural size
+     * @param height scaled height, or {@code 0} to keep the natural size
+     * @return the sprite handle
+     */
+    public static synchronized Sprite sprite(String asset, int width, int height) {
+        String key = asset + '@' + width + 'x' + height;
+        Sprite s = SPRITES.get(key);
+        if (s == null) {
+            s = new Sprite(asset, width, height);
+            SPRITES.put(key, s);
+        }
+        return s;
+    }
+
+    /**
+     * Returns sprite handles for a numbered sequence such as damage stages
+     * ({@code prefix + 0 + ".png"}, {@code prefix + 1 + ".png"}, ...).
+     *
+     * @param prefix file name before the stage number
+     * @param count  number of stages
+     * @param width  scaled width
+     * @param height scaled height
+     * @return one handle per stage
+     */
+    public static Sprite[] stages(String prefix, int count, int width, int height) {
+        Sprite[] stages = new Sprite[count];
+        for (int i = 0; i < count; i++) {
+            stages[i] = sprite(prefix + i + ".png", width, height);
+        }
+        return stages;
+    }
+
+    /**
+     * Returns the shared frames of a numbered sequence ({@code prefix + 1 + ".png"} up to
+     * {@code prefix + count + ".png"}), each scaled by a factor of its natural size.
+     *
+     * @param prefix file name before the frame number, relative to {@code images/}
+     * @param count  number of frames
+     * @param scale  factor applied to each frame's natural size; {@code 1} keeps it
+     * @return the animation handle
+     */
+    public static Animation animation(String prefix, int count, double scale) {
+        return animation(prefix, count, scale, 0, 0, 255);
+    }
+
+    /**
+     * Returns the shared frames of a numbered sequence ({@code prefix + 1 + ".png"} up to
+     * {@code prefix + count + ".png"}), each scaled to a fixed size.
+     *
+     * @param prefix       file name before the frame number, relative to {@code images/}
+     * @param count        number of frames
+     * @param width        scaled width
+     * @param height       scaled height
+     * @param transparency alpha applied to every frame, {@code 255} for opaque
+     * @return the animation handle
+     */
+    public static Animation animation(String prefix, int count, int width, int height, int transparency) {
+        return animation(prefix, count, 0, width, height, transparency);
+    }
+
+    private static synchronized Animation animation(String prefix, int count, double scale,
+                                                    int width, int height, int transparency) {
+        for (int i = 0; i < ANIMATIONS.size(); i++) {
+            Animation a = ANIMATIONS.get(i);
+            if (a.matches(prefix, count, scale, width, height, transparency)) return a;
+        }
+        Animation a = new Animation(prefix, count, scale, width, height, transparency);
+        ANIMATIONS.add(a);
+        return a;
+    }
+
+    /**
+     * Looks up one image variant directly by its full key.
+     *
+     * @param asset    image file name relative to {@code images/}
+     * @param width    scaled width, or {@code 0} for natural size
+     * @param height   scaled height, or {@code 0} for natural size
+     * @param mirrored whether the image faces left
+     * @param frozen   whether the icy tint is applied
+     * @return the shared image
+     */
+    public static GreenfootImage get(String asset, int width, int height, boolean mirrored, boolean frozen) {
+        return sprite(asset, width, height).get(mirrored, frozen);
+    }
+
+    /**
+     * Loads the normal and mirrored variants of every bloon, monkey and projectile sprite,
+     * plus the frozen variants of every bloon sprite (including each Ceramic damage stage),
+     * so a mass freeze never has to tint anything. Called once when the world is constructed.
+     */
+    public static void preload() {
+        List<Sprite> all = new ArrayList<>();
+        for (BloonType t : BloonType.values()) {
+            for (Sprite s : t.getSprites()) {
+                s.get(false, true);
+                s.get(true, true);
+                all.add(s);
+            }
+        }
+        for (MonkeyType t : MonkeyType.values()) all.add(t.getSprite());
+        for (ProjectileType t : ProjectileType.values()) all.add(t.getSprite());
+        all.add(POP);
+        for (Sprite s : all) {
+            s.get(false, false);
+            s.get(true, false);
+        }
+        // Effects at the sizes they are spawned at; the world-wide ice blast loads on first use
+        EffectRenderer.BLOOD.getFrames();
+        EffectRenderer.explosion(BombProjectile.EXPLOSION_RADIUS).getFrames();
+        IceBlastEffect.animation(IceMonkey.FREEZE_RANGE).getFrames();
+    }
+
+    /**
+     * Creates an icy-blue copy of an image by averaging every visible pixel with a
+     * light blue (100, 180, 255), keeping the original alpha. Works on the packed ARGB
+     * pixels of the backing image in bulk rather than one {@link Color} per pixel.
+     * Only used to build cache entries.
+     *
+     * @param base the image to tint; not modified
+     * @return a new frozen-tinted image, or {@code null} if {@code base} is {@code null}
+     */
+    public static GreenfootImage makeFrozenCopy(GreenfootImage base) {
+        if (base == null) return null;
+        GreenfootImage frozenImg = new GreenfootImage(base);
+        BufferedImage awt = frozenImg.getAwtImage();
+        int w = awt.getWidth();
+        int h = awt.getHeight();
+        int[] argb = awt.getRGB(0, 0, w, h, null, 0, w);
+        for (int i = 0; i < argb.length; i++) {
+            int p = argb[i];
+            int a = p >>> 24;
+            if (a == 0) continue;
+            int r = (((p >> 16) & 0xFF) + 100) / 2;
+            int g = (((p >> 8) & 0xFF) + 180) / 2;
+            int b = ((p & 0xFF) + 255) / 2;
+            argb[i] = (a << 24) | (r << 16) | (g << 8) | b;
+        }
+        awt.setRGB(0, 0, w, h, argb, 0, w);
+        return frozenImg;
+    }
+
+    /**
+     * One asset at one size, with lazily built shared variants.
+     */
+    public static final class Sprite {
+        private final String asset;
+        private final int width;
+        private final int height;
+        /** Variants indexed by {@code (mirrored ? 1 : 0) | (frozen ? 2 : 0)}. */
+        private final GreenfootImage[] variants = new GreenfootImage[4];
+
+        private Sprite(String asset, int width, int height) {
+            this.asset = asset;
+            this.width = width;
+            this.height = height;
+        }
+
+        /** @return the normal, right-facing image */
+        public GreenfootImage get() {
+            return get(false, false);
+        }
+
+        /**
+         * Returns a shared image variant, building it on first request.
+         *
+         * @param mirrored whether the image faces left
+         * @param frozen   whether the icy tint is applied
+         * @return the shared image; do not modify
+         */
+        public synchronized GreenfootImage get(boolean mirrored, boolean frozen) {
+            int i = (mirrored ? 1 : 0) | (frozen ? 2 : 0);
+            GreenfootImage img = variants[i];
+            if (img == null) {
+                img = build(mirrored, frozen);
+                variants[i] = img;
+            }
+            return img;
+        }
+
+        private GreenfootImage build(boolean mirrored, boolean frozen) {
+            if (frozen) {
+                return makeFrozenCopy(get(mirrored, false));
+            }
+            if (mirrored) {
+                GreenfootImage img = new GreenfootImage(get(false, false));
+                img.mirrorHorizontally();
+                return img;
+            }
+            GreenfootImage img = new GreenfootImage(asset);
+            if (width > 0 && height > 0) {
+                img.scale(width, height);
+            }
+            return img;
+        }
+
+        /** @return scaled width, or {@code 0} if the natural size is kept */
+        public int getWidth() {
+            return width;
+        }
+
+        /** @return scaled height, or {@code 0} if the natural size is kept */
+        public int getHeight() {
+            return height;
+        }
+
+        /** @return the image file this sprite is loaded from */
+        public String getAsset() {
+            return asset;
+        }
+    }
+
+    /**
+     * One numbered frame sequence at one scale, built on first use.
+     */
+    public static final class Animation {
+        private final String prefix;
+        private final int count;
+        /** Factor of each frame's natural size, or {@code 0} if scaled to a fixed size. */
+        private final double scale;
+        private final int width;
+        private final int height;
+        private final int transparency;
+        private GreenfootImage[] frames;
+
+        private Animation(String prefix, int count, double scale, int width, int height, int transparency) {
+            this.prefix = prefix;
+            this.count = count;
+            this.scale = scale;
+            this.width = width;
+            this.height = height;
+            this.transparency = transparency;
+        }
+
+        private boolean matches(String prefix, int count, double scale, int width, int height, int transparency) {
+            return this.count == count && this.scale == scale && this.width == width
+                && this.height == height && this.transparency == transparency && this.prefix.equals(prefix);
+        }
+
+        /**
+         * Returns every frame in order, decoding and scaling them on first request.
+         *
+         * @return the shared frames; do not modify the array or its images
+         */
+        public synchronized GreenfootImage[] getFrames() {
+            if (frames == null) {
+                GreenfootImage[] built = new GreenfootImage[count];
+                for (int i = 0; i < count; i++) {
+                    built[i] = build(prefix + (i + 1) + ".png");
+                }
+                frames = built;
+            }
+            return frames;
+        }
+
+        private GreenfootImage build(String asset) {
+            GreenfootImage img = new GreenfootImage(asset);
+            if (scale > 0 && scale != 1) {
+                img.scale((int) (img.getWidth() * scale), (int) (img.getHeight() * scale));
+            } else if (width > 0 && height > 0) {
+                img.scale(width, height);
+            }
+            if (transparency < 255) img.setTransparency(transparency);
+            return img;
+        }
+
+        /** @return number of frames */
+        public int getFrameCount() {
+            return count;
+        }
+    }
+}
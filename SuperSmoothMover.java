@@ -194,6 +194,7 @@ public abstract class SuperSmoothMover extends Actor
         exactY = y;
         // signum yields 1 or -1, ensures always "adding" away from zero to perform rounding by casting
         super.setLocation((int) (x + (Math.signum(x) * 0.5)), (int) (y + (Math.signum(y) * 0.5)));
+        notifyMoved();
     }
 
     /**
@@ -209,6 +210,15 @@ public abstract class SuperSmoothMover extends Actor
         exactX = x;
         exactY = y;
         super.setLocation(x, y);
+        notifyMoved();
+    }
+
+    /**
+     * Lets a {@link BloonWorld} know this actor moved, so it can keep the paint order right.
+     */
+    private void notifyMoved() {
+        World world = getWorld();
+        if (world instanceof BloonWorld) ((BloonWorld) world).actorMoved(this);
     }
 
     /**
@@ -0,0 +1,343 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * What a {@link SpawnDirector} spawns and how often, over simulation time, read from a
+ * wave file and compiled into lookup tables.
+ * <p>
+ * The tier ladder, Moab odds and monkey phases used to be if/else chains in the director,
+ * so every new scenario meant editing code. A wave file lists them as timed steps instead;
+ * loading it checks every line and compiles each section into a table indexed by
+ * simulation time, and each weighted choice into a cumulative weight array. Looking up a
+ * step is one array read and a roll is one random number and a short scan, so spawning
+ * allocates nothing. A compiled schedule is immutable and can be shared between
+ * simulations running on different threads.
+ * </p>
+ *
+ * <p>Wave file format: one entry per line, {@code #} starts a comment. Each timed section
+ * is a list of steps, the first at time {@code 0}, each holding until the next one.</p>
+ * <ul>
+ *   <li>{@code bloons <time> <TIER>[:weight]...}: the tiers a lane spawn picks from.
+ *       A tier may be listed more than once.</li>
+ *   <li>{@code monkeys <time> <TYPE|NONE>[:weight]...}: the monkey a monkey spawn picks;
+ *       {@code NONE} spawns nothing.</li>
+ *   <li>{@code moabs <time> <chance> <max>}: a Moab spawns with odds of 1 in {@code chance}
+ *       per bloon spawn, while fewer than {@code max} are alive; {@code 0} means never.</li>
+ *   <li>{@code lanes <time> <percent> <percentWithMoab> <gap>}: odds per frame that a lane
+ *       spawns (lower while a Moab is alive), and the frames a lane waits between spawns.</li>
+ *   <li>{@code monkeyInterval <base> <rampTime> <floor>}: frames between monkey spawns,
+ *       {@code base * max(floor, 1 - time / rampTime)} rounded down; it falls linearly from
+ *       {@code base} at time zero and stays at {@code base * floor} once it gets there.</li>
+ * </ul>
+ * <p>
+ * Times are in the director's simulation clock, which runs at twice the frame rate. The
+ * file is looked up as a path first, then on the classpath, next to the classes.
+ * </p>
+ */
+public final class WaveSchedule {
+    /** The schedule the game has always used. */
+    public static final String DEFAULT_FILE = "waves/default.txt";
+
+    private static WaveSchedule defaults;
+
+    private final String name;
+    private final Timeline<Roll<BloonType>> bloons;
+    private final Timeline<Roll<MonkeyType>> monkeys;
+    private final Timeline<MoabRule> moabs;
+    private final Timeline<LaneRule> lanes;
+    /** Frames between monkey spawns, by time, up to the end of the ramp. */
+    private final int[] monkeyInterval;
+    /** Frames between monkey spawns once the ramp is over. */
+    private final int monkeyIntervalFloor;
+
+    private WaveSchedule(String name, Timeline<Roll<BloonType>> bloons, Timeline<Roll<MonkeyType>> monkeys,
+                         Timeline<MoabRule> moabs, Timeline<LaneRule> lanes,
+                         int base, int rampTime, double floor) {
+        this.name = name;
+        this.bloons = bloons;
+        this.monkeys = monkeys;
+        this.moabs = moabs;
+        this.lanes = lanes;
+        monkeyInterval = new int[rampTime];
+        for (int t = 0; t < rampTime; t++) {
+            monkeyInterval[t] = (int) (base * Math.max(floor, 1.0 - t / (double) rampTime));
+        }
+        monkeyIntervalFloor = (int) (base * floor);
+    }
+
+    /**
+     * Returns the schedule in {@link #DEFAULT_FILE}, loading it on first use.
+     *
+     * @return the default schedule
+     * @throws IllegalStateException if the file is missing or not valid
+     */
+    public static synchronized WaveSchedule defaults() {
+        if (defaults == null) {
+            try {
+                defaults = load(DEFAULT_FILE);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot load the default wave schedule", e);
+            }
+        }
+        return defaults;
+    }
+
+    /**
+     * Loads and compiles a wave file.
+     *
+     * @param file path of the file, or its name on the classpath
+     * @return the compiled schedule
+     * @throws IOException if the file cannot be found or read, or a line is not valid
+     */
+    public static WaveSchedule load(String file) throws IOException {
+        Path path = Paths.get(file);
+        if (Files.isRegularFile(path)) {
+            try (Reader in = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                return parse(file, in);
+            }
+        }
+        InputStream resource = WaveSchedule.class.getClassLoader().getResourceAsStream(file);
+        if (resource == null) throw new IOException("Wave file not found: " + file);
+        try (Reader in = new InputStreamReader(resource, StandardCharsets.UTF_8)) {
+            return parse(file, in);
+        }
+    }
+
+    /** Reads every line, then compiles the sections. */
+    private static WaveSchedule parse(String name, Reader source) throws IOException {
+        List<Step<Roll<BloonType>>> bloons = new ArrayList<>();
+        List<Step<Roll<MonkeyType>>> monkeys = new ArrayList<>();
+        List<Step<MoabRule>> moabs = new ArrayList<>();
+        List<Step<LaneRule>> lanes = new ArrayList<>();
+        int[] interval = null;
+        double floor = 0;
+
+        BufferedReader in = new BufferedReader(source);
+        String line;
+        int lineNumber = 0;
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            int hash = line.indexOf('#');
+            if (hash >= 0) line = line.substring(0, hash);
+            String[] words = line.trim().split("\\s+");
+            if (words[0].isEmpty()) continue;
+            String where = name + ":" + lineNumber + ": ";
+            try {
+                switch (words[0]) {
+                    case "bloons":
+                        bloons.add(new Step<>(time(words), roll(words, BloonType.class, false)));
+                        break;
+                    case "monkeys":
+                        monkeys.add(new Step<>(time(words), roll(words, MonkeyType.class, true)));
+                        break;
+                    case "moabs":
+                        expect(words, 4);
+                        moabs.add(new Step<>(time(words), new MoabRule(atLeast(words[2], 0), atLeast(words[3], 0))));
+                        break;
+                    case "lanes":
+                        expect(words, 5);
+                        lanes.add(new Step<>(time(words), new LaneRule(
+                                atLeast(words[2], 0), atLeast(words[3], 0), atLeast(words[4], 0))));
+                        break;
+                    case "monkeyInterval":
+                        expect(words, 4);
+                        interval = new int[] { atLeast(words[1], 1), atLeast(words[2], 1) };
+                        floor = Double.parseDouble(words[3]);
+                        if (!(floor > 0 && floor <= 1)) throw new IllegalArgumentException("floor must be in (0, 1]");
+                        break;
+                    default:
+                        throw new IllegalArgumentException("unknown entry " + words[0]);
+                }
+            } catch (IllegalArgumentException e) {
+                // Also catches NumberFormatException and valueOf's unknown names
+                throw new IOException(where + e.getMessage(), e);
+            }
+        }
+
+        if (interval == null) throw new IOException(name + ": no monkeyInterval");
+        return new WaveSchedule(name, compile(name, "bloons", bloons), compile(name, "monkeys", monkeys),
+                                compile(name, "moabs", moabs), compile(name, "lanes", lanes),
+                                interval[0], interval[1], floor);
+    }
+
+    private static void expect(String[] words, int count) {
+        if (words.length != count) {
+            throw new IllegalArgumentException(words[0] + " takes " + (count - 1) + " values");
+        }
+    }
+
+    private static int time(String[] words) {
+        if (words.length < 3) throw new IllegalArgumentException(words[0] + " needs a time and values");
+        return atLeast(words[1], 0);
+    }
+
+    private static int atLeast(String word, int min) {
+        int v = Integer.parseInt(word);
+        if (v < min) throw new IllegalArgumentException(word + " is below " + min);
+        return v;
+    }
+
+    /** Parses {@code NAME[:weight]} choices into a roll; {@code NONE} becomes {@code null}. */
+    private static <E extends Enum<E>> Roll<E> roll(String[] words, Class<E> type, boolean allowNone) {
+        int n = words.length - 2;
+        Object[] outcomes = new Object[n];
+        int[] cumulative = new int[n];
+        int total = 0;
+        for (int i = 0; i < n; i++) {
+            String word = words[i + 2];
+            int colon = word.indexOf(':');
+            String outcome = colon < 0 ? word : word.substring(0, colon);
+            int weight = colon < 0 ? 1 : atLeast(word.substring(colon + 1), 1);
+            if (allowNone && outcome.equals("NONE")) outcomes[i] = null;
+            else outcomes[i] = Enum.valueOf(type, outcome);
+            total = Math.addExact(total, weight);
+            cumulative[i] = total;
+        }
+        return new Roll<>(outcomes, cumulative);
+    }
+
+    /** Checks the steps of a section and builds its time index. */
+    private static <T> Timeline<T> compile(String name, String section, List<Step<T>> steps) throws IOException {
+        if (steps.isEmpty() || steps.get(0).time != 0) {
+            throw new IOException(name + ": " + section + " must have a step at time 0");
+        }
+        if (steps.size() > Short.MAX_VALUE) throw new IOException(name + ": too many " + section + " steps");
+        Object[] values = new Object[steps.size()];
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0 && steps.get(i).time <= steps.get(i - 1).time) {
+                throw new IOException(name + ": " + section + " steps must be in increasing time order");
+            }
+            values[i] = steps.get(i).value;
+        }
+        short[] index = new short[steps.get(steps.size() - 1).time + 1];
+        int step = 0;
+        for (int t = 0; t < index.length; t++) {
+            if (step + 1 < values.length && steps.get(step + 1).time == t) step++;
+            index[t] = (short) step;
+        }
+        return new Timeline<>(values, index);
+    }
+
+    /** @return the file this schedule was loaded from */
+    public String getName() {
+        return name;
+    }
+
+    /** @return the tiers a lane spawn picks from at {@code time} */
+    Roll<BloonType> bloonsAt(int time) {
+        return bloons.at(time);
+    }
+
+    /** @return the monkeys a monkey spawn picks from at {@code time}; {@code null} outcomes spawn nothing */
+    Roll<MonkeyType> monkeysAt(int time) {
+        return monkeys.at(time);
+    }
+
+    /** @return the Moab odds and cap at {@code time} */
+    MoabRule moabsAt(int time) {
+        return moabs.at(time);
+    }
+
+    /** @return the lane spawn odds and gap at {@code time} */
+    LaneRule lanesAt(int time) {
+        return lanes.at(time);
+    }
+
+    /** @return frames between monkey spawns at {@code time} */
+    int monkeyIntervalAt(int time) {
+        return time < monkeyInterval.length ? monkeyInterval[time] : monkeyIntervalFloor;
+    }
+
+    /** A weighted choice between outcomes, rolled with one random number. */
+    static final class Roll<T> {
+        private final Object[] outcomes;
+        /** Running total of the weights; the last entry is the total. */
+        private final int[] cumulative;
+
+        private Roll(Object[] outcomes, int[] cumulative) {
+            this.outcomes = outcomes;
+            this.cumulative = cumulative;
+        }
+
+        /**
+         * Picks an outcome. Draws exactly one {@code nextInt(total weight)}.
+         *
+         * @param random the source to draw from
+         * @return the outcome, or {@code null} for {@code NONE}
+         */
+        @SuppressWarnings("unchecked")
+        T pick(Random random) {
+            int r = random.nextInt(cumulative[cumulative.length - 1]);
+            int i = 0;
+            while (r >= cumulative[i]) i++;
+            return (T) outcomes[i];
+        }
+    }
+
+    /** When Moabs may spawn. */
+    static final class MoabRule {
+        /** Odds of 1 in this per bloon spawn, or {@code 0} for never. */
+        final int chance;
+        /** Moabs alive at which no more spawn. */
+        final int max;
+
+        MoabRule(int chance, int max) {
+            this.chance = chance;
+            this.max = max;
+        }
+    }
+
+    /** How often each lane spawns a bloon. */
+    static final class LaneRule {
+        /** Percent chance per frame that a lane spawns. */
+        final int percent;
+        /** Percent chance per frame while a Moab is alive. */
+        final int percentWithMoab;
+        /** Frames a lane waits between two spawns. */
+        final int gap;
+
+        LaneRule(int percent, int percentWithMoab, int gap) {
+            this.percent = percent;
+            this.percentWithMoab = percentWithMoab;
+            this.gap = gap;
+        }
+    }
+
+    /** One line of a timed section, before compiling. */
+    private static final class Step<T> {
+        final int time;
+        final T value;
+
+        Step(int time, T value) {
+            this.time = time;
+            this.value = value;
+        }
+    }
+
+    /** A compiled section: the step in force at every time up to the last step. */
+    private static final class Timeline<T> {
+        private final Object[] steps;
+        /** Index into {@link #steps} for every time up to the start of the last step. */
+        private final short[] index;
+
+        Timeline(Object[] steps, short[] index) {
+            this.steps = steps;
+            this.index = index;
+        }
+
+        @SuppressWarnings("unchecked")
+        T at(int time) {
+            return (T) steps[time < index.length ? index[time] : steps.length - 1];
+        }
+    }
+}
@@ -1,31 +1,8 @@
 import greenfoot.*;
 
 public class WhiteBloon extends Bloon {
-    private static final double SPEED = 2; // constant speed
 
     public WhiteBloon(int direction, int laneY) {
-        super(SPEED, 1, direction, laneY, null); // direction = 1, nextTier handled by getChildTier
-        GreenfootImage bloon = new GreenfootImage("White_Bloon.png");
-        bloon.scale(36, 48);
-        setImage(bloon);
-        contactDamage = 2;
-    }
-    @Override
-    protected void pop() {
-        World world = getWorld();
-        if (world == null) return;
-
-        int x = getX();
-        int y = getY();
-
-        // Spawn Black and White Bloons slightly offset horizontally
-        PinkBloon Pink1 = new PinkBloon(direction, laneY);
-        PinkBloon Pink2 = new PinkBloon(direction, laneY);
-
-        int offset = 12;
-        world.addObject(Pink1, x - offset, y);
-        world.addObject(Pink2, x + offset, y);
-
-        world.removeObject(this);
+        super(BloonType.WHITE, direction, laneY);
     }
 }
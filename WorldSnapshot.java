@@ -0,0 +1,261 @@
+import greenfoot.*;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Saves the full state of a {@link BloonWorld} to a compact binary file and restores it,
+ * so a session can be resumed from a checkpoint instead of played up to it again.
+ * <p>
+ * Reaching the late game (Moabs and Ceramics on screen) takes minutes of real time. A
+ * snapshot taken there can be restored in a fraction of a second, for benchmarking or
+ * debugging the heavy phase directly. It holds everything that affects what happens
+ * next: the director's clock, timers and random source, every bloon, monkey, projectile
+ * and ice blast, and which actors the projectiles are tracking. What is only visual (pops,
+ * blood and explosions still playing, the profiler overlay) and the statistics (pool and
+ * culling counters) are not saved.
+ * </p>
+ *
+ * <p>Key features:</p>
+ * <ul>
+ *   <li>Versioned: a file from another format version is refused rather than misread.</li>
+ *   <li>Actors refer to each other by index in the file, so a projectile's source and
+ *       target, a Boomerang's hit set and a magic bolt's homing target come back linked
+ *       to the restored actors.</li>
+ *   <li>Snapshots are taken between frames, when no spawn or despawn is pending.</li>
+ *   <li>A restored world continues deterministically from the snapshot. It does not
+ *       record a replay, since its spawns did not start at frame zero.</li>
+ * </ul>
+ *
+ * <p>File format (big-endian):</p>
+ * <ul>
+ *   <li>Header: magic {@code "BLSN"}, version byte, seed ({@code long}), wave file name
+ *       ({@code writeUTF}), world width and height ({@code short}).</li>
+ *   <li>The {@link SpawnDirector}'s state.</li>
+ *   <li>Bloons, monkeys, projectiles and ice blasts, each as a count followed by one record
+ *       per actor: what is needed to create it (type, pixel position, and for projectiles
+ *       the indices of source and target, {@code -1} for none), then the actor's own state.</li>
+ * </ul>
+ * <p>
+ * Greenfoot acts actors in the order they were added, and the world re-adds them as it
+ * keeps the paint order sorted, so the restored world's act order is not the original's.
+ * Both runs settle into the same rules, but they are not frame-for-frame identical.
+ * </p>
+ */
+public final class WorldSnapshot {
+    /** {@code "BLSN"} in ASCII. */
+    static final int MAGIC = 0x424C534E;
+    static final byte VERSION = 3;
+
+    private static final BloonType[] TIERS = BloonType.values();
+    private static final MonkeyType[] MONKEYS = MonkeyType.values();
+    private static final ProjectileType[] PROJECTILES = ProjectileType.values();
+
+    private WorldSnapshot() {
+    }
+
+    /**
+     * Writes a world to a file. Call between frames, never while actors are acting.
+     *
+     * @param world the world to save
+     * @param file  where to write; replaced if it exists
+     * @throws IOException if the file cannot be written
+     */
+    public static void save(BloonWorld world, Path file) throws IOException {
+        List<Bloon> bloons = world.getObjects(Bloon.class);
+        List<Monkey> monkeys = world.getObjects(Monkey.class);
+        List<Projectile> projectiles = world.getObjects(Projectile.class);
+        List<IceBlastEffect> blasts = world.getObjects(IceBlastEffect.class);
+
+        try (Writer out = new Writer(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            for (int i = 0; i < bloons.size(); i++) out.ids.put(bloons.get(i), i);
+            for (int i = 0; i < monkeys.size(); i++) out.ids.put(monkeys.get(i), i);
+
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(world.getSeed());
+            out.writeUTF(world.getDirector().getSchedule().getName());
+            out.writeShort(world.getWidth());
+            out.writeShort(world.getHeight());
+            world.getDirector().writeState(out);
+
+            out.writeInt(bloons.size());
+            for (Bloon b : bloons) {
+                out.writeByte(b.getType().ordinal());
+                out.writeByte(b.getDirection());
+                out.writeShort(b.getX());
+                out.writeShort(b.getY());
+                b.writeState(out);
+            }
+
+            out.writeInt(monkeys.size());
+            for (Monkey m : monkeys) {
+                out.writeByte(m.getType().ordinal());
+                out.writeShort(m.getX());
+                out.writeShort(m.getY());
+                m.writeState(out);
+            }
+
+            out.writeInt(projectiles.size());
+            for (Projectile p : projectiles) {
+                out.writeByte(p.getType().ordinal());
+                out.writeRef(p.source);
+                out.writeRef(p.target);
+                out.writeShort(p.getX());
+                out.writeShort(p.getY());
+                p.writeState(out);
+            }
+
+            out.writeInt(blasts.size());
+            for (IceBlastEffect e : blasts) {
+                out.writeShort(e.getRadius());
+                out.writeShort(e.getX());
+                out.writeShort(e.getY());
+                e.writeState(out);
+            }
+        }
+    }
+
+    /**
+     * Reads a snapshot into a new world. Show it with {@code Greenfoot.setWorld}.
+     *
+     * @param file a file written by {@link #save}
+     * @return the restored world, which does not record a replay
+     * @throws IOException if the file cannot be read, is not a snapshot of this version,
+     *                     was taken from a world of another size, or its wave file is gone
+     */
+    public static BloonWorld load(Path file) throws IOException {
+        try (Reader in = new Reader(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) throw new IOException("Not a world snapshot");
+            byte version = in.readByte();
+            if (version != VERSION) throw new IOException("Unsupported snapshot version " + version);
+            long seed = in.readLong();
+            WaveSchedule waves = WaveSchedule.load(in.readUTF());
+            int width = in.readShort();
+            int height = in.readShort();
+
+            BloonWorld world = BloonWorld.blank(seed, waves);
+            if (width != world.getWidth() || height != world.getHeight()) {
+                throw new IOException("Snapshot is of a " + width + "x" + height + " world");
+            }
+            world.getDirector().readState(in);
+
+            for (int n = in.readInt(); n > 0; n--) {
+                BloonType type = pick(TIERS, in.readByte());
+                int direction = in.readByte();
+                int x = in.readShort();
+                int y = in.readShort();
+                Bloon b = type.create(direction, y);
+                world.addObject(b, x, y);
+                b.readState(in);
+                in.bloons.add(b);
+            }
+
+            for (int n = in.readInt(); n > 0; n--) {
+                MonkeyType type = pick(MONKEYS, in.readByte());
+                int x = in.readShort();
+                int y = in.readShort();
+                Monkey m = type.create();
+                world.addObject(m, x, y);
+                m.readState(in);
+                in.monkeys.add(m);
+            }
+
+            for (int n = in.readInt(); n > 0; n--) {
+                ProjectileType type = pick(PROJECTILES, in.readByte());
+                Monkey source = in.readMonkey();
+                Bloon target = in.readBloon();
+                int x = in.readShort();
+                int y = in.readShort();
+                Projectile p = world.getProjectilePool().acquire(type, source, target);
+                world.addObject(p, x, y);
+                p.readState(in);
+            }
+
+            for (int n = in.readInt(); n > 0; n--) {
+                int radius = in.readShort();
+                int x = in.readShort();
+                int y = in.readShort();
+                IceBlastEffect e = new IceBlastEffect(radius);
+                world.addObject(e, x, y);
+                e.readState(in);
+            }
+            return world;
+        }
+    }
+
+    /** Looks up a constant by the ordinal stored in the file. */
+    private static <T> T pick(T[] values, int ordinal) throws IOException {
+        if (ordinal < 0 || ordinal >= values.length) throw new IOException("Snapshot is corrupt");
+        return values[ordinal];
+    }
+
+    /**
+     * Snapshot output that can write a reference to a bloon or monkey as its index in the file.
+     */
+    static final class Writer extends DataOutputStream {
+        /** Index of every bloon among the bloons and every monkey among the monkeys. */
+        private final Map<Actor, Integer> ids = new IdentityHashMap<>();
+
+        private Writer(OutputStream out) {
+            super(out);
+        }
+
+        /**
+         * Writes a reference to a bloon or monkey in the snapshot.
+         *
+         * @param actor the actor, or {@code null}
+         * @throws IOException if writing fails
+         */
+        void writeRef(Actor actor) throws IOException {
+            Integer id = actor != null ? ids.get(actor) : null;
+            // Actors no longer in the world are written as none
+            writeInt(id != null ? id : -1);
+        }
+    }
+
+    /**
+     * Snapshot input that resolves references written by {@link Writer#writeRef} to the
+     * actors restored so far.
+     */
+    static final class Reader extends DataInputStream {
+        private final List<Bloon> bloons = new ArrayList<>();
+        private final List<Monkey> monkeys = new ArrayList<>();
+
+        private Reader(InputStream in) {
+            super(in);
+        }
+
+        /**
+         * @return the restored bloon referred to next, or {@code null} for none
+         * @throws IOException if reading fails or the index is out of range
+         */
+        Bloon readBloon() throws IOException {
+            return resolve(bloons, readInt());
+        }
+
+        /**
+         * @return the restored monkey referred to next, or {@code null} for none
+         * @throws IOException if reading fails or the index is out of range
+         */
+        Monkey readMonkey() throws IOException {
+            return resolve(monkeys, readInt());
+        }
+
+        private static <T> T resolve(List<T> actors, int id) throws IOException {
+            if (id == -1) return null;
+            if (id < 0 || id >= actors.size()) throw new IOException("Snapshot is corrupt");
+            return actors.get(id);
+        }
+    }
+}
@@ -0,0 +1,380 @@
+import greenfoot.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps Greenfoot's paint order in step with actor Y positions without rebuilding the world.
+ * <p>
+ * Greenfoot paints actors in the order they were added, so the only way to bring an actor
+ * forward is to remove and re-add it. {@link BloonWorld#zSort} does that for every actor on
+ * every frame. This tracker is told about every add, remove and move, and only looks at those
+ * actors on the next update. Paint order only shows where images overlap, so it is kept exact
+ * between overlapping actors: an actor that moved past a neighbour, or a new actor landing in
+ * front of or behind one, re-adds just the actors whose order against it is now wrong, plus
+ * any overlapping actors that must stay in front of those.
+ * </p>
+ *
+ * <p>Key features:</p>
+ * <ul>
+ *   <li>Work per update is proportional to the actors that changed, not the world.</li>
+ *   <li>New actors are slotted in among their neighbours instead of re-adding everything in front.</li>
+ *   <li>Overlaps are found through a uniform grid of the tracked actors.</li>
+ *   <li>Ties on Y keep insertion order, matching the old stable sort.</li>
+ *   <li>Precise {@link SuperSmoothMover} coordinates survive a re-add.</li>
+ * </ul>
+ */
+public class ZOrderTracker {
+    /** Width and height of one overlap cell, in pixels. */
+    private static final int CELL_SIZE = 64;
+
+    /** The world whose paint order is being maintained. */
+    private final World world;
+    /** Tracking entry for every actor currently in the world. */
+    private final Map<Actor, Entry> entries = new HashMap<>();
+    /** Number of cell columns. */
+    private final int cols;
+    /** Number of cell rows. */
+    private final int rows;
+    /** Entries bucketed by every cell their image bounds touch, row-major. */
+    private final List<List<Entry>> cells;
+    /** Classes Greenfoot paints by class order; re-adding them would change nothing. */
+    private Class<?>[] fixedClasses = new Class<?>[0];
+    /** Entries added or moved since the last update. */
+    private final List<Entry> dirty = new ArrayList<>();
+    /** Reusable buffer holding the entries that need re-adding this update. */
+    private final List<Entry> reinsertBuffer = new ArrayList<>();
+    /** Source of stable tie-break ids. */
+    private long nextId = 0;
+    /** Mirrors Greenfoot's internal paint sequence: higher values paint on top. */
+    private long nextPaintSeq = 0;
+    /** Incremented every update; marks which entries are already queued for re-adding. */
+    private long updateCount = 0;
+    /** True while this tracker is removing and re-adding actors itself. */
+    private boolean reinserting = false;
+    /** Number of actors re-added during the most recent update. */
+    private int lastReinsertCount = 0;
+
+    /**
+     * Creates a tracker for the given world. Actors must be reported through
+     * {@link #added(Actor)}, {@link #removed(Actor)} and {@link #moved(Actor)}.
+     *
+     * @param world the world to keep sorted
+     */
+    public ZOrderTracker(World world) {
+        this.world = world;
+        cols = Math.max(1, (world.getWidth() + CELL_SIZE - 1) / CELL_SIZE);
+        rows = Math.max(1, (world.getHeight() + CELL_SIZE - 1) / CELL_SIZE);
+        cells = new ArrayList<>(cols * rows);
+        for (int i = 0; i < cols * rows; i++) {
+            cells.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Leaves actors of the given classes untracked. Pass the classes given to
+     * {@link World#setPaintOrder}, which Greenfoot paints by class whatever their Y.
+     *
+     * @param classes the classes to ignore
+     */
+    public void setFixedClasses(Class<?>... classes) {
+        fixedClasses = classes.clone();
+    }
+
+    /**
+     * Records an actor that was just added to the world. Newly added actors paint on top
+     * until the next update puts them in order.
+     *
+     * @param actor the actor that was added
+     */
+    public void added(Actor actor) {
+        if (reinserting || actor == null || entries.containsKey(actor) || isFixed(actor)) return;
+        Entry e = new Entry(actor, nextId++);
+        e.paintSeq = nextPaintSeq++;
+        refresh(e);
+        entries.put(actor, e);
+        markDirty(e);
+    }
+
+    /**
+     * Forgets an actor that was just removed from the world.
+     *
+     * @param actor the actor that was removed
+     */
+    public void removed(Actor actor) {
+        if (reinserting || actor == null) return;
+        Entry e = entries.remove(actor);
+        if (e != null) removeFromCells(e);
+    }
+
+    /**
+     * Records that an actor changed position, so its order against its neighbours is
+     * checked on the next update. Actors that are not tracked are ignored.
+     *
+     * @param actor the actor that moved
+     */
+    public void moved(Actor actor) {
+        if (reinserting) return;
+        Entry e = entries.get(actor);
+        if (e != null) markDirty(e);
+    }
+
+    /**
+     * @return {@code true} while the tracker itself is re-adding actors, so world
+     *         add/remove hooks can tell a paint-order shuffle from a real spawn or despawn
+     */
+    public boolean isReinserting() {
+        return reinserting;
+    }
+
+    /** @return how many actors were re-added during the last {@link #update()} */
+    public int getLastReinsertCount() {
+        return lastReinsertCount;
+    }
+
+    /** @return number of actors currently tracked */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Fixes the paint order around every actor added or moved since the last update.
+     * <p>
+     * Before this call every overlapping pair was painted in Y order, so only pairs that
+     * include a dirty actor can be wrong. For each such pair the actor that belongs in front
+     * is queued for re-adding. A re-added actor paints over everything that stays put, so any
+     * overlapping actor that belongs in front of it is queued as well. The queue is then
+     * re-added back-to-front.
+     * </p>
+     */
+    public void update() {
+        updateCount++;
+        reinsertBuffer.clear();
+
+        for (int i = 0; i < dirty.size(); i++) {
+            Entry e = dirty.get(i);
+            e.dirty = false;
+            if (!e.tracked) continue; // removed since it was marked
+            if (e.actor.getWorld() != world) {
+                // Lost without going through removed(); drop it quietly
+                entries.remove(e.actor);
+                removeFromCells(e);
+                continue;
+            }
+            refresh(e);
+        }
+
+        for (int i = 0; i < dirty.size(); i++) {
+            Entry e = dirty.get(i);
+            if (e.tracked) queueOverlaps(e, false);
+        }
+        dirty.clear();
+
+        // Re-added actors paint over everything that stays; pull in what must cover them
+        for (int i = 0; i < reinsertBuffer.size(); i++) {
+            queueOverlaps(reinsertBuffer.get(i), true);
+        }
+
+        lastReinsertCount = reinsertBuffer.size();
+        if (reinsertBuffer.isEmpty()) return;
+
+        Collections.sort(reinsertBuffer);
+        reinserting = true;
+        try {
+            for (Entry e : reinsertBuffer) {
+                reinsert(e.actor);
+                e.paintSeq = nextPaintSeq++;
+            }
+        } finally {
+            reinserting = false;
+        }
+        reinsertBuffer.clear();
+    }
+
+    /**
+     * Queues entries from every overlapping pair that includes the given entry.
+     * <p>
+     * When {@code cascade} is set, every overlapping entry that sorts in front of {@code e}
+     * is queued. Otherwise only pairs painted in the wrong order are, by queueing the entry
+     * that belongs in front. An entry sharing several cells with {@code e} is simply seen
+     * more than once.
+     * </p>
+     *
+     * @param e       the entry to search around
+     * @param cascade whether {@code e} is already queued for re-adding
+     */
+    private void queueOverlaps(Entry e, boolean cascade) {
+        for (int gy = e.cellY0; gy <= e.cellY1; gy++) {
+            for (int gx = e.cellX0; gx <= e.cellX1; gx++) {
+                List<Entry> cell = cells.get(gy * cols + gx);
+                for (int k = 0; k < cell.size(); k++) {
+                    Entry n = cell.get(k);
+                    if (Math.abs(n.x - e.x) >= e.halfWidth + n.halfWidth
+                            || Math.abs(n.y - e.y) >= e.halfHeight + n.halfHeight) continue;
+                    if (n == e || n.actor.getWorld() != world) continue;
+                    boolean nInFront = n.compareTo(e) > 0;
+                    if (cascade) {
+                        if (nInFront) queue(n);
+                    } else if (nInFront) {
+                        if (n.paintSeq < e.paintSeq) queue(n);
+                    } else if (n.paintSeq > e.paintSeq) {
+                        queue(e);
+                    }
+                }
+            }
+        }
+    }
+
+    /** Adds an entry to the re-add queue unless it is already there. */
+    private void queue(Entry e) {
+        if (e.queuedAt == updateCount) return;
+        e.queuedAt = updateCount;
+        reinsertBuffer.add(e);
+    }
+
+    /** Adds an entry to the dirty list unless it is already there. */
+    private void markDirty(Entry e) {
+        if (e.dirty) return;
+        e.dirty = true;
+        dirty.add(e);
+    }
+
+    /**
+     * Reads an entry's position and image size from its actor and moves it to the cells
+     * its bounds now cover. Bounds are only re-measured here, so an actor that turns or
+     * changes image without moving is checked against its new bounds on its next move.
+     */
+    private void refresh(Entry e) {
+        Actor a = e.actor;
+        if (a instanceof SuperSmoothMover) {
+            SuperSmoothMover s = (SuperSmoothMover) a;
+            e.x = s.getPreciseX();
+            e.y = s.getPreciseY();
+        } else {
+            e.x = a.getX();
+            e.y = a.getY();
+        }
+        GreenfootImage image = a.getImage();
+        int rotation = a.getRotation();
+        if (image != e.image || rotation != e.rotation) {
+            e.image = image;
+            e.rotation = rotation;
+            if (image == null) {
+                e.halfWidth = 0;
+                e.halfHeight = 0;
+            } else if (rotation % 180 == 0) {
+                e.halfWidth = (image.getWidth() + 1) / 2;
+                e.halfHeight = (image.getHeight() + 1) / 2;
+            } else if (rotation % 90 == 0) {
+                e.halfWidth = (image.getHeight() + 1) / 2;
+                e.halfHeight = (image.getWidth() + 1) / 2;
+            } else {
+                // Half the diagonal covers the image at any angle
+                double w = image.getWidth(), h = image.getHeight();
+                e.halfWidth = (int) Math.ceil(Math.sqrt(w * w + h * h) / 2);
+                e.halfHeight = e.halfWidth;
+            }
+        }
+
+        int x0 = cellX(e.x - e.halfWidth), x1 = cellX(e.x + e.halfWidth);
+        int y0 = cellY(e.y - e.halfHeight), y1 = cellY(e.y + e.halfHeight);
+        if (e.tracked && x0 == e.cellX0 && x1 == e.cellX1 && y0 == e.cellY0 && y1 == e.cellY1) return;
+        removeFromCells(e);
+        e.cellX0 = x0;
+        e.cellX1 = x1;
+        e.cellY0 = y0;
+        e.cellY1 = y1;
+        for (int gy = e.cellY0; gy <= e.cellY1; gy++) {
+            for (int gx = e.cellX0; gx <= e.cellX1; gx++) {
+                cells.get(gy * cols + gx).add(e);
+            }
+        }
+        e.tracked = true;
+    }
+
+    /** Takes an entry out of every cell it was put in. */
+    private void removeFromCells(Entry e) {
+        if (!e.tracked) return;
+        for (int gy = e.cellY0; gy <= e.cellY1; gy++) {
+            for (int gx = e.cellX0; gx <= e.cellX1; gx++) {
+                cells.get(gy * cols + gx).remove(e);
+            }
+        }
+        e.tracked = false;
+    }
+
+    /** @return whether Greenfoot paints this actor by class rather than by add order */
+    private boolean isFixed(Actor a) {
+        for (Class<?> c : fixedClasses) {
+            if (c.isInstance(a)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes and re-adds an actor so it paints on top, preserving precise coordinates.
+     *
+     * @param a the actor to bring to the front
+     */
+    private void reinsert(Actor a) {
+        int x = a.getX();
+        int y = a.getY();
+        if (a instanceof SuperSmoothMover) {
+            SuperSmoothMover s = (SuperSmoothMover) a;
+            double xd = s.getPreciseX();
+            double yd = s.getPreciseY();
+            world.removeObject(a);
+            world.addObject(a, x, y);
+            // Restore exact double-precision location to avoid drift
+            s.setLocation(xd, yd);
+        } else {
+            world.removeObject(a);
+            world.addObject(a, x, y);
+        }
+    }
+
+    /** @return column index for an x-coordinate, clamped to the grid */
+    private int cellX(double x) {
+        return Math.max(0, Math.min(cols - 1, (int) Math.floor(x / CELL_SIZE)));
+    }
+
+    /** @return row index for a y-coordinate, clamped to the grid */
+    private int cellY(double y) {
+        return Math.max(0, Math.min(rows - 1, (int) Math.floor(y / CELL_SIZE)));
+    }
+
+    /** Tracking state for one actor. */
+    private static class Entry implements Comparable<Entry> {
+        final Actor actor;
+        final long id;
+        double x;
+        double y;
+        /** Image and rotation the half-extents were measured from. */
+        GreenfootImage image;
+        int rotation;
+        /** Half the width and height of the actor's bounds on screen. */
+        int halfWidth, halfHeight;
+        long paintSeq;
+        /** Range of cells the entry was last put in, inclusive. */
+        int cellX0, cellY0, cellX1, cellY1;
+        /** Whether the entry is in the grid; false once its actor is gone. */
+        boolean tracked;
+        boolean dirty;
+        /** The update that last queued this entry for re-adding. */
+        long queuedAt = -1;
+
+        Entry(Actor actor, long id) {
+            this.actor = actor;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int cmp = Double.compare(y, other.y);
+            if (cmp != 0) return cmp;
+            return Long.compare(id, other.id); // stable tie-break
+        }
+    }
+}
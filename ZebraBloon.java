@@ -1,32 +1,9 @@
 import greenfoot.*;
 
 public class ZebraBloon extends Bloon {
-    private static final double SPEED = 1.8;
     
     public ZebraBloon(int direction, int laneY) {
-        super(SPEED, 1, direction, laneY, null); // direction = 1, nextTier handled manually in pop
-        GreenfootImage bloon = new GreenfootImage("Zebra_Bloon.png");
-        bloon.scale(59, 78);
-        setImage(bloon);
-        contactDamage = 3;
+        super(BloonType.ZEBRA, direction, laneY);
     }
 
-    @Override
-    protected void pop() {
-        World world = getWorld();
-        if (world == null) return;
-
-        int x = getX();
-        int y = getY();
-
-        // Spawn Black and White Bloons slightly offset horizontally
-        BlackBloon black = new BlackBloon(direction, laneY);
-        WhiteBloon white = new WhiteBloon(direction, laneY);
-
-        int offset = 12;
-        world.addObject(black, x - offset, y);
-        world.addObject(white, x + offset, y);
-
-        world.removeObject(this);
-    }
 }
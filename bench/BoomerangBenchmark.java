@@ -0,0 +1,54 @@
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * {@link Boomerang#checkCollision()} with a boomerang overlapping a stack of bloons, so every
+ * call walks the touching list, the hit set and the pierce count. With more bloons than
+ * its pierce the boomerang uses up its pierce and leaves the world.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoomerangBenchmark {
+    @Param({"1", "5", "20"})
+    public int bloons;
+
+    private BloonWorld world;
+    private Monkey thrower;
+    private Boomerang boomerang;
+    private int x;
+    private int y;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SoundManager.setEnabled(false);
+        world = new BloonWorld(1);
+        x = world.getWidth() / 2;
+        y = world.getLanePositions()[3];
+        thrower = MonkeyType.BOOMERANG.create();
+        world.addObject(thrower, x, 162);
+        boomerang = new Boomerang(thrower, null);
+    }
+
+    @Setup(Level.Invocation)
+    public void stack() {
+        world.removeObjects(world.getObjects(Bloon.class));
+        world.getEffects().clear();
+        for (int i = 0; i < bloons; i++) {
+            // Ceramics survive a hit, so the stack is the same on every call
+            world.addObject(new CeramicBloon(1, y), x, y);
+        }
+        world.removeObject(boomerang);
+        boomerang.reset(thrower, null);
+        world.addObject(boomerang, x, y);
+        world.sweepCollisions();
+    }
+
+    @Benchmark
+    public void checkCollision() {
+        boomerang.checkCollision();
+    }
+}
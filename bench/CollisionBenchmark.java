@@ -0,0 +1,85 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * One frame of projectile&ndash;bloon collision checks: the {@link CollisionSweep} broadphase
+ * and circle tests, against testing every projectile with every bloon. Bloons are spread
+ * over the six lanes and projectiles over the playfield, one projectile per two bloons.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollisionBenchmark {
+    @Param({"100", "1000", "5000"})
+    public int bloons;
+
+    private final CollisionSweep<Integer> sweep = new CollisionSweep<>();
+    private final List<Integer> touching = new ArrayList<>();
+    private Integer[] ids;
+    private double[] bloonX, bloonY, bloonRadius;
+    private double[] projX, projY, projRadius;
+    private int[] slots;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(1);
+        BloonType[] tiers = BloonType.values();
+        ids = new Integer[bloons];
+        bloonX = new double[bloons];
+        bloonY = new double[bloons];
+        bloonRadius = new double[bloons];
+        for (int i = 0; i < bloons; i++) {
+            ids[i] = i;
+            bloonX[i] = random.nextInt(1024);
+            bloonY[i] = 270 + 76 * random.nextInt(SpawnDirector.LANE_COUNT);
+            bloonRadius[i] = tiers[random.nextInt(tiers.length)].getHitRadius();
+        }
+        int projectiles = bloons / 2;
+        ProjectileType[] types = ProjectileType.values();
+        projX = new double[projectiles];
+        projY = new double[projectiles];
+        projRadius = new double[projectiles];
+        slots = new int[projectiles];
+        for (int j = 0; j < projectiles; j++) {
+            projX[j] = random.nextInt(1024);
+            projY[j] = random.nextInt(800);
+            projRadius[j] = types[random.nextInt(types.length)].getHitRadius();
+        }
+    }
+
+    @Benchmark
+    public int sweepAndPrune() {
+        sweep.clear();
+        for (int i = 0; i < bloons; i++) sweep.addBloon(ids[i], bloonX[i], bloonY[i], bloonRadius[i]);
+        for (int j = 0; j < projX.length; j++) slots[j] = sweep.addProjectile(projX[j], projY[j], projRadius[j], 8);
+        sweep.sweep();
+        int hits = 0;
+        for (int j = 0; j < projX.length; j++) {
+            sweep.collect(slots[j], sweep.getGeneration(), projX[j] + 4, projY[j] + 4, projRadius[j], touching);
+            hits += touching.size();
+        }
+        return hits;
+    }
+
+    @Benchmark
+    public int allPairs() {
+        int hits = 0;
+        for (int j = 0; j < projX.length; j++) {
+            double x = projX[j] + 4;
+            double y = projY[j] + 4;
+            for (int i = 0; i < bloons; i++) {
+                double dx = bloonX[i] - x;
+                double dy = bloonY[i] - y;
+                double r = bloonRadius[i] + projRadius[j];
+                if (dx * dx + dy * dy < r * r) hits++;
+            }
+        }
+        return hits;
+    }
+}
@@ -0,0 +1,32 @@
+import greenfoot.*;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Building the icy tint with {@link Bloon#makeFrozenCopy}, on the real sprite of each size
+ * class: the smallest bloons, the common 63x84 ones, and the Moab.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FrozenCopyBenchmark {
+    @Param({"BLACK", "RED", "CERAMIC", "MOAB"})
+    public BloonType type;
+
+    private Bloon bloon;
+    private GreenfootImage base;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        bloon = type.create(1, 0);
+        base = type.getSprite().get();
+    }
+
+    @Benchmark
+    public GreenfootImage makeFrozenCopy() {
+        return bloon.makeFrozenCopy(base);
+    }
+}
@@ -0,0 +1,60 @@
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * A full {@link Bloon#pop()} cascade from one {@link Moab} down to the last {@link RedBloon}:
+ * every bloon in the world is popped, then every child, until none are left.
+ * {@link #moabOverkill()} pops the same Moab in one hit with enough damage left over
+ * for {@link PopCascade} to resolve the whole tree without creating a bloon.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PopCascadeBenchmark {
+    /** Leftover damage that pops every layer below a Moab. */
+    private static final int OVERKILL = 100;
+
+    private BloonWorld world;
+    private int laneY;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SoundManager.setEnabled(false);
+        world = new BloonWorld(1);
+        laneY = world.getLanePositions()[3];
+    }
+
+    @Setup(Level.Invocation)
+    public void spawnMoab() {
+        world.getEffects().clear();
+        world.addObject(new Moab(1, laneY), world.getWidth() / 2, laneY);
+    }
+
+    /** @return number of bloons popped */
+    @Benchmark
+    public int moabToRed() {
+        int popped = 0;
+        List<Bloon> bloons = world.getObjects(Bloon.class);
+        while (!bloons.isEmpty()) {
+            for (Bloon b : bloons) {
+                b.pop();
+                popped++;
+            }
+            bloons = world.getObjects(Bloon.class);
+        }
+        return popped;
+    }
+
+    /** @return number of actors in the world after the hit */
+    @Benchmark
+    public int moabOverkill() {
+        for (Bloon b : world.getObjects(Bloon.class)) {
+            b.pop(OVERKILL, DamageType.NORMAL);
+        }
+        return world.numberOfObjects();
+    }
+}
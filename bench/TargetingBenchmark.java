@@ -0,0 +1,49 @@
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Monkey targeting queries, {@link Monkey#getNearestBloon()} and
+ * {@link Monkey#bloonsInFront()}, with a monkey in the middle of increasingly crowded lanes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TargetingBenchmark {
+    @Param({"10", "100", "1000"})
+    public int bloons;
+
+    private BloonWorld world;
+    private Monkey monkey;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SoundManager.setEnabled(false);
+        world = new BloonWorld(1);
+        Random random = new Random(1);
+        int[] lanes = world.getLanePositions();
+        for (int i = 0; i < bloons; i++) {
+            int lane = random.nextInt(lanes.length);
+            BloonType type = BloonType.values()[random.nextInt(BloonType.MOAB.ordinal())];
+            world.addObject(type.create(SpawnDirector.laneDirection(lane), lanes[lane]),
+                            random.nextInt(world.getWidth()), lanes[lane]);
+        }
+        monkey = MonkeyType.DART.create();
+        monkey.setRotation(90);
+        world.addObject(monkey, world.getWidth() / 2, 162);
+        world.getBloonGrid().rebuild(world.getObjects(Bloon.class));
+    }
+
+    @Benchmark
+    public Bloon nearestBloon() {
+        return monkey.getNearestBloon();
+    }
+
+    @Benchmark
+    public boolean bloonsInFront() {
+        return monkey.bloonsInFront();
+    }
+}
@@ -0,0 +1,70 @@
+import greenfoot.*;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Paint-order maintenance: the full {@link BloonWorld#zSort} rebuild against the
+ * incremental {@link ZOrderTracker}, at increasing actor counts.
+ * <p>
+ * Before every call a tenth of the actors move vertically, like bloons changing lanes
+ * and monkeys walking, so both approaches have real work to do.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ZSortBenchmark {
+    @Param({"100", "1000", "10000"})
+    public int actors;
+
+    private World world;
+    private ZOrderTracker tracker;
+    private final ArrayList<Actor> all = new ArrayList<>();
+    private final Random random = new Random(1);
+
+    /** An empty world, so only the benchmarked actors are sorted. */
+    static class EmptyWorld extends World {
+        EmptyWorld() {
+            super(1024, 800, 1, false);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        world = new EmptyWorld();
+        tracker = new ZOrderTracker(world);
+        all.clear();
+        for (int i = 0; i < actors; i++) {
+            RedBloon b = new RedBloon(1, 0);
+            world.addObject(b, random.nextInt(1024), random.nextInt(800));
+            tracker.added(b);
+            all.add(b);
+        }
+        tracker.update();
+    }
+
+    @Setup(Level.Invocation)
+    public void moveSome() {
+        for (int i = 0; i < actors / 10; i++) {
+            SuperSmoothMover a = (SuperSmoothMover) all.get(random.nextInt(actors));
+            a.setLocation(a.getPreciseX(), random.nextInt(800));
+            tracker.moved(a);
+        }
+    }
+
+    @Benchmark
+    public void fullRebuild() {
+        BloonWorld.zSort(all, world);
+    }
+
+    @Benchmark
+    public int incremental() {
+        tracker.update();
+        return tracker.getLastReinsertCount();
+    }
+}